@@ -0,0 +1,52 @@
+package com.ainexus.hospital.patient.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * Entry point for the {@code benchmarks} Maven profile.
+ *
+ * Runs every suite matching {@code -Djmh.include} once per thread count in
+ * {@code -Djmh.threads} (comma-separated) and writes one JSON result file per
+ * thread count to {@code -Djmh.resultDir}, e.g. {@code target/jmh/jmh-threads-4.json}.
+ * {@code -Djmh.prof} adds JMH profilers by name (comma-separated), e.g. {@code gc}
+ * for bytes allocated per operation.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {}
+
+    public static void main(String[] args) throws RunnerException {
+        String include = System.getProperty("jmh.include", ".*Benchmark.*");
+        String resultDir = System.getProperty("jmh.resultDir", "target/jmh");
+        int[] threadCounts = Arrays.stream(System.getProperty("jmh.threads", "1,4,8").split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        String[] profilers = Arrays.stream(System.getProperty("jmh.prof", "").split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .toArray(String[]::new);
+
+        new File(resultDir).mkdirs();
+
+        for (int threads : threadCounts) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(resultDir + "/jmh-threads-" + threads + ".json");
+            for (String profiler : profilers) {
+                options.addProfiler(profiler);
+            }
+            new Runner(options.build()).run();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.ainexus.hospital.patient.config;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PHI column encryption/decryption throughput. Every patient read or write
+ * runs one of these per encrypted field, so payload sizes cover a phone
+ * number, a typical address and a long allergies / chronic-conditions note.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AesEncryptionConverterBenchmark {
+
+    private static final String KEY = "benchmark-encryption-key-32bytes!";
+
+    @Param({"16", "256", "4096"})
+    int payloadSize;
+
+    private AesEncryptionConverter converter;
+    private String plaintext;
+    private String ciphertext;
+
+    @Setup
+    public void setUp() {
+        converter = new AesEncryptionConverter(KEY);
+        StringBuilder sb = new StringBuilder(payloadSize);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < payloadSize; i++) {
+            sb.append((char) ('a' + random.nextInt(26)));
+        }
+        plaintext = sb.toString();
+        ciphertext = converter.convertToDatabaseColumn(plaintext);
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return converter.convertToDatabaseColumn(plaintext);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return converter.convertToEntityAttribute(ciphertext);
+    }
+}
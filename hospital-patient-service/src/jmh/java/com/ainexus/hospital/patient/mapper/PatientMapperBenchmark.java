@@ -0,0 +1,70 @@
+package com.ainexus.hospital.patient.mapper;
+
+import com.ainexus.hospital.patient.dto.response.PatientResponse;
+import com.ainexus.hospital.patient.model.Gender;
+import com.ainexus.hospital.patient.model.Patient;
+import com.ainexus.hospital.patient.model.PatientStatus;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-response mapping for a fully populated (already decrypted)
+ * patient. {@code noteSize} controls the length of the allergies and
+ * chronic-conditions text, the only unbounded fields on the response.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatientMapperBenchmark {
+
+    @Param({"0", "256", "4096"})
+    int noteSize;
+
+    private PatientMapper mapper;
+    private Patient patient;
+
+    @Setup
+    public void setUp() {
+        mapper = Mappers.getMapper(PatientMapper.class);
+        String note = noteSize == 0 ? null : "x".repeat(noteSize);
+        patient = Patient.builder()
+                .id(1L)
+                .patientId("P2026001")
+                .mrn("MRN2026001")
+                .firstName("Jane")
+                .lastName("Doe")
+                .dateOfBirth("1985-06-15")
+                .gender(Gender.FEMALE)
+                .phoneNumber("555-123-4567")
+                .email("jane.doe@example.com")
+                .address("123 Main St")
+                .city("Springfield")
+                .state("IL")
+                .zipCode("62701")
+                .emergencyContactName("John Doe")
+                .emergencyContactPhone("555-987-6543")
+                .emergencyContactRelationship("Spouse")
+                .bloodGroup("A+")
+                .knownAllergies(note)
+                .chronicConditions(note)
+                .hasAllergies(note != null)
+                .hasChronicConditions(note != null)
+                .status(PatientStatus.ACTIVE)
+                .registeredBy("receptionist1")
+                .registeredAt(Instant.parse("2026-01-15T10:00:00Z"))
+                .updatedBy("receptionist1")
+                .updatedAt(Instant.parse("2026-02-01T09:30:00Z"))
+                .build();
+    }
+
+    @Benchmark
+    public PatientResponse toResponse() {
+        return mapper.toResponse(patient);
+    }
+}
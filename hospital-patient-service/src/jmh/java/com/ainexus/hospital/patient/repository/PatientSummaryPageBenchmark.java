@@ -0,0 +1,101 @@
+package com.ainexus.hospital.patient.repository;
+
+import com.ainexus.hospital.patient.config.AesEncryptionConverter;
+import com.ainexus.hospital.patient.model.Patient;
+import com.ainexus.hospital.patient.repository.projection.PatientSummaryRow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One 100-row page of the patient list, read as full Patient entities vs. the
+ * PatientSummaryRow projection, from the database the application is
+ * configured for (dev profile: the local hospital_db). Needs patients loaded,
+ * e.g. by the bulk import; it only reads.
+ *
+ * Pages rotate over the first {@value #PAGES} pages in the list's sort order,
+ * each in a fresh EntityManager as a request would see it. Run with the GC
+ * profiler for bytes allocated per page (gc.alloc.rate.norm):
+ *
+ *   ./mvnw -Pbenchmarks -DskipTests verify -Djmh.include=PatientSummaryPage -Djmh.threads=1 -Djmh.prof=gc
+ *
+ * src/jmh/sql/patient_summary_page_bytes.sql measures the same pages on the wire.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatientSummaryPageBenchmark {
+
+    private static final int    PAGE_SIZE = 100;
+    private static final int    PAGES     = 50;
+    private static final String ORDER     = " ORDER BY p.lastNameSearch, p.firstNameSearch, p.id";
+
+    /** JPA and the PHI converter only: no web tier, schedulers, Flyway or repositories. */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = JpaRepositoriesAutoConfiguration.class)
+    @EntityScan(basePackageClasses = Patient.class)
+    @Import(AesEncryptionConverter.class)
+    static class JpaOnly {}
+
+    private ConfigurableApplicationContext context;
+    private EntityManagerFactory           emf;
+    private int                            page;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(JpaOnly.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.flyway.enabled=false", "--logging.level.com.ainexus=INFO");
+        emf = context.getBean(EntityManagerFactory.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Patient> entityPage() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("SELECT p FROM Patient p" + ORDER, Patient.class)
+                    .setFirstResult(nextOffset())
+                    .setMaxResults(PAGE_SIZE)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public List<PatientSummaryRow> summaryPage() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery(PatientSummaryRow.SELECT + "FROM Patient p" + ORDER, PatientSummaryRow.class)
+                    .setFirstResult(nextOffset())
+                    .setMaxResults(PAGE_SIZE)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    private int nextOffset() {
+        page = (page + 1) % PAGES;
+        return page * PAGE_SIZE;
+    }
+}
@@ -0,0 +1,27 @@
+package com.ainexus.hospital.patient.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PatientService#calculateAge(String)} runs for every patient in every
+ * list, detail and export response. Includes the malformed-date path, which
+ * falls back to 0 via an exception.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatientAgeBenchmark {
+
+    @Param({"1985-06-15", "not-a-date"})
+    String dateOfBirth;
+
+    @Benchmark
+    public int calculateAge() {
+        return PatientService.calculateAge(dateOfBirth);
+    }
+}
@@ -0,0 +1,75 @@
+package com.ainexus.hospital.patient.service;
+
+import com.ainexus.hospital.patient.config.AesEncryptionConverter;
+import com.ainexus.hospital.patient.mapper.PatientMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row work of the bulk patient import that runs on the pipeline workers:
+ * parse, bean validation, search-field derivation (name tokens, two HMACs,
+ * Soundex) and encryption of the ten PHI fields. Run with several thread
+ * counts to see how the parallel stage scales; its total throughput is the
+ * ceiling on import rows/s when the JDBC batch inserts keep up.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatientImportBenchmark {
+
+    private static final String KEY = "benchmark-encryption-key-32bytes!";
+
+    private static final String CSV_HEADER = "firstName,lastName,dateOfBirth,gender,phoneNumber,email,address,"
+            + "city,state,zipCode,emergencyContactName,emergencyContactPhone,emergencyContactRelationship,"
+            + "bloodGroup,knownAllergies,chronicConditions";
+
+    private static final String CSV_ROW = "Jane,Doe,1985-06-15,FEMALE,(555) 123-4567,jane.doe@example.com,"
+            + "\"123 Main St, Apt 4\",Springfield,IL,62701,John Doe,555-987-6543,Spouse,A+,Penicillin,Asthma";
+
+    private static final String NDJSON_ROW = "{\"firstName\":\"Jane\",\"lastName\":\"Doe\",\"dateOfBirth\":\"1985-06-15\","
+            + "\"gender\":\"FEMALE\",\"phoneNumber\":\"(555) 123-4567\",\"email\":\"jane.doe@example.com\","
+            + "\"address\":\"123 Main St, Apt 4\",\"city\":\"Springfield\",\"state\":\"IL\",\"zipCode\":\"62701\","
+            + "\"emergencyContactName\":\"John Doe\",\"emergencyContactPhone\":\"555-987-6543\","
+            + "\"emergencyContactRelationship\":\"Spouse\",\"bloodGroup\":\"A+\","
+            + "\"knownAllergies\":\"Penicillin\",\"chronicConditions\":\"Asthma\"}";
+
+    private PatientImportService importService;
+    private PatientImportService.RowParser csvParser;
+    private PatientImportService.RowParser jsonParser;
+    private PatientImportService.RawRecord csvRecord;
+    private PatientImportService.RawRecord jsonRecord;
+
+    @Setup
+    public void setUp() {
+        // Only the per-row collaborators are real; nothing here touches the database
+        importService = new PatientImportService(null, null,
+                Mappers.getMapper(PatientMapper.class),
+                new SearchIndexService(KEY),
+                new AesEncryptionConverter(KEY),
+                null, null,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new ObjectMapper(),
+                null, 500, 1000);
+        csvParser  = importService.csvParser(CSV_HEADER);
+        jsonParser = importService::parseJson;
+        csvRecord  = new PatientImportService.RawRecord(2, CSV_ROW);
+        jsonRecord = new PatientImportService.RawRecord(1, NDJSON_ROW);
+    }
+
+    @Benchmark
+    public PatientImportService.Prepared prepareCsvRow() {
+        return importService.prepare(csvRecord, csvParser);
+    }
+
+    @Benchmark
+    public PatientImportService.Prepared prepareNdjsonRow() {
+        return importService.prepare(jsonRecord, jsonParser);
+    }
+}
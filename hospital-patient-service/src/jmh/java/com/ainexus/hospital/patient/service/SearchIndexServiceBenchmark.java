@@ -0,0 +1,59 @@
+package com.ainexus.hospital.patient.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search-index derivation run on every registration, update and search
+ * request: HMAC of the normalised phone / email and the Soundex code used
+ * for duplicate detection. The {@code input} parameter selects a short and a
+ * long representative value for each method.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchIndexServiceBenchmark {
+
+    private static final String KEY = "benchmark-encryption-key-32bytes!";
+
+    @Param({"short", "long"})
+    String input;
+
+    private SearchIndexService searchIndexService;
+    private String phone;
+    private String email;
+    private String name;
+
+    @Setup
+    public void setUp() {
+        searchIndexService = new SearchIndexService(KEY);
+        if ("short".equals(input)) {
+            phone = "5551234567";
+            email = "a.b@x.io";
+            name = "Lee";
+        } else {
+            phone = "+1 (555) 123-4567 ext. 8901";
+            email = "  Alexandra.Montgomery-Fitzgerald@st-bartholomews-hospital.example.org ";
+            name = "Montgomery-Fitzgerald O'Shaughnessy";
+        }
+    }
+
+    @Benchmark
+    public String hashPhone() {
+        return searchIndexService.hashPhone(phone);
+    }
+
+    @Benchmark
+    public String hashEmail() {
+        return searchIndexService.hashEmail(email);
+    }
+
+    @Benchmark
+    public String soundex() {
+        return searchIndexService.soundex(name);
+    }
+}
@@ -0,0 +1,104 @@
+-- Patient search latency at 1M rows: LOWER(...) LIKE '%x%' on B-tree indexes
+-- (pre-V17 query) vs. raw-column LIKE '%x%' on pg_trgm GIN indexes (V18).
+--
+-- Run against a scratch database (never a real one — it creates its own table):
+--
+--   createdb hms_bench
+--   psql -d hms_bench -f src/jmh/sql/patient_search_trgm_benchmark.sql
+--
+-- Each phase runs every sampled term through the same page + count pair the
+-- search endpoint issues, and reports p50 / p95 / max in milliseconds.
+
+\set ON_ERROR_STOP on
+\timing off
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+DROP TABLE IF EXISTS bench_patients;
+CREATE TABLE bench_patients (
+    id                BIGSERIAL PRIMARY KEY,
+    patient_id        VARCHAR(10)  NOT NULL,
+    mrn               VARCHAR(15),
+    first_name_search VARCHAR(100),
+    last_name_search  VARCHAR(100),
+    status            VARCHAR(20)  NOT NULL DEFAULT 'ACTIVE'
+);
+
+-- 1M synthetic patients; names are built from syllables so substrings repeat
+-- with a realistic spread of selectivities.
+INSERT INTO bench_patients (patient_id, mrn, first_name_search, last_name_search)
+SELECT 'P' || (2000 + g / 100000) || lpad((g % 100000)::text, 5, '0'),
+       'MRN' || (2000 + g / 100000) || lpad((g % 100000)::text, 5, '0'),
+       (ARRAY['al','be','ca','da','el','fa','ga','ha','jo','ka','li','ma','na','ol','pa','ro','sa','ta','vi','wi'])[1 + (g * 7) % 20]
+         || (ARRAY['ex','na','ra','vid','ice','nk','briel','nry','hn','te','nda','ria','than','iver','ul','se','rah','m','cky','ll'])[1 + (g * 13) % 20],
+       (ARRAY['smi','joh','wil','bro','jon','gar','mil','dav','rod','mar','her','lop','gon','wil','and','tho','tay','moo','jac','mar'])[1 + (g * 11) % 20]
+         || (ARRAY['th','nson','liams','wn','es','cia','ler','is','riguez','tinez','nandez','ez','zalez','son','erson','mas','lor','re','kson','tin'])[1 + (g * 17) % 20]
+         || (g % 997)::text
+FROM generate_series(1, 1000000) AS g;
+
+ANALYZE bench_patients;
+
+-- 200 search terms sampled from the data (3-6 characters from inside a name)
+DROP TABLE IF EXISTS bench_terms;
+CREATE TABLE bench_terms AS
+SELECT substr(last_name_search, 2, 3 + (id % 4)::int) AS term
+FROM bench_patients TABLESAMPLE SYSTEM (0.1)
+LIMIT 200;
+
+DROP TABLE IF EXISTS bench_results;
+CREATE TABLE bench_results (phase TEXT, ms DOUBLE PRECISION);
+
+-- Runs page + count for every term. The pattern is inlined as a literal (%L) so
+-- each statement is planned with a constant pattern the trigram index can use.
+CREATE OR REPLACE FUNCTION pg_temp.run_phase(phase TEXT, predicate TEXT) RETURNS void AS $$
+DECLARE
+    pattern TEXT;
+    cond    TEXT;
+    start   TIMESTAMPTZ;
+    n       BIGINT;
+BEGIN
+    FOR pattern IN SELECT '%' || term || '%' FROM bench_terms LOOP
+        cond  := format(predicate, pattern, pattern);
+        start := clock_timestamp();
+        EXECUTE 'SELECT count(*) FROM (SELECT id FROM bench_patients WHERE status = ''ACTIVE'' AND '
+                || cond || ' ORDER BY id LIMIT 20) s' INTO n;
+        EXECUTE 'SELECT count(*) FROM bench_patients WHERE status = ''ACTIVE'' AND ' || cond INTO n;
+        INSERT INTO bench_results VALUES (phase, extract(epoch FROM clock_timestamp() - start) * 1000);
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Phase 1: old catch-all shape on B-tree indexes (leading wildcard → seq scan)
+CREATE INDEX bench_first_btree ON bench_patients (first_name_search);
+CREATE INDEX bench_last_btree  ON bench_patients (last_name_search);
+SELECT pg_temp.run_phase('btree_lower_like',
+    '(LOWER(first_name_search) LIKE LOWER(%L) OR LOWER(last_name_search) LIKE LOWER(%L))');
+DROP INDEX bench_first_btree;
+DROP INDEX bench_last_btree;
+
+-- Phase 2: V18 — raw columns, GIN trigram indexes
+CREATE INDEX bench_first_trgm ON bench_patients USING gin (first_name_search gin_trgm_ops);
+CREATE INDEX bench_last_trgm  ON bench_patients USING gin (last_name_search  gin_trgm_ops);
+ANALYZE bench_patients;
+SELECT pg_temp.run_phase('gin_trgm_like',
+    '(last_name_search LIKE %L OR first_name_search LIKE %L)');
+
+SELECT phase,
+       count(*)                                                         AS queries,
+       round(percentile_cont(0.50) WITHIN GROUP (ORDER BY ms)::numeric, 2) AS p50_ms,
+       round(percentile_cont(0.95) WITHIN GROUP (ORDER BY ms)::numeric, 2) AS p95_ms,
+       round(max(ms)::numeric, 2)                                        AS max_ms
+FROM bench_results
+GROUP BY phase
+ORDER BY phase;
+
+-- Plan for one representative term, to confirm the bitmap index scan
+SELECT '%' || term || '%' AS pattern FROM bench_terms LIMIT 1 \gset
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT count(*) FROM bench_patients
+WHERE status = 'ACTIVE'
+  AND (last_name_search LIKE :'pattern' OR first_name_search LIKE :'pattern');
+
+DROP TABLE bench_results;
+DROP TABLE bench_terms;
+DROP TABLE bench_patients;
@@ -0,0 +1,81 @@
+-- Bytes on the wire for one 100-row page of the patient list: every column the
+-- Patient entity maps (SELECT p FROM Patient p) vs. the PatientSummaryRow
+-- projection used by search and scroll.
+--
+-- Read-only. Run against a database with the Flyway schema and patients loaded,
+-- e.g. the dev database after a bulk import:
+--
+--   psql -d hospital_db -f src/jmh/sql/patient_summary_page_bytes.sql
+--
+-- A text-format DataRow is 7 bytes of header, 4 bytes of length per column and
+-- the value itself (NULL has no value bytes). PHI columns are measured as stored,
+-- i.e. as ciphertext. The first 50 pages in the list's sort order are measured;
+-- PatientSummaryPageBenchmark reads the same pages through Hibernate.
+
+\set ON_ERROR_STOP on
+
+WITH page_rows AS (
+    SELECT (row_number() OVER (ORDER BY last_name_search, first_name_search, id) - 1) / 100 AS page,
+           -- 35 columns: Patient
+           7 + 4 * 35
+             + coalesce(octet_length(id::text), 0)
+             + coalesce(octet_length(patient_id), 0)
+             + coalesce(octet_length(mrn), 0)
+             + coalesce(octet_length(first_name), 0)
+             + coalesce(octet_length(last_name), 0)
+             + coalesce(octet_length(date_of_birth), 0)
+             + coalesce(octet_length(gender), 0)
+             + coalesce(octet_length(phone_number), 0)
+             + coalesce(octet_length(email), 0)
+             + coalesce(octet_length(address), 0)
+             + coalesce(octet_length(city), 0)
+             + coalesce(octet_length(state), 0)
+             + coalesce(octet_length(zip_code), 0)
+             + coalesce(octet_length(emergency_contact_name), 0)
+             + coalesce(octet_length(emergency_contact_phone), 0)
+             + coalesce(octet_length(emergency_contact_relationship), 0)
+             + coalesce(octet_length(blood_group), 0)
+             + coalesce(octet_length(known_allergies), 0)
+             + coalesce(octet_length(chronic_conditions), 0)
+             + coalesce(octet_length(first_name_search), 0)
+             + coalesce(octet_length(last_name_search), 0)
+             + coalesce(octet_length(first_name_soundex), 0)
+             + coalesce(octet_length(last_name_soundex), 0)
+             + coalesce(octet_length(phone_number_hash), 0)
+             + coalesce(octet_length(email_hash), 0)
+             + coalesce(octet_length(birth_year::text), 0)
+             + coalesce(octet_length(has_allergies::text), 0)
+             + coalesce(octet_length(has_chronic_conditions::text), 0)
+             + coalesce(octet_length(has_photo::text), 0)
+             + coalesce(octet_length(photo_hash), 0)
+             + coalesce(octet_length(status), 0)
+             + coalesce(octet_length(registered_at::text), 0)
+             + coalesce(octet_length(registered_by), 0)
+             + coalesce(octet_length(updated_at::text), 0)
+             + coalesce(octet_length(updated_by), 0) AS entity_bytes,
+           -- 11 columns: PatientSummaryRow
+           7 + 4 * 11
+             + coalesce(octet_length(id::text), 0)
+             + coalesce(octet_length(patient_id), 0)
+             + coalesce(octet_length(mrn), 0)
+             + coalesce(octet_length(first_name), 0)
+             + coalesce(octet_length(last_name), 0)
+             + coalesce(octet_length(date_of_birth), 0)
+             + coalesce(octet_length(gender), 0)
+             + coalesce(octet_length(phone_number), 0)
+             + coalesce(octet_length(status), 0)
+             + coalesce(octet_length(last_name_search), 0)
+             + coalesce(octet_length(first_name_search), 0) AS summary_bytes
+    FROM patients
+    ORDER BY last_name_search, first_name_search, id
+    LIMIT 50 * 100
+), pages AS (
+    SELECT page, sum(entity_bytes) AS entity_bytes, sum(summary_bytes) AS summary_bytes
+    FROM page_rows
+    GROUP BY page
+)
+SELECT count(*)                                     AS pages,
+       round(avg(entity_bytes))                     AS entity_bytes_per_page,
+       round(avg(summary_bytes))                    AS summary_bytes_per_page,
+       round(avg(entity_bytes) / avg(summary_bytes), 2) AS ratio
+FROM pages;
@@ -5,19 +5,32 @@ import com.ainexus.hospital.patient.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.JoinPoint;
-import org.aspectj.lang.annotation.After;
 import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.lang.reflect.Method;
 import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * AOP audit interceptor — writes an immutable AuditLog entry after every
- * successful PatientService mutation. This is the HIPAA audit trail.
+ * successful call to a method annotated with {@link Audited}. This is the
+ * HIPAA audit trail.
+ *
+ * Each annotated method's patient-ID expression is compiled once, at startup,
+ * into a {@link PatientIdExtractor}; per call the advice is a map lookup plus
+ * an argument read or a getter call — no reflection.
  *
  * PHI is NEVER logged here — only non-PHI identifiers.
  */
@@ -25,105 +38,43 @@ import java.time.Instant;
 @Aspect
 @Component
 @RequiredArgsConstructor
-public class AuditAspect {
-
-    private final AuditWriter auditWriter;
-
-    @AfterReturning(
-        pointcut = "execution(* com.ainexus.hospital.patient.service.PatientService.registerPatient(..))",
-        returning = "result"
-    )
-    public void afterRegister(JoinPoint jp, Object result) {
-        String patientId = extractPatientIdFromResult(result);
-        writeAudit(AuditAction.CREATE, patientId);
-    }
+public class AuditAspect implements SmartInitializingSingleton {
 
-    @AfterReturning(
-        pointcut = "execution(* com.ainexus.hospital.patient.service.PatientService.getPatientById(..))",
-        returning = "result"
-    )
-    public void afterRead(JoinPoint jp, Object result) {
-        String patientId = extractPatientIdFromResult(result);
-        writeAudit(AuditAction.READ, patientId);
-    }
+    private static final String APP_PACKAGE = "com.ainexus.hospital.patient.";
 
-    @AfterReturning(
-        pointcut = "execution(* com.ainexus.hospital.patient.service.PatientService.updatePatient(..))",
-        returning = "result"
-    )
-    public void afterUpdate(JoinPoint jp, Object result) {
-        String patientId = extractPatientIdFromResult(result);
-        writeAudit(AuditAction.UPDATE, patientId);
-    }
+    private final AuditWriter         auditWriter;
+    private final ListableBeanFactory beanFactory;
 
-    @AfterReturning(
-        pointcut = "execution(* com.ainexus.hospital.patient.service.PatientService.deactivatePatient(..))",
-        returning = "result"
-    )
-    public void afterDeactivate(JoinPoint jp, Object result) {
-        String patientId = extractPatientIdFromResult(result);
-        writeAudit(AuditAction.DEACTIVATE, patientId);
-    }
-
-    @AfterReturning(
-        pointcut = "execution(* com.ainexus.hospital.patient.service.PatientService.activatePatient(..))",
-        returning = "result"
-    )
-    public void afterActivate(JoinPoint jp, Object result) {
-        String patientId = extractPatientIdFromResult(result);
-        writeAudit(AuditAction.ACTIVATE, patientId);
-    }
-
-    @AfterReturning(
-        pointcut = "execution(* com.ainexus.hospital.patient.service.PatientRelationshipService.addRelationship(..))",
-        returning = "result"
-    )
-    public void afterLinkFamily(JoinPoint jp, Object result) {
-        // jp.getArgs()[0] is the patientId String
-        String patientId = (jp.getArgs().length > 0 && jp.getArgs()[0] instanceof String s) ? s : "unknown";
-        writeAudit(AuditAction.LINK_FAMILY, patientId);
-    }
+    private final Map<Method, PatientIdExtractor> extractors = new ConcurrentHashMap<>();
 
-    @AfterReturning(
-        pointcut = "execution(* com.ainexus.hospital.patient.service.PatientRelationshipService.removeRelationship(..))"
-    )
-    public void afterUnlinkFamily(JoinPoint jp) {
-        String patientId = (jp.getArgs().length > 0 && jp.getArgs()[0] instanceof String s) ? s : "unknown";
-        writeAudit(AuditAction.UNLINK_FAMILY, patientId);
+    @AfterReturning(pointcut = "@annotation(audited)", returning = "result")
+    public void afterAudited(JoinPoint jp, Audited audited, Object result) {
+        Method method = ((MethodSignature) jp.getSignature()).getMethod();
+        PatientIdExtractor extractor = extractors.computeIfAbsent(method,
+                m -> PatientIdExtractors.compile(m, audited.patientId()));
+        String patientId = extractor.extract(extractor.usesArgs() ? jp.getArgs() : null, result);
+        writeAudit(audited.action(), patientId);
     }
 
-    @AfterReturning(
-        pointcut = "execution(* com.ainexus.hospital.patient.service.PatientInsuranceService.addInsurance(..))",
-        returning = "result"
-    )
-    public void afterInsuranceAdd(JoinPoint jp, Object result) {
-        String patientId = (jp.getArgs().length > 0 && jp.getArgs()[0] instanceof String s) ? s : "unknown";
-        writeAudit(AuditAction.INSURANCE_ADD, patientId);
-    }
-
-    @AfterReturning(
-        pointcut = "execution(* com.ainexus.hospital.patient.service.PatientInsuranceService.updateInsurance(..))",
-        returning = "result"
-    )
-    public void afterInsuranceUpdate(JoinPoint jp, Object result) {
-        String patientId = (jp.getArgs().length > 0 && jp.getArgs()[0] instanceof String s) ? s : "unknown";
-        writeAudit(AuditAction.INSURANCE_UPDATE, patientId);
-    }
-
-    @After("execution(* com.ainexus.hospital.patient.service.PatientInsuranceService.deleteInsurance(..))")
-    public void afterInsuranceRemove(JoinPoint jp) {
-        String patientId = (jp.getArgs().length > 0 && jp.getArgs()[0] instanceof String s) ? s : "unknown";
-        writeAudit(AuditAction.INSURANCE_REMOVE, patientId);
+    /** Compiles every @Audited expression up front so a typo fails startup, not the first request. */
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            Class<?> type = beanFactory.getType(name, false);
+            if (type == null) continue;
+            Class<?> userType = ClassUtils.getUserClass(type);
+            if (!userType.getName().startsWith(APP_PACKAGE)) continue;
+
+            Map<Method, Audited> annotated = MethodIntrospector.selectMethods(userType,
+                    (MethodIntrospector.MetadataLookup<Audited>) m ->
+                            AnnotatedElementUtils.findMergedAnnotation(m, Audited.class));
+            annotated.forEach((method, audited) ->
+                    extractors.computeIfAbsent(method, m -> PatientIdExtractors.compile(m, audited.patientId())));
+        }
+        log.info("Audit aspect prepared {} @Audited methods", extractors.size());
     }
 
-    @AfterReturning(
-        pointcut = "execution(* com.ainexus.hospital.patient.service.PatientVitalsService.recordVitals(..))",
-        returning = "result"
-    )
-    public void afterVitalsRecord(JoinPoint jp, Object result) {
-        String patientId = (jp.getArgs().length > 0 && jp.getArgs()[0] instanceof String s) ? s : "unknown";
-        writeAudit(AuditAction.VITALS_RECORD, patientId);
-    }
+    // ── Private helpers ──────────────────────────────────────────────────────
 
     private void writeAudit(AuditAction action, String patientId) {
         UserPrincipal principal = getCurrentUser();
@@ -161,14 +112,4 @@ public class AuditAspect {
         }
         return null;
     }
-
-    private String extractPatientIdFromResult(Object result) {
-        if (result == null) return "unknown";
-        try {
-            // Works for PatientResponse and PatientSummaryResponse which have getPatientId()
-            return (String) result.getClass().getMethod("getPatientId").invoke(result);
-        } catch (Exception e) {
-            return "unknown";
-        }
-    }
 }
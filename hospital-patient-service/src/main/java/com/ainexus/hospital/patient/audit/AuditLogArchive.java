@@ -1,6 +1,5 @@
 package com.ainexus.hospital.patient.audit;
 
-import com.ainexus.hospital.patient.model.AuditLog;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -15,8 +14,8 @@ import java.time.Instant;
 @Builder
 public class AuditLogArchive {
 
+    /** Same id as the source audit_logs row; archived partitions keep their rows as-is. */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @Column(name = "user_id",    nullable = false, length = 100)
@@ -32,7 +31,7 @@ public class AuditLogArchive {
     @Column(name = "action",     nullable = false, length = 20)
     private AuditAction action;
 
-    @Column(name = "patient_id", nullable = false, length = 10)
+    @Column(name = "patient_id", nullable = false, length = 20)
     private String patientId;
 
     @Column(name = "ip_address", length = 45)
@@ -40,20 +39,4 @@ public class AuditLogArchive {
 
     @Column(name = "occurred_at", nullable = false)
     private Instant occurredAt;
-
-    @Column(name = "archived_at", nullable = false)
-    private Instant archivedAt;
-
-    public static AuditLogArchive from(AuditLog log) {
-        return AuditLogArchive.builder()
-                .userId(log.getUserId())
-                .username(log.getUsername())
-                .userRole(log.getUserRole())
-                .action(log.getAction())
-                .patientId(log.getPatientId())
-                .ipAddress(log.getIpAddress())
-                .occurredAt(log.getOccurredAt())
-                .archivedAt(Instant.now())
-                .build();
-    }
 }
@@ -1,59 +1,114 @@
 package com.ainexus.hospital.patient.audit;
 
-import com.ainexus.hospital.patient.model.AuditLog;
-import com.ainexus.hospital.patient.repository.AuditLogRepository;
-import com.ainexus.hospital.patient.repository.AuditLogArchiveRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 /**
  * HIPAA §164.530(j): audit documentation must be retained for 6 years.
  *
- * This service runs nightly and moves audit log entries older than 6 years
- * from the live audit_logs table to audit_logs_archive. Both tables are
- * protected by DB-level immutability triggers (V5 migration).
+ * audit_logs is partitioned by month on occurred_at (V24 migration). This
+ * service keeps partitions for upcoming months in place, and runs nightly
+ * to move every month that lies entirely before the 6-year cutoff from
+ * audit_logs to audit_logs_archive. Each month is moved by
+ * fn_archive_audit_partition in its own transaction. The function detaches
+ * the partition and attaches it to the archive, so no rows are copied or
+ * deleted. Both parents carry the DB-level immutability trigger, and
+ * PostgreSQL applies it to every partition.
  *
  * Records in the archive are never deleted — HIPAA retention is indefinite
  * once the 6-year minimum is satisfied.
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class AuditRetentionService {
 
     private static final long HIPAA_RETENTION_YEARS = 6;
 
-    private final AuditLogRepository        auditLogRepository;
-    private final AuditLogArchiveRepository auditLogArchiveRepository;
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'y'yyyy'm'MM");
+
+    private static final String LIVE_PARTITIONS_SQL = """
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'audit_logs'::regclass
+          AND c.relname ~ '^audit_logs_y[0-9]{4}m[0-9]{2}$'
+        ORDER BY c.relname
+        """;
+
+    private final JdbcTemplate        jdbcTemplate;
+    private final TransactionTemplate txTemplate;
+    private final int                 monthsAhead;
+
+    public AuditRetentionService(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.audit.partitions.months-ahead:3}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.txTemplate   = new TransactionTemplate(transactionManager);
+        this.monthsAhead  = monthsAhead;
+    }
+
+    /**
+     * Creates any missing audit_logs partitions for the current month and the
+     * next {@code app.audit.partitions.months-ahead} months. Also runs at
+     * startup, so an instance that was down over a month boundary never
+     * inserts into a month without a partition.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 30 1 * * *", zone = "UTC")
+    public void ensureFuturePartitions() {
+        Integer created = jdbcTemplate.queryForObject(
+                "SELECT fn_ensure_audit_partitions(?)", Integer.class, monthsAhead);
+        if (created != null && created > 0) {
+            log.info("Created {} audit_logs partitions ({} months ahead)", created, monthsAhead);
+        }
+    }
 
     /**
-     * Runs daily at 02:00 UTC. Moves records older than 6 years to archive.
+     * Runs daily at 02:00 UTC. Moves whole months older than 6 years to archive.
      */
     @Scheduled(cron = "0 0 2 * * *", zone = "UTC")
-    @Transactional
     public void archiveExpiredAuditLogs() {
-        Instant cutoff = Instant.now().minus(HIPAA_RETENTION_YEARS * 365, ChronoUnit.DAYS);
-        List<AuditLog> toArchive = auditLogRepository.findByOccurredAtBefore(cutoff);
-
-        if (toArchive.isEmpty()) {
+        List<String> expired = expiredPartitions(
+                jdbcTemplate.queryForList(LIVE_PARTITIONS_SQL, String.class), LocalDate.now(ZoneOffset.UTC));
+        if (expired.isEmpty()) {
             return;
         }
 
-        List<AuditLogArchive> archived = toArchive.stream()
-                .map(AuditLogArchive::from)
-                .toList();
+        long started = System.nanoTime();
+        long total   = 0;
+        for (String partition : expired) {
+            Long rows = txTemplate.execute(status -> jdbcTemplate.queryForObject(
+                    "SELECT fn_archive_audit_partition(?)", Long.class, partition));
+            total += rows != null ? rows : 0;
+            log.info("Archived audit partition {} ({} entries)", partition, rows);
+        }
 
-        auditLogArchiveRepository.saveAll(archived);
-        auditLogRepository.deleteAll(toArchive);
+        log.info("HIPAA audit retention: archived {} entries in {} monthly partitions older than {} years in {} ms",
+                total, expired.size(), HIPAA_RETENTION_YEARS, (System.nanoTime() - started) / 1_000_000);
+    }
 
-        log.info("HIPAA audit retention: archived {} entries older than {} years",
-                archived.size(), HIPAA_RETENTION_YEARS);
+    /**
+     * Live partitions whose whole month lies before {@code today} minus 6
+     * calendar years. The month containing the cutoff is kept until it has
+     * entirely passed. Names sort chronologically ({@code _yYYYYmMM}).
+     */
+    static List<String> expiredPartitions(List<String> livePartitions, LocalDate today) {
+        LocalDate cutoff        = today.minusYears(HIPAA_RETENTION_YEARS);
+        String    firstRetained = "audit_logs_" + cutoff.withDayOfMonth(1).format(PARTITION_SUFFIX);
+        return livePartitions.stream()
+                .filter(name -> name.compareTo(firstRetained) < 0)
+                .toList();
     }
 }
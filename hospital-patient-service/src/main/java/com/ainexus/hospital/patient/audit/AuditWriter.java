@@ -1,28 +1,302 @@
 package com.ainexus.hospital.patient.audit;
 
 import com.ainexus.hospital.patient.model.AuditLog;
-import com.ainexus.hospital.patient.repository.AuditLogRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
- * Writes audit log entries in a brand-new transaction, independent of whatever
- * transaction (including read-only ones) is active on the calling thread.
+ * Batched, off-request audit log writer.
+ *
+ * Callers enqueue entries on a bounded queue; a single flusher thread drains
+ * it and inserts each batch with one JDBC batch statement in one transaction
+ * (group commit), so audit writes hold one pooled connection in total instead
+ * of a second connection per request.
+ *
+ * Modes ({@code app.audit.writer.mode}):
+ * <ul>
+ *   <li>{@code durable} (default) — {@link #write} blocks until the batch
+ *       containing the entry has committed, preserving the old
+ *       "audited before the response is sent" guarantee. Concurrent requests
+ *       share one commit; batches are flushed as soon as the flusher is free.</li>
+ *   <li>{@code async} — {@link #write} returns once the entry is queued. The
+ *       flusher waits up to {@code flush-interval-ms} for a batch to fill.
+ *       Entries still queued at shutdown are flushed before the pool closes.</li>
+ * </ul>
  *
- * This is required because AuditAspect fires after read-only service methods
- * (e.g. getPatientById) and a REQUIRES_NEW transaction allows the INSERT to
- * proceed even when the outer transaction is read-only.
+ * The queue never drops entries: when it is full, or the flusher is not
+ * running, the entry is inserted synchronously on the caller's thread in its
+ * own transaction. That transaction is REQUIRES_NEW because AuditAspect fires
+ * after read-only service methods (e.g. getPatientById), where an INSERT on
+ * the caller's connection would be rejected.
  */
+@Slf4j
 @Component
-@RequiredArgsConstructor
-public class AuditWriter {
+public class AuditWriter implements SmartLifecycle {
+
+    public enum Mode { ASYNC, DURABLE }
+
+    private static final String INSERT_SQL = """
+        INSERT INTO audit_logs (user_id, username, user_role, action, patient_id, ip_address, occurred_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private final JdbcTemplate        jdbcTemplate;
+    private final TransactionTemplate txTemplate;
+    private final Mode                mode;
+    private final int                 batchSize;
+    private final long                flushIntervalMs;
+    private final long                durableTimeoutMs;
+    private final BlockingQueue<Pending> queue;
+
+    private final Timer               flushTimer;
+    private final DistributionSummary batchSizes;
+    private final Counter             syncFallbacks;
+    private final Counter             failedEntries;
+
+    private volatile boolean running;
+    private Thread           flusher;
+
+    public AuditWriter(JdbcTemplate jdbcTemplate,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.audit.writer.mode:durable}") String mode,
+                       @Value("${app.audit.writer.queue-capacity:10000}") int queueCapacity,
+                       @Value("${app.audit.writer.batch-size:200}") int batchSize,
+                       @Value("${app.audit.writer.flush-interval-ms:50}") long flushIntervalMs,
+                       @Value("${app.audit.writer.durable-timeout-ms:5000}") long durableTimeoutMs) {
+        this.jdbcTemplate     = jdbcTemplate;
+        this.txTemplate       = new TransactionTemplate(transactionManager);
+        this.txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.mode             = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        this.batchSize        = batchSize;
+        this.flushIntervalMs  = flushIntervalMs;
+        this.durableTimeoutMs = durableTimeoutMs;
+        this.queue            = new ArrayBlockingQueue<>(queueCapacity);
 
-    private final AuditLogRepository auditLogRepository;
+        Gauge.builder("audit.writer.queue.depth", queue, BlockingQueue::size)
+                .description("Audit entries waiting to be flushed")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("audit.writer.flush")
+                .description("Time to insert and commit one audit batch")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("audit.writer.batch.size")
+                .description("Entries per flushed audit batch")
+                .register(meterRegistry);
+        this.syncFallbacks = Counter.builder("audit.writer.sync.fallback")
+                .description("Entries written on the caller's thread because the queue was full or stopped")
+                .register(meterRegistry);
+        this.failedEntries = Counter.builder("audit.writer.failed")
+                .description("Audit entries that could not be inserted")
+                .register(meterRegistry);
+    }
 
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void write(AuditLog entry) {
-        auditLogRepository.save(entry);
+        if (!running) {
+            syncFallbacks.increment();
+            writeNow(entry);
+            return;
+        }
+        Pending pending = new Pending(entry, mode == Mode.DURABLE ? new CompletableFuture<>() : null);
+        if (!queue.offer(pending)) {
+            syncFallbacks.increment();
+            writeNow(entry);
+            return;
+        }
+        // stop() may have drained the queue between the check above and the
+        // offer; if the entry is still queued nobody will flush it
+        if (!running && queue.remove(pending)) {
+            syncFallbacks.increment();
+            writeNow(entry);
+            return;
+        }
+        if (pending.committed() != null) {
+            awaitCommit(pending);
+        }
+    }
+
+    /**
+     * Inserts {@code entries} as one JDBC batch on the caller's transaction,
+     * bypassing the queue. For bulk writes whose audit rows must commit or
+     * roll back together with the data they describe (patient import).
+     */
+    public void insertAll(List<AuditLog> entries) {
+        if (entries.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), AuditWriter::bind);
+    }
+
+    // ── SmartLifecycle ─────────────────────────────────────────────────────────
+
+    @Override
+    public void start() {
+        running = true;
+        flusher = new Thread(this::runFlusher, "audit-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Audit writer started mode={} batchSize={} flushIntervalMs={} queueCapacity={}",
+                mode, batchSize, flushIntervalMs, queue.remainingCapacity());
+    }
+
+    /** Stops after the web server (higher phases stop first), then drains what is queued. */
+    @Override
+    public void stop() {
+        running = false;
+        if (flusher == null) return;
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Entries offered while the flusher was exiting
+        List<Pending> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            flush(rest);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    // ── Private helpers ──────────────────────────────────────────────────────
+
+    private void runFlusher() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - batch.size());
+                // Async callers are not waiting — linger briefly to fill the batch.
+                // Durable callers are, so flush what is here; the next batch
+                // accumulates while this one commits.
+                if (mode == Mode.ASYNC && batch.size() < batchSize) {
+                    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                    long remaining;
+                    while (batch.size() < batchSize && (remaining = deadline - System.nanoTime()) > 0) {
+                        Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (next == null) break;
+                        batch.add(next);
+                        queue.drainTo(batch, batchSize - batch.size());
+                    }
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Audit flusher error", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        long start = System.nanoTime();
+        try {
+            txTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(),
+                            (ps, pending) -> bind(ps, pending.entry())));
+            batch.forEach(Pending::complete);
+        } catch (RuntimeException batchFailure) {
+            // One bad row fails the whole batch — retry individually so the rest are kept
+            log.warn("Audit batch of {} failed ({}), retrying row by row",
+                    batch.size(), batchFailure.getMessage());
+            for (Pending pending : batch) {
+                try {
+                    writeNow(pending.entry());
+                    pending.complete();
+                } catch (RuntimeException rowFailure) {
+                    pending.fail(rowFailure);
+                }
+            }
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSizes.record(batch.size());
+        }
+    }
+
+    private void writeNow(AuditLog entry) {
+        try {
+            txTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, entry)));
+        } catch (RuntimeException e) {
+            failedEntries.increment();
+            // Non-PHI identifiers only
+            log.error("AUDIT WRITE FAILED action={} patientId={} userId={}",
+                    entry.getAction(), entry.getPatientId(), entry.getUserId(), e);
+            throw e;
+        }
+    }
+
+    private void awaitCommit(Pending pending) {
+        try {
+            pending.committed().get(durableTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re
+                    : new IllegalStateException("Audit write failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Audit write not committed within " + durableTimeoutMs + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for audit write", e);
+        }
+    }
+
+    private static void bind(PreparedStatement ps, AuditLog entry) throws SQLException {
+        ps.setString(1, entry.getUserId());
+        ps.setString(2, entry.getUsername());
+        ps.setString(3, entry.getUserRole());
+        ps.setString(4, entry.getAction().name());
+        ps.setString(5, entry.getPatientId());
+        ps.setString(6, entry.getIpAddress());
+        Instant occurredAt = entry.getOccurredAt() != null ? entry.getOccurredAt() : Instant.now();
+        ps.setObject(7, occurredAt.atOffset(ZoneOffset.UTC));
+    }
+
+    /** Queued entry; {@code committed} is non-null only in durable mode. */
+    record Pending(AuditLog entry, CompletableFuture<Void> committed) {
+
+        void complete() {
+            if (committed != null) committed.complete(null);
+        }
+
+        void fail(Throwable cause) {
+            if (committed != null) committed.completeExceptionally(cause);
+        }
     }
 }
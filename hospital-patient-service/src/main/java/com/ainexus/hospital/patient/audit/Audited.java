@@ -0,0 +1,29 @@
+package com.ainexus.hospital.patient.audit;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a service method whose successful completion writes an AuditLog entry
+ * (see {@link AuditAspect}).
+ *
+ * {@link #patientId()} names the business patient ID:
+ * <ul>
+ *   <li>{@code "#patientId"} / {@code "#p0"} — a method argument</li>
+ *   <li>{@code "#result.patientId"} — a property of the return value</li>
+ *   <li>anything else — a SpEL expression over the arguments and {@code #result}</li>
+ * </ul>
+ * Expressions are compiled once at startup; a bad expression fails the boot.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Audited {
+
+    AuditAction action();
+
+    String patientId() default "#patientId";
+}
@@ -0,0 +1,14 @@
+package com.ainexus.hospital.patient.audit;
+
+/**
+ * Pre-resolved {@link Audited#patientId()} for one method — built once by
+ * {@link PatientIdExtractors#compile} and cached by {@link AuditAspect}.
+ */
+interface PatientIdExtractor {
+
+    /** @param args method arguments, or null when {@link #usesArgs()} is false */
+    String extract(Object[] args, Object result);
+
+    /** Lets the aspect skip JoinPoint.getArgs(), which copies the argument array. */
+    boolean usesArgs();
+}
@@ -0,0 +1,122 @@
+package com.ainexus.hospital.patient.audit;
+
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles {@link Audited#patientId()} expressions into {@link PatientIdExtractor}s.
+ *
+ * The two shapes every audited method uses are bound to a direct call at
+ * compile time — an argument slot, or a getter MethodHandle on the declared
+ * return type. Other expressions fall back to SpEL in MIXED compiler mode,
+ * which turns them into bytecode after the first evaluation.
+ */
+final class PatientIdExtractors {
+
+    private static final Pattern RESULT_PROPERTY = Pattern.compile("#result\\.(\\w+)");
+    private static final Pattern ARGUMENT        = Pattern.compile("#(\\w+)");
+    private static final Pattern POSITIONAL      = Pattern.compile("[pa](\\d+)");
+
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+    private static final SpelExpressionParser    PARSER = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, PatientIdExtractors.class.getClassLoader()));
+
+    private PatientIdExtractors() {}
+
+    static PatientIdExtractor compile(Method method, String expression) {
+        String expr = expression.trim();
+
+        Matcher property = RESULT_PROPERTY.matcher(expr);
+        if (property.matches()) {
+            MethodHandle getter = findGetter(method.getReturnType(), property.group(1));
+            if (getter != null) return new ResultGetter(getter);
+        }
+
+        Matcher argument = ARGUMENT.matcher(expr);
+        if (argument.matches() && !"result".equals(argument.group(1))) {
+            int index = argumentIndex(method, argument.group(1));
+            if (index < 0) {
+                throw new IllegalStateException("@Audited on " + method + " refers to unknown argument " + expr);
+            }
+            return new Argument(index);
+        }
+
+        return new Spel(method, PARSER.parseExpression(expr));
+    }
+
+    private static MethodHandle findGetter(Class<?> type, String name) {
+        String capitalised = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        for (String candidate : new String[] { "get" + capitalised, name }) {
+            try {
+                Method getter = type.getMethod(candidate);
+                if (Modifier.isStatic(getter.getModifiers()) || getter.getReturnType() == void.class) continue;
+                return MethodHandles.publicLookup().unreflect(getter)
+                        .asType(MethodType.methodType(Object.class, Object.class));
+            } catch (NoSuchMethodException | IllegalAccessException ignored) {
+                // try the next naming convention
+            }
+        }
+        return null;
+    }
+
+    private static int argumentIndex(Method method, String name) {
+        String[] names = PARAMETER_NAMES.getParameterNames(method);
+        if (names != null) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(name)) return i;
+            }
+        }
+        Matcher positional = POSITIONAL.matcher(name);
+        if (positional.matches()) {
+            int index = Integer.parseInt(positional.group(1));
+            if (index < method.getParameterCount()) return index;
+        }
+        return -1;
+    }
+
+    private static String asString(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private record Argument(int index) implements PatientIdExtractor {
+        @Override public String extract(Object[] args, Object result) { return asString(args[index]); }
+        @Override public boolean usesArgs() { return true; }
+    }
+
+    private record ResultGetter(MethodHandle getter) implements PatientIdExtractor {
+        @Override
+        public String extract(Object[] args, Object result) {
+            if (result == null) return null;
+            try {
+                return asString((Object) getter.invokeExact(result));
+            } catch (Throwable e) {
+                return null;
+            }
+        }
+        @Override public boolean usesArgs() { return false; }
+    }
+
+    private record Spel(Method method, Expression expression) implements PatientIdExtractor {
+        @Override
+        public String extract(Object[] args, Object result) {
+            MethodBasedEvaluationContext context =
+                    new MethodBasedEvaluationContext(null, method, args, PARAMETER_NAMES);
+            context.setVariable("result", result);
+            return asString(expression.getValue(context));
+        }
+        @Override public boolean usesArgs() { return true; }
+    }
+}
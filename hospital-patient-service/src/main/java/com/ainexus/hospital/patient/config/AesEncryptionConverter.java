@@ -9,6 +9,7 @@ import javax.crypto.Cipher;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
 import java.util.Base64;
 
@@ -16,6 +17,14 @@ import java.util.Base64;
  * JPA AttributeConverter implementing AES-256-GCM encryption for PHI fields.
  * Every PHI field annotated with @Convert(converter = AesEncryptionConverter.class)
  * is transparently encrypted before persistence and decrypted on read.
+ *
+ * Stored format: Base64(IV[12] || ciphertext || tag[16]).
+ *
+ * This runs ~10 times per patient row, so the JCE objects are reused: one
+ * Cipher per thread (Cipher is not thread-safe; re-init with a fresh IV is
+ * cheap compared with Cipher.getInstance provider lookup) and one shared
+ * SecureRandom (thread-safe). Decryption reads IV and ciphertext straight out
+ * of the decoded buffer by offset instead of copying them into new arrays.
  */
 @Converter
 @Component
@@ -24,6 +33,17 @@ public class AesEncryptionConverter implements AttributeConverter<String, String
     private static final String ALGORITHM = "AES/GCM/NoPadding";
     private static final int GCM_IV_LENGTH = 12;
     private static final int GCM_TAG_LENGTH = 128;
+    private static final int GCM_TAG_BYTES  = GCM_TAG_LENGTH / 8;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final ThreadLocal<Cipher> CIPHER = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance(ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        }
+    });
 
     private final SecretKeySpec secretKey;
 
@@ -47,16 +67,16 @@ public class AesEncryptionConverter implements AttributeConverter<String, String
         if (attribute == null) return null;
         try {
             byte[] iv = new byte[GCM_IV_LENGTH];
-            new SecureRandom().nextBytes(iv);
+            RANDOM.nextBytes(iv);
+            byte[] plain = attribute.getBytes(StandardCharsets.UTF_8);
 
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
+            Cipher cipher = CIPHER.get();
             cipher.init(Cipher.ENCRYPT_MODE, secretKey, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
-            byte[] encrypted = cipher.doFinal(attribute.getBytes(StandardCharsets.UTF_8));
 
-            // Prepend IV to ciphertext and Base64-encode
-            byte[] combined = new byte[iv.length + encrypted.length];
-            System.arraycopy(iv, 0, combined, 0, iv.length);
-            System.arraycopy(encrypted, 0, combined, iv.length, encrypted.length);
+            // Write IV then ciphertext+tag into a single buffer, then Base64-encode
+            byte[] combined = new byte[GCM_IV_LENGTH + plain.length + GCM_TAG_BYTES];
+            System.arraycopy(iv, 0, combined, 0, GCM_IV_LENGTH);
+            cipher.doFinal(plain, 0, plain.length, combined, GCM_IV_LENGTH);
 
             return Base64.getEncoder().encodeToString(combined);
         } catch (Exception e) {
@@ -69,14 +89,12 @@ public class AesEncryptionConverter implements AttributeConverter<String, String
         if (dbData == null) return null;
         try {
             byte[] combined = Base64.getDecoder().decode(dbData);
-            byte[] iv = new byte[GCM_IV_LENGTH];
-            System.arraycopy(combined, 0, iv, 0, iv.length);
-            byte[] cipherText = new byte[combined.length - iv.length];
-            System.arraycopy(combined, iv.length, cipherText, 0, cipherText.length);
 
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.DECRYPT_MODE, secretKey, new GCMParameterSpec(GCM_TAG_LENGTH, iv));
-            return new String(cipher.doFinal(cipherText), StandardCharsets.UTF_8);
+            Cipher cipher = CIPHER.get();
+            cipher.init(Cipher.DECRYPT_MODE, secretKey,
+                    new GCMParameterSpec(GCM_TAG_LENGTH, combined, 0, GCM_IV_LENGTH));
+            byte[] plain = cipher.doFinal(combined, GCM_IV_LENGTH, combined.length - GCM_IV_LENGTH);
+            return new String(plain, StandardCharsets.UTF_8);
         } catch (Exception e) {
             throw new RuntimeException("PHI decryption failed", e);
         }
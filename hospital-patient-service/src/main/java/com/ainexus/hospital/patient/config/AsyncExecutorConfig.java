@@ -0,0 +1,127 @@
+package com.ainexus.hospital.patient.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Named executors and schedulers for background work.
+ *
+ * Declaring any Executor bean makes Spring Boot skip its auto-configured
+ * {@code applicationTaskExecutor}, so it is re-declared here from the same
+ * builder (still driven by {@code spring.task.execution.*}) and stays the
+ * target of plain {@code @Async} and MVC async requests. The same applies to
+ * {@code taskScheduler}, which runs every {@code @Scheduled} method that does
+ * not name a scheduler ({@code spring.task.scheduling.*}).
+ */
+@Configuration
+public class AsyncExecutorConfig {
+
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    @Primary
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean(name = "taskScheduler")
+    @Primary
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Image scaling is CPU- and heap-heavy (a decoded 2 MB JPEG can be tens of MB
+     * of pixels), so a small pool with a bounded queue. Overflow is rejected and
+     * dropped by PhotoVariantService; a missing variant is requested again the
+     * next time it is served.
+     */
+    @Bean(name = "photoVariantExecutor")
+    public ThreadPoolTaskExecutor photoVariantExecutor(
+            @Value("${app.photo.variants.threads:2}") int threads,
+            @Value("${app.photo.variants.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("photo-variant-");
+        return executor;
+    }
+
+    /**
+     * SMS sends are blocking HTTP calls to the provider, so reminder dispatch fans
+     * them out over a fixed pool. Throughput is capped by SmsRateLimiter; the pool
+     * only has to be large enough to cover provider latency at that rate. A full
+     * queue runs the send on the dispatching thread, which slows the producer
+     * down instead of dropping reminders.
+     */
+    @Bean(name = "reminderSmsExecutor")
+    public ThreadPoolTaskExecutor reminderSmsExecutor(
+            @Value("${app.reminders.sms-threads:8}") int threads,
+            @Value("${app.reminders.chunk-size:500}") int chunkSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(chunkSize);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("reminder-sms-");
+        return executor;
+    }
+
+    /**
+     * Delivery of notification_outbox rows (in-app row + SMS). Each task holds a
+     * pooled connection for its in-app insert, so the pool is small and fixed.
+     * NotificationDispatcher submits one claimed batch at a time; if the queue
+     * is ever full the poller delivers on its own thread, which only slows it
+     * down. Those deliveries are counted as {@code executor.rejected}
+     * (tag {@code name=notificationExecutor}); a steady rate means the pool or
+     * queue is too small for the batch size. Rows not finished at shutdown are
+     * reclaimed after their lease.
+     */
+    @Bean(name = "notificationExecutor")
+    public ThreadPoolTaskExecutor notificationExecutor(
+            @Value("${app.notifications.threads:4}") int threads,
+            @Value("${app.notifications.batch-size:100}") int batchSize,
+            MeterRegistry meterRegistry) {
+        Counter rejected = Counter.builder("executor.rejected")
+                .tag("name", "notificationExecutor")
+                .description("Tasks run on the submitting thread because the pool queue was full")
+                .register(meterRegistry);
+        RejectedExecutionHandler callerRuns = new ThreadPoolExecutor.CallerRunsPolicy();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(batchSize);
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            callerRuns.rejectedExecution(task, pool);
+        });
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.setThreadNamePrefix("notification-");
+        return executor;
+    }
+
+    /**
+     * Runs the notification_outbox poller, which blocks while its batch is
+     * delivered. On its own thread so a slow provider delays neither the
+     * reminder run nor the retention jobs on {@code taskScheduler}.
+     */
+    @Bean(name = "notificationScheduler")
+    public ThreadPoolTaskScheduler notificationScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("notification-poll-");
+        return scheduler;
+    }
+}
@@ -3,6 +3,7 @@ package com.ainexus.hospital.patient.controller;
 import com.ainexus.hospital.patient.dto.request.AppointmentRequest;
 import com.ainexus.hospital.patient.dto.request.AppointmentUpdateRequest;
 import com.ainexus.hospital.patient.dto.response.AppointmentResponse;
+import com.ainexus.hospital.patient.dto.response.CursorPageResponse;
 import com.ainexus.hospital.patient.model.AppointmentStatus;
 import com.ainexus.hospital.patient.service.PatientAppointmentService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -83,4 +84,20 @@ public class PatientAppointmentController {
                 appointmentService.getAllAppointments(patientId, status, fromDate, toDate,
                         PageRequest.of(page, Math.min(size, 100))));
     }
+
+    @Operation(summary = "Global appointment list with cursor (keyset) pagination (Admin/Receptionist)",
+               description = "Same filters and order as GET /appointments. Pass nextCursor from the previous "
+                           + "response as cursor; no total count is returned.")
+    @GetMapping("/api/v1/appointments/scroll")
+    public ResponseEntity<CursorPageResponse<AppointmentResponse>> scrollAllAppointments(
+            @RequestParam(required = false) String patientId,
+            @RequestParam(required = false) AppointmentStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(
+                appointmentService.scrollAllAppointments(patientId, status, fromDate, toDate,
+                        cursor, Math.max(1, Math.min(size, 100))));
+    }
 }
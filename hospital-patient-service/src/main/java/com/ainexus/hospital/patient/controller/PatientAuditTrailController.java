@@ -1,46 +1,62 @@
 package com.ainexus.hospital.patient.controller;
 
+import com.ainexus.hospital.patient.audit.AuditAction;
 import com.ainexus.hospital.patient.dto.response.AuditLogResponse;
-import com.ainexus.hospital.patient.exception.PatientNotFoundException;
-import com.ainexus.hospital.patient.repository.AuditLogRepository;
-import com.ainexus.hospital.patient.repository.PatientRepository;
+import com.ainexus.hospital.patient.dto.response.CursorPageResponse;
+import com.ainexus.hospital.patient.repository.search.AuditTrailCriteria;
+import com.ainexus.hospital.patient.service.AuditTrailService;
 import io.swagger.v3.oas.annotations.Operation;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.IOException;
+import java.time.Instant;
 
 @RestController
 @RequestMapping("/api/v1/patients/{patientId}/audit-trail")
 @RequiredArgsConstructor
 public class PatientAuditTrailController {
 
-    private final AuditLogRepository auditLogRepository;
-    private final PatientRepository patientRepository;
+    private static final String NDJSON = "application/x-ndjson";
 
-    @Operation(summary = "Get full audit trail for a patient (ADMIN only)")
-    @GetMapping
-    public ResponseEntity<List<AuditLogResponse>> getAuditTrail(
-            @PathVariable String patientId) {
-        patientRepository.findByPatientId(patientId)
-                .orElseThrow(() -> new PatientNotFoundException(patientId));
+    private final AuditTrailService auditTrailService;
 
-        List<AuditLogResponse> trail = auditLogRepository
-                .findByPatientIdOrderByOccurredAtDesc(patientId)
-                .stream()
-                .map(log -> AuditLogResponse.builder()
-                        .id(log.getId())
-                        .userId(log.getUserId())
-                        .username(log.getUsername())
-                        .userRole(log.getUserRole())
-                        .action(log.getAction().name())
-                        .patientId(log.getPatientId())
-                        .ipAddress(log.getIpAddress())
-                        .occurredAt(log.getOccurredAt() != null ? log.getOccurredAt().toString() : null)
-                        .build())
-                .toList();
+    @Operation(summary = "Get a patient's audit trail, newest first, with cursor (keyset) pagination (ADMIN only)",
+               description = "Optional filters: action, userId, from (inclusive) and to (exclusive) as ISO-8601 "
+                           + "instants. Pass nextCursor from the previous response as cursor. Entries in "
+                           + "archived months are included when the range reaches them.")
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<CursorPageResponse<AuditLogResponse>> getAuditTrail(
+            @PathVariable String patientId,
+            @RequestParam(required = false) AuditAction action,
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(auditTrailService.scrollAuditTrail(
+                new AuditTrailCriteria(patientId, action, userId, from, to),
+                cursor, Math.max(1, Math.min(size, 200))));
+    }
 
-        return ResponseEntity.ok(trail);
+    @Operation(summary = "Stream a patient's full audit trail as NDJSON (ADMIN only)",
+               description = "Send Accept: application/x-ndjson. Same filters and order as the paged "
+                           + "endpoint; one JSON entry per line, no pagination.")
+    @GetMapping(produces = NDJSON)
+    public void streamAuditTrail(
+            @PathVariable String patientId,
+            @RequestParam(required = false) AuditAction action,
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            HttpServletResponse response) throws IOException {
+        auditTrailService.validatePatientExists(patientId);
+        response.setContentType(NDJSON);
+        response.setHeader("Content-Disposition", "attachment; filename=audit_trail_" + patientId + ".ndjson");
+        auditTrailService.streamAuditTrail(
+                new AuditTrailCriteria(patientId, action, userId, from, to), response.getOutputStream());
     }
 }
@@ -3,13 +3,17 @@ package com.ainexus.hospital.patient.controller;
 import com.ainexus.hospital.patient.dto.request.PatientCreateRequest;
 import com.ainexus.hospital.patient.dto.request.PatientStatusRequest;
 import com.ainexus.hospital.patient.dto.request.PatientUpdateRequest;
+import com.ainexus.hospital.patient.dto.response.CursorPageResponse;
+import com.ainexus.hospital.patient.dto.response.PatientImportResponse;
 import com.ainexus.hospital.patient.dto.response.PatientResponse;
 import com.ainexus.hospital.patient.dto.response.PatientSummaryResponse;
 import com.ainexus.hospital.patient.model.PatientStatus;
+import com.ainexus.hospital.patient.service.PatientImportService;
 import com.ainexus.hospital.patient.service.PatientService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -17,10 +21,14 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -29,7 +37,10 @@ import java.util.List;
 @Tag(name = "Patients", description = "Patient management endpoints")
 public class PatientController {
 
-    private final PatientService patientService;
+    private final PatientService       patientService;
+    private final PatientImportService patientImportService;
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
 
     @Operation(summary = "Register a new patient")
     @PostMapping
@@ -39,6 +50,22 @@ public class PatientController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @Operation(summary = "Bulk import patients from CSV or NDJSON (Admin only)",
+               description = "Body is streamed: text/csv with a header row of PatientCreateRequest field names, "
+                           + "or application/x-ndjson with one PatientCreateRequest per line. Invalid rows are "
+                           + "reported by line number and skipped; valid rows are registered in batches.")
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<PatientImportResponse> importPatients(HttpServletRequest request) throws IOException {
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        PatientImportService.Format format = TEXT_CSV.includes(contentType)
+                ? PatientImportService.Format.CSV
+                : PatientImportService.Format.NDJSON;
+        try (InputStreamReader body = new InputStreamReader(request.getInputStream(), charset)) {
+            return ResponseEntity.ok(patientImportService.importPatients(body, format));
+        }
+    }
+
     @Operation(summary = "Export patient list as CSV")
     @GetMapping("/export")
     public void exportCsv(
@@ -75,8 +102,10 @@ public class PatientController {
             @RequestParam(defaultValue = "0")  int page,
             @RequestParam(defaultValue = "20") int size) {
 
+        // lastName/firstName hold AES-GCM ciphertext; order on the plaintext search
+        // tokens instead (id breaks ties so pages are stable — see idx_patients_status_name)
         Pageable pageable = PageRequest.of(page, Math.min(size, 100),
-            Sort.by("lastName", "firstName"));
+            Sort.by("lastNameSearch", "firstNameSearch", "id"));
         Page<PatientSummaryResponse> result =
             patientService.searchPatients(search, status, gender, bloodGroup,
                 city, state, birthYearFrom, birthYearTo, hasAllergies, hasChronicConditions,
@@ -84,6 +113,30 @@ public class PatientController {
         return ResponseEntity.ok(result);
     }
 
+    @Operation(summary = "Search and list patients with cursor (keyset) pagination",
+               description = "Same filters as GET /patients, ordered by name. Pass nextCursor from the previous "
+                           + "response as cursor; no total count is returned.")
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageResponse<PatientSummaryResponse>> scrollPatients(
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) PatientStatus status,
+            @RequestParam(required = false) String gender,
+            @RequestParam(required = false) String bloodGroup,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String state,
+            @RequestParam(required = false) Integer birthYearFrom,
+            @RequestParam(required = false) Integer birthYearTo,
+            @RequestParam(required = false) Boolean hasAllergies,
+            @RequestParam(required = false) Boolean hasChronicConditions,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        return ResponseEntity.ok(
+            patientService.scrollPatients(search, status, gender, bloodGroup,
+                city, state, birthYearFrom, birthYearTo, hasAllergies, hasChronicConditions,
+                cursor, Math.max(1, Math.min(size, 100))));
+    }
+
     @Operation(summary = "Get potential duplicate patients (same phone number)")
     @GetMapping("/{patientId}/potential-duplicates")
     public ResponseEntity<List<PatientSummaryResponse>> getPotentialDuplicates(
@@ -1,26 +1,24 @@
 package com.ainexus.hospital.patient.controller;
 
-import com.ainexus.hospital.patient.audit.AuditAction;
-import com.ainexus.hospital.patient.audit.AuditWriter;
-import com.ainexus.hospital.patient.exception.PatientNotFoundException;
-import com.ainexus.hospital.patient.model.AuditLog;
-import com.ainexus.hospital.patient.model.Patient;
-import com.ainexus.hospital.patient.repository.PatientRepository;
-import com.ainexus.hospital.patient.security.UserPrincipal;
+import com.ainexus.hospital.patient.repository.projection.PatientPhotoMeta;
+import com.ainexus.hospital.patient.service.PatientPhotoService;
+import com.ainexus.hospital.patient.service.PhotoVariantService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
-import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 
 @Slf4j
@@ -32,16 +30,17 @@ public class PatientPhotoController {
 
     private static final long   MAX_BYTES        = 2L * 1024 * 1024; // 2 MB
     private static final String DEFAULT_CONTENT  = "image/jpeg";
+    private static final String ORIGINAL         = "original";
+    private static final String CACHE_CONTROL    = "max-age=3600";
 
-    private final PatientRepository patientRepository;
-    private final AuditWriter       auditWriter;
+    private final PatientPhotoService photoService;
+    private final PhotoVariantService variantService;
 
     @Operation(summary = "Upload or replace patient photo (max 2 MB)")
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<Map<String, String>> uploadPhoto(
             @PathVariable String patientId,
-            @RequestParam("file") MultipartFile file,
-            @AuthenticationPrincipal UserPrincipal principal) throws IOException {
+            @RequestParam("file") MultipartFile file) throws IOException {
 
         if (file.isEmpty()) {
             return ResponseEntity.badRequest().body(Map.of("error", "File is empty"));
@@ -56,66 +55,136 @@ public class PatientPhotoController {
             return ResponseEntity.badRequest().body(Map.of("error", "Only image files are allowed"));
         }
 
-        Patient patient = patientRepository.findByPatientId(patientId)
-                .orElseThrow(() -> new PatientNotFoundException(patientId));
+        photoService.storePhoto(patientId, file, file.getSize(), contentType);
 
-        patient.setPhoto(file.getBytes());
-        patient.setPhotoContentType(contentType);
-        patientRepository.save(patient);
-
-        writeAudit(AuditAction.PHOTO_UPLOAD, patientId, principal);
         log.info("Photo uploaded patientId={}", patientId);
 
         return ResponseEntity.ok(Map.of("message", "Photo uploaded successfully"));
     }
 
-    @Operation(summary = "Download patient photo")
+    @Operation(summary = "Download patient photo — original or scaled variant (?size=64|256|original); "
+            + "ETag / If-None-Match, single byte Range")
     @GetMapping
-    public ResponseEntity<byte[]> getPhoto(@PathVariable String patientId) {
-        Patient patient = patientRepository.findByPatientId(patientId)
-                .orElseThrow(() -> new PatientNotFoundException(patientId));
-
-        if (patient.getPhoto() == null || patient.getPhoto().length == 0) {
-            return ResponseEntity.notFound().build();
+    public void getPhoto(
+            @PathVariable String patientId,
+            @RequestParam(name = "size", defaultValue = ORIGINAL) String variant,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.IF_RANGE,      required = false) String ifRange,
+            @RequestHeader(value = HttpHeaders.RANGE,         required = false) String range,
+            HttpServletResponse response) throws IOException {
+
+        Integer sizePx = parseSize(variant);
+
+        // Patient row only — the hash is the strong ETag, so a revalidation never reads the blob
+        String hash = photoService.findPhotoHash(patientId).orElse(null);
+        if (hash == null) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String etag = etagFor(hash, sizePx);
+        if (etagMatches(ifNoneMatch, etag)) {
+            notModified(response, etag);
+            return;
         }
 
-        String contentType = patient.getPhotoContentType() != null
-                ? patient.getPhotoContentType() : DEFAULT_CONTENT;
+        PatientPhotoMeta meta = photoService.findPhotoMeta(hash, sizePx).orElse(null);
+        if (meta == null && sizePx != null) {
+            // Variant not generated yet (older upload or dropped task) — serve the
+            // original now and have the variant built for the next request
+            variantService.requestVariants(hash);
+            sizePx = null;
+            etag   = etagFor(hash, null);
+            if (etagMatches(ifNoneMatch, etag)) {
+                notModified(response, etag);
+                return;
+            }
+            meta = photoService.findPhotoMeta(hash, null).orElse(null);
+        }
+        if (meta == null) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+
+        long size = meta.sizeBytes();
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        long start  = 0;
+        long length = size;
+        // If-Range with a stale validator means "send the whole new photo"
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            HttpRange requested;
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(range);
+                requested = ranges.size() == 1 ? ranges.get(0) : null; // multipart ranges: serve it all
+                if (requested != null) {
+                    start  = requested.getRangeStart(size);
+                    length = requested.getRangeEnd(size) - start + 1;
+                    if (start >= size || length <= 0) {
+                        throw new IllegalArgumentException("Range not satisfiable");
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                return;
+            }
+            if (requested != null) {
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE,
+                        "bytes " + start + "-" + (start + length - 1) + "/" + size);
+            }
+        }
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_TYPE, contentType)
-                .header(HttpHeaders.CACHE_CONTROL, "max-age=3600")
-                .body(patient.getPhoto());
+        response.setContentType(meta.contentType());
+        response.setContentLengthLong(length);
+        photoService.copyPhoto(hash, sizePx, start, length, response.getOutputStream());
     }
 
     @Operation(summary = "Delete patient photo")
     @DeleteMapping
-    public ResponseEntity<Map<String, String>> deletePhoto(
-            @PathVariable String patientId,
-            @AuthenticationPrincipal UserPrincipal principal) {
-
-        Patient patient = patientRepository.findByPatientId(patientId)
-                .orElseThrow(() -> new PatientNotFoundException(patientId));
+    public ResponseEntity<Map<String, String>> deletePhoto(@PathVariable String patientId) {
 
-        patient.setPhoto(null);
-        patient.setPhotoContentType(null);
-        patientRepository.save(patient);
+        photoService.deletePhoto(patientId);
 
-        writeAudit(AuditAction.PHOTO_DELETE, patientId, principal);
         log.info("Photo deleted patientId={}", patientId);
 
         return ResponseEntity.ok(Map.of("message", "Photo deleted successfully"));
     }
 
-    private void writeAudit(AuditAction action, String patientId, UserPrincipal principal) {
-        if (principal == null) return;
-        auditWriter.write(AuditLog.builder()
-                .userId(principal.getUserId())
-                .username(principal.getUsername())
-                .userRole(principal.getRole())
-                .action(action)
-                .patientId(patientId)
-                .occurredAt(Instant.now())
-                .build());
+    /** "original" → null; otherwise one of the generated variant sizes. */
+    private static Integer parseSize(String size) {
+        if (ORIGINAL.equalsIgnoreCase(size)) return null;
+        try {
+            int px = Integer.parseInt(size);
+            if (PhotoVariantService.isSupportedSize(px)) return px;
+        } catch (NumberFormatException ignored) {
+            // fall through to 400
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "size must be one of " + PhotoVariantService.SIZES + " or " + ORIGINAL);
+    }
+
+    /** Variants are distinct representations of the same photo, so each gets its own tag. */
+    private static String etagFor(String hash, Integer sizePx) {
+        return sizePx == null ? "\"" + hash + "\"" : "\"" + hash + "-" + sizePx + "\"";
+    }
+
+    private static void notModified(HttpServletResponse response, String etag) {
+        response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+    }
+
+    /** RFC 9110 weak comparison: "*" or any listed tag, W/ prefix ignored. */
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag)) return true;
+        }
+        return false;
     }
 }
@@ -0,0 +1,21 @@
+package com.ainexus.hospital.patient.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One slice of a keyset-paginated list. Pass {@code nextCursor} back as the
+ * {@code cursor} parameter to fetch the following slice; it is null on the
+ * last slice. No total count is computed.
+ */
+@Data
+@Builder
+public class CursorPageResponse<T> {
+
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;    // opaque; null when hasNext is false
+}
@@ -0,0 +1,32 @@
+package com.ainexus.hospital.patient.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk patient import. {@code errors} lists rejected rows in file
+ * order, up to {@code app.import.max-reported-errors}; {@code failed} always
+ * holds the full count.
+ */
+@Data
+@Builder
+public class PatientImportResponse {
+
+    private long received;          // data rows read (CSV header and blank lines excluded)
+    private long imported;
+    private long failed;
+    private List<RowError> errors;
+    private boolean errorsTruncated;
+    private long elapsedMs;
+    private long rowsPerSecond;     // received / elapsed
+
+    @Data
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;          // line in the uploaded file where the row starts
+        private String message;
+    }
+}
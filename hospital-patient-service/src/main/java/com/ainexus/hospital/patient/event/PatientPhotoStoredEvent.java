@@ -0,0 +1,6 @@
+package com.ainexus.hospital.patient.event;
+
+public record PatientPhotoStoredEvent(
+        String patientId,
+        String contentHash
+) {}
@@ -0,0 +1,20 @@
+package com.ainexus.hospital.patient.event;
+
+import com.ainexus.hospital.patient.service.PhotoVariantService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@RequiredArgsConstructor
+public class PhotoVariantListener {
+
+    private final PhotoVariantService variantService;
+
+    /** Hand off after commit — the upload request never waits on image scaling. */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPhotoStored(PatientPhotoStoredEvent e) {
+        variantService.requestVariants(e.contentHash());
+    }
+}
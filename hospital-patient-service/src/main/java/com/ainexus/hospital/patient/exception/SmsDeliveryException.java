@@ -0,0 +1,11 @@
+package com.ainexus.hospital.patient.exception;
+
+/**
+ * The SMS provider rejected a message or could not be reached. The message
+ * carries provider error codes only — never the phone number or text.
+ */
+public class SmsDeliveryException extends RuntimeException {
+    public SmsDeliveryException(String message) {
+        super(message);
+    }
+}
@@ -5,6 +5,7 @@ import com.ainexus.hospital.patient.dto.request.PatientUpdateRequest;
 import com.ainexus.hospital.patient.dto.response.PatientResponse;
 import com.ainexus.hospital.patient.dto.response.PatientSummaryResponse;
 import com.ainexus.hospital.patient.model.Patient;
+import com.ainexus.hospital.patient.repository.projection.PatientSummaryRow;
 import org.mapstruct.*;
 
 @Mapper(componentModel = "spring")
@@ -13,8 +14,8 @@ public interface PatientMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "patientId", ignore = true)
     @Mapping(target = "mrn", ignore = true)
-    @Mapping(target = "photo", ignore = true)
-    @Mapping(target = "photoContentType", ignore = true)
+    @Mapping(target = "photoHash", ignore = true)
+    @Mapping(target = "hasPhoto", ignore = true)
     @Mapping(target = "birthYear", ignore = true)
     @Mapping(target = "hasAllergies", ignore = true)
     @Mapping(target = "hasChronicConditions", ignore = true)
@@ -28,8 +29,8 @@ public interface PatientMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "patientId", ignore = true)
     @Mapping(target = "mrn", ignore = true)
-    @Mapping(target = "photo", ignore = true)
-    @Mapping(target = "photoContentType", ignore = true)
+    @Mapping(target = "photoHash", ignore = true)
+    @Mapping(target = "hasPhoto", ignore = true)
     @Mapping(target = "birthYear", ignore = true)
     @Mapping(target = "hasAllergies", ignore = true)
     @Mapping(target = "hasChronicConditions", ignore = true)
@@ -41,7 +42,7 @@ public interface PatientMapper {
     void updateEntityFromRequest(PatientUpdateRequest request, @MappingTarget Patient entity);
 
     @Mapping(target = "age", ignore = true)         // set in service from DOB
-    @Mapping(target = "hasPhoto", expression = "java(patient.getPhoto() != null && patient.getPhoto().length > 0)")
+    @Mapping(target = "hasPhoto", expression = "java(Boolean.TRUE.equals(patient.getHasPhoto()))")
     @Mapping(target = "hasAllergies", expression = "java(Boolean.TRUE.equals(patient.getHasAllergies()))")
     @Mapping(target = "hasChronicConditions", expression = "java(Boolean.TRUE.equals(patient.getHasChronicConditions()))")
     @Mapping(target = "registeredAt", expression = "java(patient.getRegisteredAt() != null ? patient.getRegisteredAt().toString() : null)")
@@ -50,4 +51,9 @@ public interface PatientMapper {
 
     @Mapping(target = "age", ignore = true)         // set in service from DOB
     PatientSummaryResponse toSummaryResponse(Patient patient);
+
+    @Mapping(target = "age", ignore = true)         // set in service from DOB
+    @Mapping(target = "matchConfidence", ignore = true)
+    @Mapping(target = "matchReason", ignore = true)
+    PatientSummaryResponse toSummaryResponse(PatientSummaryRow row);
 }
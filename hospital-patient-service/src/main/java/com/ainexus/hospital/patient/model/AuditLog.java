@@ -16,7 +16,9 @@ import java.time.Instant;
 public class AuditLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Inserted only by AuditWriter (JDBC batches using the column default); read-only here
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audit_logs_id_seq")
+    @SequenceGenerator(name = "audit_logs_id_seq", sequenceName = "audit_logs_id_seq", allocationSize = 1)
     private Long id;
 
     @Column(name = "user_id", nullable = false, length = 100)
@@ -32,7 +34,7 @@ public class AuditLog {
     @Column(name = "action", nullable = false, length = 20)
     private AuditAction action;
 
-    @Column(name = "patient_id", nullable = false, length = 10)
+    @Column(name = "patient_id", nullable = false, length = 20)
     private String patientId;
 
     @Column(name = "ip_address", length = 45)
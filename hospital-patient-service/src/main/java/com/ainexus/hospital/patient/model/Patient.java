@@ -16,10 +16,11 @@ import java.time.Instant;
 public class Patient {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patients_id_seq")
+    @SequenceGenerator(name = "patients_id_seq", sequenceName = "patients_id_seq", allocationSize = 50)
     private Long id;
 
-    @Column(name = "patient_id", nullable = false, unique = true, length = 10)
+    @Column(name = "patient_id", nullable = false, unique = true, length = 20)
     private String patientId;
 
     // Personal Information — PHI fields encrypted at rest
@@ -88,10 +89,10 @@ public class Patient {
     // Search index columns — populated on write for DB-level querying.
     // PHI is still stored encrypted above; these enable efficient search
     // without loading all records into memory.
-    @Column(name = "first_name_search", length = 100)
+    @Column(name = "first_name_search", nullable = false, length = 100)
     private String firstNameSearch;   // lowercase, trimmed — LIKE queries
 
-    @Column(name = "last_name_search", length = 100)
+    @Column(name = "last_name_search", nullable = false, length = 100)
     private String lastNameSearch;    // lowercase, trimmed — LIKE queries
 
     @Column(name = "phone_number_hash", length = 64)
@@ -126,14 +127,16 @@ public class Patient {
     private Instant updatedAt;
 
     // Clinical Gap Features
-    @Column(name = "mrn", length = 15, unique = true)
+    @Column(name = "mrn", length = 22, unique = true)
     private String mrn;
 
-    @Column(name = "photo")
-    private byte[] photo;
+    // Photo bytes live in patient_photos, keyed by content hash — never loaded with the patient
+    @Column(name = "photo_hash", length = 64, columnDefinition = "CHAR(64)")
+    private String photoHash;
 
-    @Column(name = "photo_content_type", length = 50)
-    private String photoContentType;
+    @Column(name = "has_photo", nullable = false)
+    @Builder.Default
+    private Boolean hasPhoto = false;
 
     @Column(name = "birth_year")
     private Integer birthYear;  // plaintext for DOB-range search without decrypting all records
@@ -17,10 +17,11 @@ import java.time.LocalDate;
 public class PatientAllergy {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_allergies_id_seq")
+    @SequenceGenerator(name = "patient_allergies_id_seq", sequenceName = "patient_allergies_id_seq", allocationSize = 50)
     private Long id;
 
-    @Column(name = "patient_id", nullable = false, length = 10)
+    @Column(name = "patient_id", nullable = false, length = 20)
     private String patientId;
 
     // PHI fields — AES-256-GCM encrypted at rest
@@ -17,10 +17,11 @@ import java.time.LocalTime;
 public class PatientAppointment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_appointments_id_seq")
+    @SequenceGenerator(name = "patient_appointments_id_seq", sequenceName = "patient_appointments_id_seq", allocationSize = 50)
     private Long id;
 
-    @Column(name = "patient_id", nullable = false, length = 10)
+    @Column(name = "patient_id", nullable = false, length = 20)
     private String patientId;
 
     @Column(name = "appointment_date", nullable = false)
@@ -0,0 +1,101 @@
+package com.ainexus.hospital.patient.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+
+/**
+ * Read-only view of the patients table with PHI columns exactly as stored —
+ * AES-GCM ciphertext, no AesEncryptionConverter.
+ *
+ * Bulk readers (CSV export) select from this entity so that rows can be fetched
+ * on the request thread and decrypted in parallel on the PhiDecryptionPipeline
+ * workers. Patient remains the only write model for this table.
+ */
+@Entity
+@Immutable
+@Table(name = "patients")
+@Getter
+@NoArgsConstructor
+public class PatientCiphertextView {
+
+    @Id
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false, length = 20)
+    private String patientId;
+
+    @Column(name = "mrn", length = 22)
+    private String mrn;
+
+    // PHI — ciphertext
+    @Column(name = "first_name", nullable = false)
+    private String firstName;
+
+    @Column(name = "last_name", nullable = false)
+    private String lastName;
+
+    @Column(name = "date_of_birth", nullable = false)
+    private String dateOfBirth;
+
+    @Column(name = "phone_number", nullable = false)
+    private String phoneNumber;
+
+    @Column(name = "email")
+    private String email;
+
+    @Column(name = "known_allergies")
+    private String knownAllergies;
+
+    @Column(name = "chronic_conditions")
+    private String chronicConditions;
+
+    // Plaintext columns
+    @Enumerated(EnumType.STRING)
+    @Column(name = "gender", nullable = false, length = 20)
+    private Gender gender;
+
+    @Column(name = "city", length = 100)
+    private String city;
+
+    @Column(name = "state", length = 100)
+    private String state;
+
+    @Column(name = "zip_code", length = 20)
+    private String zipCode;
+
+    @Column(name = "blood_group", length = 10)
+    private String bloodGroup;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 10)
+    private PatientStatus status;
+
+    @Column(name = "registered_at", nullable = false)
+    private Instant registeredAt;
+
+    // Search surface — same attribute names as Patient so PatientRepository.SEARCH_FILTER applies
+    @Column(name = "first_name_search", nullable = false, length = 100)
+    private String firstNameSearch;
+
+    @Column(name = "last_name_search", nullable = false, length = 100)
+    private String lastNameSearch;
+
+    @Column(name = "phone_number_hash", length = 64)
+    private String phoneNumberHash;
+
+    @Column(name = "email_hash", length = 64)
+    private String emailHash;
+
+    @Column(name = "birth_year")
+    private Integer birthYear;
+
+    @Column(name = "has_allergies")
+    private Boolean hasAllergies;
+
+    @Column(name = "has_chronic_conditions")
+    private Boolean hasChronicConditions;
+}
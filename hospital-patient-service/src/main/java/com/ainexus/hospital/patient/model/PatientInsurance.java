@@ -12,10 +12,11 @@ import java.time.LocalDate;
 public class PatientInsurance {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_insurance_id_seq")
+    @SequenceGenerator(name = "patient_insurance_id_seq", sequenceName = "patient_insurance_id_seq", allocationSize = 50)
     private Long id;
 
-    @Column(name = "patient_id", length = 10, nullable = false)
+    @Column(name = "patient_id", length = 20, nullable = false)
     private String patientId;
 
     @Column(name = "provider_name", length = 200, nullable = false)
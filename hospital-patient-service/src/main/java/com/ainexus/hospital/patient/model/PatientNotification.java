@@ -10,10 +10,11 @@ import java.time.Instant;
 public class PatientNotification {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_notifications_id_seq")
+    @SequenceGenerator(name = "patient_notifications_id_seq", sequenceName = "patient_notifications_id_seq", allocationSize = 50)
     private Long id;
 
-    @Column(name = "patient_id", nullable = false, length = 10)
+    @Column(name = "patient_id", nullable = false, length = 20)
     private String patientId;
 
     @Enumerated(EnumType.STRING)
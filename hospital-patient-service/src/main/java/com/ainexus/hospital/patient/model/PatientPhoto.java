@@ -0,0 +1,35 @@
+package com.ainexus.hospital.patient.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Content-addressed photo blob. The primary key is the lowercase hex SHA-256
+ * of {@code data}, so identical images uploaded for different patients are
+ * stored once. Patients reference a blob through {@code patients.photo_hash};
+ * the bytes are only read when the photo itself is requested.
+ */
+@Entity
+@Table(name = "patient_photos")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class PatientPhoto {
+
+    @Id
+    @Column(name = "content_hash", length = 64, columnDefinition = "CHAR(64)")
+    private String contentHash;
+
+    @Column(name = "content_type", nullable = false, length = 50)
+    private String contentType;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Integer sizeBytes;
+
+    @Column(name = "data", nullable = false)
+    private byte[] data;
+
+    @Column(name = "created_at", nullable = false)
+    @Builder.Default
+    private Instant createdAt = Instant.now();
+}
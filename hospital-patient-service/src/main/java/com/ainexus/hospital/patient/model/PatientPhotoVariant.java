@@ -0,0 +1,38 @@
+package com.ainexus.hospital.patient.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Down-scaled rendition of a {@link PatientPhoto}, longest edge {@code sizePx}.
+ * Generated off the request path by PhotoVariantService.
+ */
+@Entity
+@Table(name = "patient_photo_variants")
+@IdClass(PatientPhotoVariantId.class)
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class PatientPhotoVariant {
+
+    @Id
+    @Column(name = "content_hash", length = 64, columnDefinition = "CHAR(64)")
+    private String contentHash;
+
+    @Id
+    @Column(name = "size_px", nullable = false)
+    private Integer sizePx;
+
+    @Column(name = "content_type", nullable = false, length = 50)
+    private String contentType;
+
+    @Column(name = "size_bytes", nullable = false)
+    private Integer sizeBytes;
+
+    @Column(name = "data", nullable = false)
+    private byte[] data;
+
+    @Column(name = "created_at", nullable = false)
+    @Builder.Default
+    private Instant createdAt = Instant.now();
+}
@@ -0,0 +1,30 @@
+package com.ainexus.hospital.patient.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+public class PatientPhotoVariantId implements Serializable {
+
+    private String  contentHash;
+    private Integer sizePx;
+
+    public PatientPhotoVariantId() {}
+
+    public PatientPhotoVariantId(String contentHash, Integer sizePx) {
+        this.contentHash = contentHash;
+        this.sizePx      = sizePx;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PatientPhotoVariantId that)) return false;
+        return Objects.equals(contentHash, that.contentHash) &&
+               Objects.equals(sizePx, that.sizePx);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(contentHash, sizePx);
+    }
+}
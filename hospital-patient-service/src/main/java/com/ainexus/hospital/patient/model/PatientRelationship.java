@@ -2,6 +2,7 @@ package com.ainexus.hospital.patient.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.springframework.data.domain.Persistable;
 
 import java.time.Instant;
 
@@ -13,14 +14,14 @@ import java.time.Instant;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class PatientRelationship {
+public class PatientRelationship implements Persistable<PatientRelationshipId> {
 
     @Id
-    @Column(name = "patient_id", length = 10, nullable = false)
+    @Column(name = "patient_id", length = 20, nullable = false)
     private String patientId;
 
     @Id
-    @Column(name = "related_patient_id", length = 10, nullable = false)
+    @Column(name = "related_patient_id", length = 20, nullable = false)
     private String relatedPatientId;
 
     /** SPOUSE, PARENT, CHILD, SIBLING, GUARDIAN, WARD, OTHER */
@@ -33,4 +34,30 @@ public class PatientRelationship {
     @Column(name = "created_at", nullable = false)
     @Builder.Default
     private Instant createdAt = Instant.now();
+
+    /**
+     * The key is assigned, not generated, so Spring Data cannot tell a new row
+     * from a detached one and would merge (SELECT, then INSERT) on every save.
+     * Rows built in code are new; loaded or inserted ones are not.
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean persisted;
+
+    @Override
+    public PatientRelationshipId getId() {
+        return new PatientRelationshipId(patientId, relatedPatientId);
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
 }
@@ -12,10 +12,11 @@ import java.time.Instant;
 public class PatientVitals {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_vitals_id_seq")
+    @SequenceGenerator(name = "patient_vitals_id_seq", sequenceName = "patient_vitals_id_seq", allocationSize = 50)
     private Long id;
 
-    @Column(name = "patient_id", length = 10, nullable = false)
+    @Column(name = "patient_id", length = 20, nullable = false)
     private String patientId;
 
     @Column(name = "recorded_at", nullable = false)
@@ -10,10 +10,11 @@ import java.time.Instant;
 public class SmsDeliveryLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sms_delivery_log_id_seq")
+    @SequenceGenerator(name = "sms_delivery_log_id_seq", sequenceName = "sms_delivery_log_id_seq", allocationSize = 50)
     private Long id;
 
-    @Column(name = "patient_id", nullable = false, length = 10)
+    @Column(name = "patient_id", nullable = false, length = 20)
     private String patientId;
 
     @Column(name = "phone_number", nullable = false, length = 50)
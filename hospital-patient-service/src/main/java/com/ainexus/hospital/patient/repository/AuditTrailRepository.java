@@ -0,0 +1,23 @@
+package com.ainexus.hospital.patient.repository;
+
+import com.ainexus.hospital.patient.model.AuditLog;
+import com.ainexus.hospital.patient.repository.search.AuditTrailCriteria;
+import com.ainexus.hospital.patient.repository.search.AuditTrailKey;
+
+import java.util.List;
+
+/**
+ * Keyset reads over audit_logs and, when the requested range reaches past
+ * the archived months, audit_logs_archive. Implemented by
+ * {@link AuditTrailRepositoryImpl} and exposed through AuditLogRepository.
+ */
+public interface AuditTrailRepository {
+
+    /**
+     * Up to {@code limit} entries matching {@code criteria}, newest first by
+     * (occurredAt, id), that sort strictly before {@code before} (from the
+     * newest when null). Each slice is one index range scan per table; no
+     * count query is issued. Returned entries are detached read models.
+     */
+    List<AuditLog> scrollTrail(AuditTrailCriteria criteria, AuditTrailKey before, int limit);
+}
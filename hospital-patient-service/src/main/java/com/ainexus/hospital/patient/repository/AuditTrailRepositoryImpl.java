@@ -0,0 +1,103 @@
+package com.ainexus.hospital.patient.repository;
+
+import com.ainexus.hospital.patient.audit.AuditAction;
+import com.ainexus.hospital.patient.model.AuditLog;
+import com.ainexus.hospital.patient.repository.search.AuditTrailCriteria;
+import com.ainexus.hospital.patient.repository.search.AuditTrailKey;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plain JDBC so the live and archive tables can be read as one ordered
+ * stream. Each branch is ordered and limited on its own, so PostgreSQL
+ * reads at most {@code limit} rows from each via idx_audit_*_trail (V25).
+ * The outer merge then keeps the newest {@code limit}.
+ *
+ * The archive branch is added only when the range starts before the end
+ * of the newest archived month (audit_archive_partitions). Partition
+ * pruning on occurred_at skips months outside the range in both tables.
+ */
+@RequiredArgsConstructor
+class AuditTrailRepositoryImpl implements AuditTrailRepository {
+
+    private static final String COLUMNS =
+            "id, user_id, username, user_role, action, patient_id, ip_address, occurred_at";
+
+    private static final String ARCHIVE_BOUNDARY_SQL = "SELECT max(range_end) FROM audit_archive_partitions";
+
+    private static final RowMapper<AuditLog> ROW_MAPPER = (rs, rowNum) -> AuditLog.builder()
+            .id(rs.getLong("id"))
+            .userId(rs.getString("user_id"))
+            .username(rs.getString("username"))
+            .userRole(rs.getString("user_role"))
+            .action(AuditAction.valueOf(rs.getString("action")))
+            .patientId(rs.getString("patient_id"))
+            .ipAddress(rs.getString("ip_address"))
+            .occurredAt(rs.getObject("occurred_at", OffsetDateTime.class).toInstant())
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<AuditLog> scrollTrail(AuditTrailCriteria criteria, AuditTrailKey before, int limit) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder();
+
+        if (readsArchive(criteria)) {
+            sql.append("SELECT ").append(COLUMNS).append(" FROM (");
+            appendBranch(sql, args, "audit_logs", criteria, before, limit);
+            sql.append(" UNION ALL ");
+            appendBranch(sql, args, "audit_logs_archive", criteria, before, limit);
+            sql.append(") trail ORDER BY occurred_at DESC, id DESC LIMIT ?");
+            args.add(limit);
+        } else {
+            appendBranch(sql, args, "audit_logs", criteria, before, limit);
+        }
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, args.toArray());
+    }
+
+    // ── Private helpers ──────────────────────────────────────────────────────
+
+    private boolean readsArchive(AuditTrailCriteria criteria) {
+        Timestamp boundary = jdbcTemplate.queryForObject(ARCHIVE_BOUNDARY_SQL, Timestamp.class);
+        return boundary != null
+                && (criteria.from() == null || criteria.from().isBefore(boundary.toInstant()));
+    }
+
+    private static void appendBranch(StringBuilder sql, List<Object> args, String table,
+                                     AuditTrailCriteria criteria, AuditTrailKey before, int limit) {
+        sql.append("(SELECT ").append(COLUMNS).append(" FROM ").append(table)
+           .append(" WHERE patient_id = ?");
+        args.add(criteria.patientId());
+        if (criteria.action() != null) {
+            sql.append(" AND action = ?");
+            args.add(criteria.action().name());
+        }
+        if (criteria.userId() != null) {
+            sql.append(" AND user_id = ?");
+            args.add(criteria.userId());
+        }
+        if (criteria.from() != null) {
+            sql.append(" AND occurred_at >= ?");
+            args.add(Timestamp.from(criteria.from()));
+        }
+        if (criteria.to() != null) {
+            sql.append(" AND occurred_at < ?");
+            args.add(Timestamp.from(criteria.to()));
+        }
+        if (before != null) {
+            // Row comparison matches the (patient_id, occurred_at, id) index order
+            sql.append(" AND (occurred_at, id) < (?, ?)");
+            args.add(Timestamp.from(before.occurredAt()));
+            args.add(before.id());
+        }
+        sql.append(" ORDER BY occurred_at DESC, id DESC LIMIT ?)");
+        args.add(limit);
+    }
+}
@@ -2,6 +2,7 @@ package com.ainexus.hospital.patient.repository;
 
 import com.ainexus.hospital.patient.model.AppointmentStatus;
 import com.ainexus.hospital.patient.model.PatientAppointment;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -10,6 +11,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -37,9 +39,6 @@ public interface PatientAppointmentRepository extends JpaRepository<PatientAppoi
 
     Optional<PatientAppointment> findByIdAndPatientId(Long id, String patientId);
 
-    /** Reminder scheduler query: find all appointments for a specific date with one of the given statuses. */
-    List<PatientAppointment> findByAppointmentDateAndStatusIn(LocalDate date, List<AppointmentStatus> statuses);
-
     /** Global list for admin/receptionist view — paginated with optional filters. */
     @Query("""
         SELECT a FROM PatientAppointment a
@@ -55,4 +54,48 @@ public interface PatientAppointmentRepository extends JpaRepository<PatientAppoi
             @Param("fromDate")  LocalDate fromDate,
             @Param("toDate")    LocalDate toDate,
             Pageable pageable);
+
+    /**
+     * Keyset (seek) variant of {@link #findAllFiltered} — first slice.
+     * Ordered by (appointmentDate, appointmentTime, id) descending; id makes the
+     * order total so the next slice can resume exactly after the last row.
+     */
+    @Query("""
+        SELECT a FROM PatientAppointment a
+        WHERE (:patientId IS NULL OR :patientId = '' OR a.patientId = :patientId)
+          AND (:status IS NULL OR a.status = :status)
+          AND (:fromDate IS NULL OR a.appointmentDate >= :fromDate)
+          AND (:toDate   IS NULL OR a.appointmentDate <= :toDate)
+        ORDER BY a.appointmentDate DESC, a.appointmentTime DESC, a.id DESC
+        """)
+    List<PatientAppointment> scrollFiltered(
+            @Param("patientId") String patientId,
+            @Param("status")    AppointmentStatus status,
+            @Param("fromDate")  LocalDate fromDate,
+            @Param("toDate")    LocalDate toDate,
+            Limit limit);
+
+    /**
+     * Keyset (seek) variant of {@link #findAllFiltered} — slices after the first.
+     * The row-value comparison resumes strictly after the last row returned,
+     * using idx_appointments_keyset instead of skipping OFFSET rows.
+     */
+    @Query("""
+        SELECT a FROM PatientAppointment a
+        WHERE (:patientId IS NULL OR :patientId = '' OR a.patientId = :patientId)
+          AND (:status IS NULL OR a.status = :status)
+          AND (:fromDate IS NULL OR a.appointmentDate >= :fromDate)
+          AND (:toDate   IS NULL OR a.appointmentDate <= :toDate)
+          AND (a.appointmentDate, a.appointmentTime, a.id) < (:afterDate, :afterTime, :afterId)
+        ORDER BY a.appointmentDate DESC, a.appointmentTime DESC, a.id DESC
+        """)
+    List<PatientAppointment> scrollFilteredAfter(
+            @Param("patientId") String patientId,
+            @Param("status")    AppointmentStatus status,
+            @Param("fromDate")  LocalDate fromDate,
+            @Param("toDate")    LocalDate toDate,
+            @Param("afterDate") LocalDate afterDate,
+            @Param("afterTime") LocalTime afterTime,
+            @Param("afterId")   Long afterId,
+            Limit limit);
 }
@@ -0,0 +1,23 @@
+package com.ainexus.hospital.patient.repository;
+
+import com.ainexus.hospital.patient.model.Patient;
+
+import java.util.List;
+
+/**
+ * Multi-row insert for bulk patient import. The PHI attributes arrive already
+ * encrypted by the import workers, so the rows bypass the persistence context
+ * (and the converter) entirely. Implemented by {@link PatientBatchRepositoryImpl}
+ * and exposed through PatientRepository.
+ */
+public interface PatientBatchRepository {
+
+    /**
+     * Inserts all rows as one JDBC batch. Ids are reserved up front from
+     * patients_id_seq and set on each patient.
+     *
+     * AesEncryptionConverter is a JPA converter and does not run here: the PHI
+     * attributes of each patient must already hold ciphertext.
+     */
+    void insertEncrypted(List<Patient> patients);
+}
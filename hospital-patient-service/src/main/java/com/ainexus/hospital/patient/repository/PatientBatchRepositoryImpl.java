@@ -0,0 +1,111 @@
+package com.ainexus.hospital.patient.repository;
+
+import com.ainexus.hospital.patient.model.Patient;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Plain JDBC batch insert: the PostgreSQL driver pipelines the whole batch
+ * instead of waiting for a round trip per row.
+ *
+ * Ids follow Hibernate's pooled layout (V29): a nextval returning v reserves
+ * v - increment + 1 .. v, so one nextval covers up to 50 rows and the ids
+ * never collide with blocks held by Patient's sequence generator. Relying on
+ * the column default instead would burn a whole block per row.
+ *
+ * Runs on the caller's transaction connection when called inside one.
+ */
+@RequiredArgsConstructor
+class PatientBatchRepositoryImpl implements PatientBatchRepository {
+
+    private static final String INSERT_SQL = """
+        INSERT INTO patients (id, patient_id, mrn, first_name, last_name, date_of_birth, gender,
+                              phone_number, email, address, city, state, zip_code,
+                              emergency_contact_name, emergency_contact_phone, emergency_contact_relationship,
+                              blood_group, known_allergies, chronic_conditions,
+                              first_name_search, last_name_search, phone_number_hash, email_hash,
+                              first_name_soundex, last_name_soundex,
+                              birth_year, has_allergies, has_chronic_conditions,
+                              status, registered_by, registered_at)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private static final String NEXT_BLOCKS_SQL = """
+        SELECT nextval('patients_id_seq'), s.increment_by
+        FROM generate_series(1, ?), pg_sequences s
+        WHERE s.schemaname = current_schema() AND s.sequencename = 'patients_id_seq'
+        """;
+
+    /** Expected INCREMENT BY; only sizes the request, the real value is read back. */
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertEncrypted(List<Patient> patients) {
+        if (patients.isEmpty()) return;
+        assignIds(patients);
+        jdbcTemplate.batchUpdate(INSERT_SQL, patients, patients.size(), PatientBatchRepositoryImpl::bind);
+    }
+
+    // ── Private helpers ──────────────────────────────────────────────────────
+
+    private void assignIds(List<Patient> patients) {
+        int assigned = 0;
+        while (assigned < patients.size()) {
+            int blocks = (patients.size() - assigned + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+            List<long[]> ranges = jdbcTemplate.query(NEXT_BLOCKS_SQL,
+                    (rs, rowNum) -> new long[] { Math.max(1, rs.getLong(1) - rs.getLong(2) + 1), rs.getLong(1) },
+                    blocks);
+            for (long[] range : ranges) {
+                for (long id = range[0]; id <= range[1] && assigned < patients.size(); id++) {
+                    patients.get(assigned++).setId(id);
+                }
+            }
+        }
+    }
+
+    private static void bind(PreparedStatement ps, Patient p) throws SQLException {
+        ps.setLong(1, p.getId());
+        ps.setString(2, p.getPatientId());
+        ps.setString(3, p.getMrn());
+        ps.setString(4, p.getFirstName());
+        ps.setString(5, p.getLastName());
+        ps.setString(6, p.getDateOfBirth());
+        ps.setString(7, p.getGender().name());
+        ps.setString(8, p.getPhoneNumber());
+        ps.setString(9, p.getEmail());
+        ps.setString(10, p.getAddress());
+        ps.setString(11, p.getCity());
+        ps.setString(12, p.getState());
+        ps.setString(13, p.getZipCode());
+        ps.setString(14, p.getEmergencyContactName());
+        ps.setString(15, p.getEmergencyContactPhone());
+        ps.setString(16, p.getEmergencyContactRelationship());
+        ps.setString(17, p.getBloodGroup());
+        ps.setString(18, p.getKnownAllergies());
+        ps.setString(19, p.getChronicConditions());
+        ps.setString(20, p.getFirstNameSearch());
+        ps.setString(21, p.getLastNameSearch());
+        ps.setString(22, p.getPhoneNumberHash());
+        ps.setString(23, p.getEmailHash());
+        ps.setString(24, p.getFirstNameSoundex());
+        ps.setString(25, p.getLastNameSoundex());
+        if (p.getBirthYear() != null) {
+            ps.setInt(26, p.getBirthYear());
+        } else {
+            ps.setNull(26, Types.INTEGER);
+        }
+        ps.setBoolean(27, Boolean.TRUE.equals(p.getHasAllergies()));
+        ps.setBoolean(28, Boolean.TRUE.equals(p.getHasChronicConditions()));
+        ps.setString(29, p.getStatus().name());
+        ps.setString(30, p.getRegisteredBy());
+        ps.setObject(31, p.getRegisteredAt().atOffset(ZoneOffset.UTC));
+    }
+}
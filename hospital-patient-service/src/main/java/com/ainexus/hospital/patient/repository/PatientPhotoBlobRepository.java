@@ -0,0 +1,50 @@
+package com.ainexus.hospital.patient.repository;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Plain JDBC access to {@code patient_photos}, bypassing the entity: uploads
+ * are streamed into the row and downloads read only the requested slice of
+ * {@code data} (which the driver does buffer in full). Implemented by
+ * {@link PatientPhotoBlobRepositoryImpl} and exposed through
+ * PatientPhotoRepository.
+ */
+public interface PatientPhotoBlobRepository {
+
+    /**
+     * Stores {@code sizeBytes} bytes read from {@code data} under {@code hash}
+     * unless a blob with that hash already exists. Concurrent uploads of the
+     * same image both succeed instead of one failing on the primary key.
+     */
+    void insertIfAbsent(String hash, String contentType, long sizeBytes, InputStream data);
+
+    /**
+     * Locks the blob {@code FOR KEY SHARE} until the transaction ends, so it
+     * cannot be deleted before the caller's patient row references it. Waits
+     * for a concurrent delete to commit or roll back.
+     *
+     * @return false if no blob with that hash exists (any more)
+     */
+    boolean lockForReference(String hash);
+
+    /**
+     * Locks the blob {@code FOR UPDATE} before a delete, waiting for uploads
+     * that hold it via {@link #lockForReference} to commit. A reference check
+     * run after this, as a separate statement, sees their patient rows.
+     *
+     * @return false if no blob with that hash exists
+     */
+    boolean lockForDelete(String hash);
+
+    /**
+     * Copies {@code length} bytes starting at {@code offset} (0-based) of the
+     * blob to {@code out}. Only the requested slice leaves the database.
+     *
+     * @return false if no blob with that hash exists
+     */
+    boolean copyData(String hash, long offset, long length, OutputStream out);
+
+    /** {@link #copyData} for the {@code sizePx} variant of the blob. */
+    boolean copyVariantData(String hash, int sizePx, long offset, long length, OutputStream out);
+}
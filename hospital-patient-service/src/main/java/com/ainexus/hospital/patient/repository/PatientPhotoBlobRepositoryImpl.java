@@ -0,0 +1,92 @@
+package com.ainexus.hospital.patient.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Plain JDBC for the photo bytes: {@code setBinaryStream} on insert and a
+ * {@code substring()} slice read through {@code getBinaryStream} on download,
+ * so a Range request only transfers the bytes it asked for. PgJDBC reads a
+ * bytea value into memory before handing out the stream, so a download holds
+ * its slice (at most the upload cap) in the heap while it is written out.
+ *
+ * Runs on the JPA transaction's connection when called inside one.
+ */
+@RequiredArgsConstructor
+class PatientPhotoBlobRepositoryImpl implements PatientPhotoBlobRepository {
+
+    private static final String INSERT_SQL = """
+        INSERT INTO patient_photos (content_hash, content_type, size_bytes, data, created_at)
+        VALUES (?, ?, ?, ?, NOW())
+        ON CONFLICT (content_hash) DO NOTHING
+        """;
+
+    private static final String LOCK_FOR_REFERENCE_SQL =
+            "SELECT 1 FROM patient_photos WHERE content_hash = ? FOR KEY SHARE";
+
+    private static final String LOCK_FOR_DELETE_SQL =
+            "SELECT 1 FROM patient_photos WHERE content_hash = ? FOR UPDATE";
+
+    // substring() is 1-based on bytea
+    private static final String SLICE_SQL =
+            "SELECT substring(data FROM ? FOR ?) FROM patient_photos WHERE content_hash = ?";
+
+    private static final String VARIANT_SLICE_SQL =
+            "SELECT substring(data FROM ? FOR ?) FROM patient_photo_variants WHERE content_hash = ? AND size_px = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertIfAbsent(String hash, String contentType, long sizeBytes, InputStream data) {
+        jdbcTemplate.update(INSERT_SQL, ps -> {
+            ps.setString(1, hash);
+            ps.setString(2, contentType);
+            ps.setInt(3, Math.toIntExact(sizeBytes));
+            ps.setBinaryStream(4, data, sizeBytes);
+        });
+    }
+
+    @Override
+    public boolean lockForReference(String hash) {
+        return !jdbcTemplate.queryForList(LOCK_FOR_REFERENCE_SQL, Integer.class, hash).isEmpty();
+    }
+
+    @Override
+    public boolean lockForDelete(String hash) {
+        return !jdbcTemplate.queryForList(LOCK_FOR_DELETE_SQL, Integer.class, hash).isEmpty();
+    }
+
+    @Override
+    public boolean copyData(String hash, long offset, long length, OutputStream out) {
+        return copySlice(SLICE_SQL, hash, null, offset, length, out);
+    }
+
+    @Override
+    public boolean copyVariantData(String hash, int sizePx, long offset, long length, OutputStream out) {
+        return copySlice(VARIANT_SLICE_SQL, hash, sizePx, offset, length, out);
+    }
+
+    private boolean copySlice(String sql, String hash, Integer sizePx,
+                              long offset, long length, OutputStream out) {
+        Boolean found = jdbcTemplate.query(sql, ps -> {
+            ps.setLong(1, offset + 1);
+            ps.setLong(2, length);
+            ps.setString(3, hash);
+            if (sizePx != null) ps.setInt(4, sizePx);
+        }, rs -> {
+            if (!rs.next()) return false;
+            try (InputStream in = rs.getBinaryStream(1)) {
+                if (in != null) in.transferTo(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(found);
+    }
+}
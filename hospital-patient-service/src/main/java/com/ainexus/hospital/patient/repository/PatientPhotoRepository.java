@@ -0,0 +1,31 @@
+package com.ainexus.hospital.patient.repository;
+
+import com.ainexus.hospital.patient.model.PatientPhoto;
+import com.ainexus.hospital.patient.repository.projection.PatientPhotoMeta;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface PatientPhotoRepository extends JpaRepository<PatientPhoto, String>, PatientPhotoBlobRepository {
+
+    @Query("""
+        SELECT new com.ainexus.hospital.patient.repository.projection.PatientPhotoMeta(
+               p.contentHash, p.contentType, p.sizeBytes)
+        FROM PatientPhoto p WHERE p.contentHash = :hash
+        """)
+    Optional<PatientPhotoMeta> findMetaByContentHash(@Param("hash") String hash);
+
+    /** Removes a blob once no patient points at it any more. */
+    @Modifying
+    @Query(value = """
+        DELETE FROM patient_photos
+        WHERE content_hash = :hash
+          AND NOT EXISTS (SELECT 1 FROM patients WHERE photo_hash = :hash)
+        """, nativeQuery = true)
+    int deleteIfUnreferenced(@Param("hash") String hash);
+}
@@ -0,0 +1,42 @@
+package com.ainexus.hospital.patient.repository;
+
+import com.ainexus.hospital.patient.model.PatientPhotoVariant;
+import com.ainexus.hospital.patient.model.PatientPhotoVariantId;
+import com.ainexus.hospital.patient.repository.projection.PatientPhotoMeta;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PatientPhotoVariantRepository extends JpaRepository<PatientPhotoVariant, PatientPhotoVariantId> {
+
+    @Query("""
+        SELECT new com.ainexus.hospital.patient.repository.projection.PatientPhotoMeta(
+               v.contentHash, v.contentType, v.sizeBytes)
+        FROM PatientPhotoVariant v WHERE v.contentHash = :hash AND v.sizePx = :sizePx
+        """)
+    Optional<PatientPhotoMeta> findMeta(@Param("hash") String hash, @Param("sizePx") int sizePx);
+
+    @Query("SELECT v.sizePx FROM PatientPhotoVariant v WHERE v.contentHash = :hash")
+    List<Integer> findSizesByContentHash(@Param("hash") String hash);
+
+    /** Two generators racing on the same image both succeed; the first row wins. */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT INTO patient_photo_variants (content_hash, size_px, content_type, size_bytes, data, created_at)
+        VALUES (:hash, :sizePx, :contentType, :sizeBytes, :data, NOW())
+        ON CONFLICT (content_hash, size_px) DO NOTHING
+        """, nativeQuery = true)
+    void insertIfAbsent(@Param("hash") String hash,
+                        @Param("sizePx") int sizePx,
+                        @Param("contentType") String contentType,
+                        @Param("sizeBytes") int sizeBytes,
+                        @Param("data") byte[] data);
+}
@@ -3,6 +3,9 @@ package com.ainexus.hospital.patient.repository;
 import com.ainexus.hospital.patient.model.PatientRelationship;
 import com.ainexus.hospital.patient.model.PatientRelationshipId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,5 +16,20 @@ public interface PatientRelationshipRepository
 
     List<PatientRelationship> findByPatientId(String patientId);
 
-    void deleteByPatientIdAndRelatedPatientId(String patientId, String relatedPatientId);
+    /** Both directions of the link between {@code a} and {@code b}, in one query. */
+    @Query("""
+        SELECT r FROM PatientRelationship r
+        WHERE (r.patientId = :a AND r.relatedPatientId = :b)
+           OR (r.patientId = :b AND r.relatedPatientId = :a)
+        """)
+    List<PatientRelationship> findLink(@Param("a") String a, @Param("b") String b);
+
+    /** Deletes both directions of the link in one statement, without loading the rows. */
+    @Modifying
+    @Query("""
+        DELETE FROM PatientRelationship r
+        WHERE (r.patientId = :a AND r.relatedPatientId = :b)
+           OR (r.patientId = :b AND r.relatedPatientId = :a)
+        """)
+    int deleteLink(@Param("a") String a, @Param("b") String b);
 }
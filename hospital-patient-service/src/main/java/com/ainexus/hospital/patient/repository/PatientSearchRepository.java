@@ -0,0 +1,50 @@
+package com.ainexus.hospital.patient.repository;
+
+import com.ainexus.hospital.patient.repository.projection.PatientExportRow;
+import com.ainexus.hospital.patient.repository.projection.PatientSummaryRow;
+import com.ainexus.hospital.patient.repository.search.PatientScrollKey;
+import com.ainexus.hospital.patient.repository.search.PatientSearchCriteria;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Search queries built from a planned {@link PatientSearchCriteria}.
+ * Implemented by {@link PatientSearchRepositoryImpl} and exposed through PatientRepository.
+ */
+public interface PatientSearchRepository {
+
+    /** Rows pulled per JDBC round trip when streaming the CSV export. */
+    int EXPORT_FETCH_SIZE = 500;
+
+    /**
+     * Paged search using indexed search columns only — all PHI fields remain
+     * encrypted; search columns are the search surface. Returns the summary
+     * projection, not entities (see {@link PatientSummaryRow}).
+     */
+    Page<PatientSummaryRow> search(PatientSearchCriteria criteria, Pageable pageable);
+
+    /**
+     * Keyset (seek) variant of {@link #search}: up to {@code limit} patients
+     * ordered by (lastNameSearch, firstNameSearch, id) that sort strictly after
+     * {@code after} (from the start when null). No count query is issued, and
+     * the cost is the same for the first and the thousandth slice.
+     */
+    List<PatientSummaryRow> scroll(PatientSearchCriteria criteria, PatientScrollKey after, int limit);
+
+    /**
+     * Cursor-backed export stream with the same predicates as {@link #search}.
+     *
+     * Reads from PatientCiphertextView, so PHI columns arrive as stored
+     * ciphertext and are decrypted by the caller (in parallel, see
+     * PhiDecryptionPipeline) rather than row-by-row inside Hibernate.
+     * Selects only the exported columns (never the photo) into {@link PatientExportRow}
+     * and fetches {@value #EXPORT_FETCH_SIZE} rows per round trip,
+     * so heap usage stays flat regardless of result size. PostgreSQL only honours
+     * the fetch size inside a transaction — callers must be @Transactional and
+     * must close the stream.
+     */
+    Stream<PatientExportRow> streamExportRows(PatientSearchCriteria criteria);
+}
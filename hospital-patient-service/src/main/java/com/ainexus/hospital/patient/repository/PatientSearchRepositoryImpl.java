@@ -0,0 +1,225 @@
+package com.ainexus.hospital.patient.repository;
+
+import com.ainexus.hospital.patient.model.Patient;
+import com.ainexus.hospital.patient.repository.projection.PatientExportRow;
+import com.ainexus.hospital.patient.repository.projection.PatientSummaryRow;
+import com.ainexus.hospital.patient.repository.search.PatientScrollKey;
+import com.ainexus.hospital.patient.repository.search.PatientSearchCriteria;
+import com.ainexus.hospital.patient.repository.search.SearchTerm;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Builds one JPQL statement per planned search instead of a single catch-all
+ * query with "(:x IS NULL OR ...)" guards and a LIKE '%x%' OR-chain.
+ *
+ * The free-text term contributes exactly one predicate, chosen by its
+ * {@link SearchTerm.Kind}:
+ *
+ *   PATIENT_ID  p.patientId LIKE '%2026%'             (idx_patients_patient_id_trgm)
+ *   MRN         p.mrn LIKE '%MRN2026%'                (idx_patients_mrn_trgm)
+ *   NUMBER      p.patientId / p.mrn LIKE '%6003%'     (both trigram indexes)
+ *               OR p.phoneNumberHash = :hash (7+ digits)
+ *   PHONE       p.phoneNumberHash = :hash             (idx_patients_phone_hash)
+ *   EMAIL       p.emailHash = :hash                   (idx_patients_email_hash)
+ *   NAME        last/first name search LIKE '%smi%'  (idx_patients_*_name_search_trgm)
+ *
+ * Substring patterns are served by pg_trgm GIN indexes (V18). A term shorter than
+ * {@value #MIN_SUBSTRING_LENGTH} characters yields no complete trigram, so the GIN
+ * index cannot narrow it down; those terms fall back to a prefix match ('sm%'),
+ * served by the varchar_pattern_ops B-tree indexes (V17). Search columns are
+ * stored lower-case (names) or upper-case (IDs) and the planner normalises the
+ * term to match, so no LOWER() is applied to indexed columns.
+ *
+ * Structured filters are appended only when present. Both {@link Patient} and
+ * PatientCiphertextView use the same attribute names, so the WHERE clause is shared
+ * between the paged search and the export stream.
+ */
+class PatientSearchRepositoryImpl implements PatientSearchRepository {
+
+    private static final String ALIAS = "p";
+
+    /** Shortest term matched as a substring; pg_trgm needs at least one full trigram. */
+    static final int MIN_SUBSTRING_LENGTH = 3;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<PatientSummaryRow> search(PatientSearchCriteria criteria, Pageable pageable) {
+        Filter filter = Filter.of(criteria);
+
+        String jpql = QueryUtils.applySorting(PatientSummaryRow.SELECT + "FROM Patient p" + filter.where,
+                pageable.getSort(), ALIAS);
+        TypedQuery<PatientSummaryRow> query = filter.bind(entityManager.createQuery(jpql, PatientSummaryRow.class));
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        List<PatientSummaryRow> content = query.getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () ->
+                filter.bind(entityManager.createQuery("SELECT COUNT(p) FROM Patient p" + filter.where, Long.class))
+                        .getSingleResult());
+    }
+
+    @Override
+    public List<PatientSummaryRow> scroll(PatientSearchCriteria criteria, PatientScrollKey after, int limit) {
+        Filter filter = Filter.of(criteria);
+
+        StringBuilder jpql = new StringBuilder(PatientSummaryRow.SELECT).append("FROM Patient p").append(filter.where);
+        if (after != null) {
+            // Row-value comparison — one range condition on idx_patients_name_keyset
+            jpql.append(filter.where.isEmpty() ? " WHERE " : " AND ")
+                .append("(p.lastNameSearch, p.firstNameSearch, p.id) > (:afterLastName, :afterFirstName, :afterId)");
+        }
+        jpql.append(" ORDER BY p.lastNameSearch, p.firstNameSearch, p.id");
+
+        TypedQuery<PatientSummaryRow> query = filter.bind(entityManager.createQuery(jpql.toString(), PatientSummaryRow.class));
+        if (after != null) {
+            query.setParameter("afterLastName", after.lastNameSearch());
+            query.setParameter("afterFirstName", after.firstNameSearch());
+            query.setParameter("afterId", after.id());
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Stream<PatientExportRow> streamExportRows(PatientSearchCriteria criteria) {
+        Filter filter = Filter.of(criteria);
+
+        String jpql = """
+            SELECT new com.ainexus.hospital.patient.repository.projection.PatientExportRow(
+                   p.patientId, p.mrn, p.firstName, p.lastName, p.dateOfBirth, p.gender,
+                   p.phoneNumber, p.email, p.city, p.state, p.zipCode, p.bloodGroup,
+                   p.knownAllergies, p.chronicConditions, p.status, p.registeredAt)
+            FROM PatientCiphertextView p""" + filter.where + " ORDER BY p.id";
+
+        return filter.bind(entityManager.createQuery(jpql, PatientExportRow.class))
+                .setHint(HibernateHints.HINT_FETCH_SIZE, EXPORT_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    // ── Private helpers ──────────────────────────────────────────────────────
+
+    /** WHERE clause (alias {@code p}, possibly empty) and its named parameters. */
+    private record Filter(String where, Map<String, Object> params) {
+
+        static Filter of(PatientSearchCriteria c) {
+            StringBuilder where = new StringBuilder();
+            Map<String, Object> params = new HashMap<>();
+
+            appendTerm(c.term(), where, params);
+
+            if (c.status() != null) {
+                and(where, "p.status = :status");
+                params.put("status", c.status());
+            }
+            if (c.gender() != null) {
+                and(where, "p.gender = :gender");
+                params.put("gender", c.gender());
+            }
+            if (StringUtils.hasText(c.bloodGroup())) {
+                and(where, "p.bloodGroup = :bloodGroup");
+                params.put("bloodGroup", c.bloodGroup());
+            }
+            if (StringUtils.hasText(c.city())) {
+                and(where, "LOWER(p.city) LIKE :city ESCAPE '!'");
+                params.put("city", "%" + escapeLike(c.city().toLowerCase(Locale.ROOT)) + "%");
+            }
+            if (StringUtils.hasText(c.state())) {
+                and(where, "LOWER(p.state) LIKE :state ESCAPE '!'");
+                params.put("state", "%" + escapeLike(c.state().toLowerCase(Locale.ROOT)) + "%");
+            }
+            if (c.birthYearFrom() != null) {
+                and(where, "p.birthYear >= :birthYearFrom");
+                params.put("birthYearFrom", c.birthYearFrom());
+            }
+            if (c.birthYearTo() != null) {
+                and(where, "p.birthYear <= :birthYearTo");
+                params.put("birthYearTo", c.birthYearTo());
+            }
+            if (c.hasAllergies() != null) {
+                and(where, "p.hasAllergies = :hasAllergies");
+                params.put("hasAllergies", c.hasAllergies());
+            }
+            if (c.hasChronicConditions() != null) {
+                and(where, "p.hasChronicConditions = :hasChronicConditions");
+                params.put("hasChronicConditions", c.hasChronicConditions());
+            }
+            return new Filter(where.toString(), params);
+        }
+
+        <Q extends TypedQuery<?>> Q bind(Q query) {
+            params.forEach(query::setParameter);
+            return query;
+        }
+
+        private static void appendTerm(SearchTerm term, StringBuilder where, Map<String, Object> params) {
+            switch (term.kind()) {
+                case NONE -> { }
+                case PATIENT_ID -> {
+                    and(where, "p.patientId LIKE :term ESCAPE '!'");
+                    params.put("term", likePattern(term.value()));
+                }
+                case MRN -> {
+                    and(where, "p.mrn LIKE :term ESCAPE '!'");
+                    params.put("term", likePattern(term.value()));
+                }
+                case NUMBER -> {
+                    // Too short for a trigram: match the start of the number after the prefix letters
+                    boolean substring = term.value().length() >= MIN_SUBSTRING_LENGTH;
+                    params.put("idTerm",  substring ? "%" + term.value() + "%" : "P" + term.value() + "%");
+                    params.put("mrnTerm", substring ? "%" + term.value() + "%" : "MRN" + term.value() + "%");
+                    if (term.phoneHash() == null) {
+                        and(where, "(p.patientId LIKE :idTerm OR p.mrn LIKE :mrnTerm)");
+                    } else {
+                        and(where, "(p.patientId LIKE :idTerm OR p.mrn LIKE :mrnTerm OR p.phoneNumberHash = :term)");
+                        params.put("term", term.phoneHash());
+                    }
+                }
+                case PHONE -> {
+                    and(where, "p.phoneNumberHash = :term");
+                    params.put("term", term.value());
+                }
+                case EMAIL -> {
+                    and(where, "p.emailHash = :term");
+                    params.put("term", term.value());
+                }
+                case NAME -> {
+                    and(where, "(p.lastNameSearch LIKE :term ESCAPE '!' OR p.firstNameSearch LIKE :term ESCAPE '!')");
+                    params.put("term", likePattern(term.value()));
+                }
+            }
+        }
+
+        private static void and(StringBuilder where, String predicate) {
+            where.append(where.isEmpty() ? " WHERE " : " AND ").append(predicate);
+        }
+
+        /** Substring pattern for trigram-indexable terms, prefix pattern for shorter ones. */
+        private static String likePattern(String value) {
+            String escaped = escapeLike(value);
+            return value.length() >= MIN_SUBSTRING_LENGTH ? "%" + escaped + "%" : escaped + "%";
+        }
+
+        /** Escapes LIKE wildcards in user input (escape character '!') so they match literally. */
+        private static String escapeLike(String value) {
+            return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.ainexus.hospital.patient.repository.projection;
+
+import com.ainexus.hospital.patient.model.Gender;
+import com.ainexus.hospital.patient.model.PatientStatus;
+
+import java.time.Instant;
+import java.util.function.UnaryOperator;
+
+/**
+ * Narrow read model for the CSV export — exactly the exported columns.
+ *
+ * Selected through a JPQL constructor expression, so rows are never managed
+ * entities (nothing accumulates in the persistence context while streaming)
+ * and the photo bytea / address / emergency contact columns are never read.
+ *
+ * As returned by PatientRepository#streamExportRows the PHI fields hold
+ * ciphertext; {@link #decrypt} produces the plaintext copy.
+ */
+public record PatientExportRow(
+        String        patientId,
+        String        mrn,
+        String        firstName,
+        String        lastName,
+        String        dateOfBirth,
+        Gender        gender,
+        String        phoneNumber,
+        String        email,
+        String        city,
+        String        state,
+        String        zipCode,
+        String        bloodGroup,
+        String        knownAllergies,
+        String        chronicConditions,
+        PatientStatus status,
+        Instant       registeredAt
+) {
+
+    /** Plaintext copy of this row — PHI fields run through {@code phi} (AES-GCM decrypt). */
+    public PatientExportRow decrypt(UnaryOperator<String> phi) {
+        return new PatientExportRow(patientId, mrn,
+                phi.apply(firstName), phi.apply(lastName), phi.apply(dateOfBirth), gender,
+                phi.apply(phoneNumber), phi.apply(email), city, state, zipCode, bloodGroup,
+                phi.apply(knownAllergies), phi.apply(chronicConditions), status, registeredAt);
+    }
+}
@@ -0,0 +1,10 @@
+package com.ainexus.hospital.patient.repository.projection;
+
+/**
+ * A patient's decrypted phone number, for batch SMS dispatch. PHI — never log.
+ */
+public record PatientPhoneRow(
+        String patientId,
+        String phoneNumber
+) {
+}
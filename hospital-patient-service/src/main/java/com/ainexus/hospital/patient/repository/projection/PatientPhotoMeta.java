@@ -0,0 +1,12 @@
+package com.ainexus.hospital.patient.repository.projection;
+
+/**
+ * Photo headers without the bytes — enough to answer a conditional or
+ * ranged GET before anything is read from {@code patient_photos.data}.
+ */
+public record PatientPhotoMeta(
+        String  contentHash,
+        String  contentType,
+        Integer sizeBytes
+) {
+}
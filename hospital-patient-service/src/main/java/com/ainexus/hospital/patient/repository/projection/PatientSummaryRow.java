@@ -0,0 +1,36 @@
+package com.ainexus.hospital.patient.repository.projection;
+
+import com.ainexus.hospital.patient.model.Gender;
+import com.ainexus.hospital.patient.model.PatientStatus;
+
+/**
+ * Narrow read model for search / list results — the PatientSummaryResponse
+ * columns plus the keyset sort key.
+ *
+ * Selected from Patient through a JPQL constructor expression, so Hibernate
+ * runs AesEncryptionConverter only on the four PHI columns listed here
+ * (names, date of birth, phone). The photo bytea, address, email, emergency
+ * contact and clinical notes are never read, and rows are never managed
+ * entities.
+ */
+public record PatientSummaryRow(
+        Long          id,
+        String        patientId,
+        String        mrn,
+        String        firstName,
+        String        lastName,
+        String        dateOfBirth,
+        Gender        gender,
+        String        phoneNumber,
+        PatientStatus status,
+        String        lastNameSearch,
+        String        firstNameSearch
+) {
+
+    /** JPQL select list matching the canonical constructor (alias {@code p}). */
+    public static final String SELECT = """
+        SELECT new com.ainexus.hospital.patient.repository.projection.PatientSummaryRow(
+               p.id, p.patientId, p.mrn, p.firstName, p.lastName, p.dateOfBirth,
+               p.gender, p.phoneNumber, p.status, p.lastNameSearch, p.firstNameSearch)
+        """;
+}
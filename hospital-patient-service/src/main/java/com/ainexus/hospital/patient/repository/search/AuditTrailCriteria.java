@@ -0,0 +1,13 @@
+package com.ainexus.hospital.patient.repository.search;
+
+import com.ainexus.hospital.patient.audit.AuditAction;
+
+import java.time.Instant;
+
+/**
+ * Filters for one patient's audit trail. Null fields are not applied;
+ * {@code from} is inclusive and {@code to} exclusive.
+ */
+public record AuditTrailCriteria(String patientId, AuditAction action, String userId,
+                                 Instant from, Instant to) {
+}
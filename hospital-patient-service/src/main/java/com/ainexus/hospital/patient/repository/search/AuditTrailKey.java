@@ -0,0 +1,17 @@
+package com.ainexus.hospital.patient.repository.search;
+
+import com.ainexus.hospital.patient.model.AuditLog;
+
+import java.time.Instant;
+
+/**
+ * Keyset position in an audit trail: the (occurredAt, id) of the last entry
+ * returned. The trail is ordered newest first by (occurredAt, id); id breaks
+ * ties between entries written in the same microsecond.
+ */
+public record AuditTrailKey(Instant occurredAt, long id) {
+
+    public static AuditTrailKey of(AuditLog entry) {
+        return new AuditTrailKey(entry.getOccurredAt(), entry.getId());
+    }
+}
@@ -0,0 +1,18 @@
+package com.ainexus.hospital.patient.repository.search;
+
+import com.ainexus.hospital.patient.repository.projection.PatientSummaryRow;
+
+/**
+ * Keyset position in the patient list: the sort key of the last row returned.
+ * The list is ordered by (lastNameSearch, firstNameSearch, id); id breaks ties
+ * so the order is total and stable across requests.
+ */
+public record PatientScrollKey(String lastNameSearch, String firstNameSearch, long id) {
+
+    public static PatientScrollKey of(PatientSummaryRow row) {
+        return new PatientScrollKey(
+                row.lastNameSearch() != null ? row.lastNameSearch() : "",
+                row.firstNameSearch() != null ? row.firstNameSearch() : "",
+                row.id());
+    }
+}
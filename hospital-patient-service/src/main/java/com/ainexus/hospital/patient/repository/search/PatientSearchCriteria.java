@@ -0,0 +1,29 @@
+package com.ainexus.hospital.patient.repository.search;
+
+import com.ainexus.hospital.patient.model.Gender;
+import com.ainexus.hospital.patient.model.PatientStatus;
+import lombok.Builder;
+
+/**
+ * Planned patient search: the classified free-text term plus the structured
+ * filters from the search / export endpoints. Null (or blank) filters are
+ * omitted from the generated query rather than bound as "IS NULL OR ..." guards.
+ */
+@Builder
+public record PatientSearchCriteria(
+        SearchTerm term,
+        PatientStatus status,
+        Gender gender,
+        String bloodGroup,
+        String city,
+        String state,
+        Integer birthYearFrom,
+        Integer birthYearTo,
+        Boolean hasAllergies,
+        Boolean hasChronicConditions
+) {
+
+    public PatientSearchCriteria {
+        if (term == null) term = SearchTerm.NONE;
+    }
+}
@@ -0,0 +1,64 @@
+package com.ainexus.hospital.patient.repository.search;
+
+/**
+ * A free-text search term after classification by PatientSearchPlanner.
+ *
+ * Each kind maps to exactly one index-friendly predicate in
+ * PatientSearchRepositoryImpl, so a search never has to OR together
+ * patient ID, MRN, name and hash lookups. The one exception is a bare
+ * NUMBER, which is checked against patient ID, MRN and phone, all indexed.
+ *
+ * {@code value} is already normalised for its predicate: upper-case ID/MRN
+ * fragment, digits, lower-case name token, or the HMAC hex digest for
+ * PHONE/EMAIL. {@code phoneHash} is only set for a NUMBER long enough to be a
+ * phone number.
+ */
+public record SearchTerm(Kind kind, String value, String phoneHash) {
+
+    public enum Kind {
+        /** No free-text term — only structured filters apply. */
+        NONE,
+        /** Part of a patient ID, e.g. "P2026" or "P2026001". */
+        PATIENT_ID,
+        /** Part of an MRN, e.g. "MRN2026". */
+        MRN,
+        /**
+         * Digits only, e.g. "6003" or "2026003": part of a patient ID or MRN, or,
+         * when {@code phoneHash} is set, a whole phone number.
+         */
+        NUMBER,
+        /** HMAC of the digits of a phone number — exact match. */
+        PHONE,
+        /** HMAC of a lower-cased email — exact match. */
+        EMAIL,
+        /** Part of the first or last name search token, e.g. "smi". */
+        NAME
+    }
+
+    public static final SearchTerm NONE = new SearchTerm(Kind.NONE, null, null);
+
+    public static SearchTerm patientIdFragment(String fragment) {
+        return new SearchTerm(Kind.PATIENT_ID, fragment, null);
+    }
+
+    public static SearchTerm mrnFragment(String fragment) {
+        return new SearchTerm(Kind.MRN, fragment, null);
+    }
+
+    /** {@code phoneHash} may be null when the digits are too few for a phone number. */
+    public static SearchTerm number(String digits, String phoneHash) {
+        return new SearchTerm(Kind.NUMBER, digits, phoneHash);
+    }
+
+    public static SearchTerm phoneHash(String hash) {
+        return new SearchTerm(Kind.PHONE, hash, null);
+    }
+
+    public static SearchTerm emailHash(String hash) {
+        return new SearchTerm(Kind.EMAIL, hash, null);
+    }
+
+    public static SearchTerm nameFragment(String token) {
+        return new SearchTerm(Kind.NAME, token, null);
+    }
+}
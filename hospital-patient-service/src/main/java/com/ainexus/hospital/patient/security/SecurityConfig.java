@@ -38,6 +38,8 @@ public class SecurityConfig {
                 .requestMatchers("/api/v1/auth/**").permitAll()
                 // CSV export (before generic GET patients/** to ensure correct role restriction)
                 .requestMatchers(HttpMethod.GET,    "/api/v1/patients/export").hasAnyRole("RECEPTIONIST", "ADMIN")
+                // Bulk import — ADMIN only
+                .requestMatchers(HttpMethod.POST,   "/api/v1/patients/import").hasRole("ADMIN")
                 // Audit trail — ADMIN only
                 .requestMatchers(HttpMethod.GET,    "/api/v1/patients/*/audit-trail").hasRole("ADMIN")
                 // Insurance endpoints
@@ -66,7 +68,7 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.PUT,    "/api/v1/patients/*/appointments/*").hasAnyRole("RECEPTIONIST", "DOCTOR", "NURSE", "ADMIN")
                 .requestMatchers(HttpMethod.PATCH,  "/api/v1/patients/*/appointments/*/cancel").hasAnyRole("RECEPTIONIST", "DOCTOR", "NURSE", "ADMIN")
                 // Global appointment list — RECEPTIONIST and ADMIN only
-                .requestMatchers(HttpMethod.GET,    "/api/v1/appointments").hasAnyRole("RECEPTIONIST", "ADMIN")
+                .requestMatchers(HttpMethod.GET,    "/api/v1/appointments", "/api/v1/appointments/scroll").hasAnyRole("RECEPTIONIST", "ADMIN")
                 // Patient endpoints — generic rules (after specific sub-resource rules above)
                 .requestMatchers(HttpMethod.GET,    "/api/v1/patients/**").hasAnyRole("RECEPTIONIST", "DOCTOR", "NURSE", "ADMIN")
                 .requestMatchers(HttpMethod.POST,   "/api/v1/patients").hasAnyRole("RECEPTIONIST", "ADMIN")
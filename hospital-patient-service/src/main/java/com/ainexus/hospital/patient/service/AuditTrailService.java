@@ -0,0 +1,109 @@
+package com.ainexus.hospital.patient.service;
+
+import com.ainexus.hospital.patient.dto.response.AuditLogResponse;
+import com.ainexus.hospital.patient.dto.response.CursorPageResponse;
+import com.ainexus.hospital.patient.exception.PatientNotFoundException;
+import com.ainexus.hospital.patient.model.AuditLog;
+import com.ainexus.hospital.patient.repository.AuditLogRepository;
+import com.ainexus.hospital.patient.repository.PatientRepository;
+import com.ainexus.hospital.patient.repository.search.AuditTrailCriteria;
+import com.ainexus.hospital.patient.repository.search.AuditTrailKey;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Reads a patient's audit trail newest first, as cursor pages for the UI or
+ * as an NDJSON stream for compliance pulls. Both walk the same keyset on
+ * (occurredAt, id), so neither ever holds more than one slice in memory.
+ */
+@Service
+@RequiredArgsConstructor
+public class AuditTrailService {
+
+    /** Entries fetched per query while streaming. */
+    static final int STREAM_SLICE_SIZE = 1000;
+
+    private final AuditLogRepository auditLogRepository;
+    private final PatientRepository  patientRepository;
+    private final ScrollCursorCodec  cursorCodec;
+    private final ObjectMapper       objectMapper;
+
+    /**
+     * One slice of the trail. Fetches one extra row to learn whether another
+     * slice exists; no count query.
+     */
+    public CursorPageResponse<AuditLogResponse> scrollAuditTrail(AuditTrailCriteria criteria,
+                                                                 String cursor, int size) {
+        validatePatientExists(criteria.patientId());
+        AuditTrailKey before = null;
+        if (cursor != null && !cursor.isBlank()) {
+            before = cursorCodec.decode(cursor, 2, keys -> new AuditTrailKey(
+                    Instant.parse(keys[0]), Long.parseLong(keys[1])));
+        }
+
+        List<AuditLog> rows = auditLogRepository.scrollTrail(criteria, before, size + 1);
+        boolean hasNext = rows.size() > size;
+        List<AuditLog> slice = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            AuditLog last = slice.get(slice.size() - 1);
+            nextCursor = cursorCodec.encode(last.getOccurredAt().toString(), String.valueOf(last.getId()));
+        }
+        return CursorPageResponse.<AuditLogResponse>builder()
+                .content(slice.stream().map(AuditTrailService::toResponse).toList())
+                .size(slice.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /** Checked before the response is committed, so a missing patient is still a 404. */
+    public void validatePatientExists(String patientId) {
+        if (patientRepository.findByPatientId(patientId).isEmpty()) {
+            throw new PatientNotFoundException(patientId);
+        }
+    }
+
+    /**
+     * Writes every matching entry to {@code out} as newline-delimited JSON,
+     * {@value #STREAM_SLICE_SIZE} entries per query and flushed per slice.
+     * Each slice is a separate short query — no transaction or server-side
+     * cursor is held open for the length of the download.
+     */
+    public void streamAuditTrail(AuditTrailCriteria criteria, OutputStream out) throws IOException {
+        AuditTrailKey before = null;
+        List<AuditLog> slice;
+        do {
+            slice = auditLogRepository.scrollTrail(criteria, before, STREAM_SLICE_SIZE);
+            for (AuditLog entry : slice) {
+                out.write(objectMapper.writeValueAsBytes(toResponse(entry)));
+                out.write('\n');
+            }
+            out.flush();
+            if (!slice.isEmpty()) {
+                before = AuditTrailKey.of(slice.get(slice.size() - 1));
+            }
+        } while (slice.size() == STREAM_SLICE_SIZE);
+    }
+
+    // ── Private helpers ──────────────────────────────────────────────────────
+
+    private static AuditLogResponse toResponse(AuditLog log) {
+        return AuditLogResponse.builder()
+                .id(log.getId())
+                .userId(log.getUserId())
+                .username(log.getUsername())
+                .userRole(log.getUserRole())
+                .action(log.getAction().name())
+                .patientId(log.getPatientId())
+                .ipAddress(log.getIpAddress())
+                .occurredAt(log.getOccurredAt() != null ? log.getOccurredAt().toString() : null)
+                .build();
+    }
+}
@@ -0,0 +1,156 @@
+package com.ainexus.hospital.patient.service;
+
+import com.ainexus.hospital.patient.exception.SmsDeliveryException;
+import com.ainexus.hospital.patient.service.NotificationOutbox.Claim;
+import com.ainexus.hospital.patient.service.NotificationOutbox.Entry;
+import com.ainexus.hospital.patient.sms.SmsRateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Delivers the notifications written to {@link NotificationOutbox} by the
+ * appointment services. Every node polls; claims are committed with a lease
+ * and {@code SKIP LOCKED}, so replicas share the rows instead of repeating them.
+ *
+ * Each claimed batch fans out over {@code notificationExecutor}. Per row:
+ * <ol>
+ *   <li>the in-app notification is inserted in the same transaction as the row
+ *       moving to NOTIFIED, so a retry never writes it twice,</li>
+ *   <li>the SMS waits for {@link SmsRateLimiter}, the lease is renewed (the
+ *       send is skipped if another node took the row meanwhile), the SMS is
+ *       sent and the row marked DONE.</li>
+ * </ol>
+ * A failure, including an {@link SmsDeliveryException} from the provider,
+ * releases the row with an exponential backoff; after {@code max-attempts} it
+ * is marked FAILED. Delivery is at-least-once: an SMS repeats if a node dies
+ * between the provider call and marking DONE, or if the provider call itself
+ * outlasts {@code claim-lease-seconds}.
+ *
+ * Pool activity is published by Spring Boot as {@code executor.*} metrics
+ * (tag {@code name=notificationExecutor}); outcomes are counted as
+ * {@code notifications.outbox.*}.
+ */
+@Slf4j
+@Service
+public class NotificationDispatcher {
+
+    private final NotificationService    notificationService;
+    private final NotificationOutbox     outbox;
+    private final SmsRateLimiter         smsRateLimiter;
+    private final ThreadPoolTaskExecutor executor;
+    private final TransactionTemplate    txTemplate;
+    private final int                    batchSize;
+    private final int                    retentionDays;
+
+    private final Counter delivered;
+    private final Counter retried;
+
+    public NotificationDispatcher(NotificationService notificationService,
+                                  NotificationOutbox outbox,
+                                  SmsRateLimiter smsRateLimiter,
+                                  @Qualifier("notificationExecutor") ThreadPoolTaskExecutor executor,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.notifications.batch-size:100}") int batchSize,
+                                  @Value("${app.notifications.retention-days:30}") int retentionDays) {
+        this.notificationService = notificationService;
+        this.outbox              = outbox;
+        this.smsRateLimiter      = smsRateLimiter;
+        this.executor            = executor;
+        this.txTemplate          = new TransactionTemplate(transactionManager);
+        this.batchSize           = batchSize;
+        this.retentionDays       = retentionDays;
+
+        this.delivered = Counter.builder("notifications.outbox.delivered")
+                .description("Outbox notifications delivered (in-app written, SMS sent or not needed)")
+                .register(meterRegistry);
+        this.retried = Counter.builder("notifications.outbox.retried")
+                .description("Outbox delivery attempts that failed and were released for retry")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Claims at most one batch of due rows per run and waits for it to be
+     * delivered. Runs on {@code notificationScheduler}, not the shared scheduler.
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.poll-interval-ms:1000}",
+               scheduler = "notificationScheduler")
+    public void pollOutbox() {
+        List<Claim> claims = outbox.claim(batchSize);
+        CompletableFuture<?>[] deliveries = claims.stream()
+                .map(claim -> CompletableFuture.runAsync(() -> deliver(claim), executor))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(deliveries).join();
+    }
+
+    /** Runs daily at 03:00 UTC. Delivered rows only serve deduplication until then. */
+    @Scheduled(cron = "0 0 3 * * *", zone = "UTC")
+    public void purgeDelivered() {
+        int purged = outbox.purge(retentionDays);
+        if (purged > 0) {
+            log.info("Purged {} delivered notifications older than {} days", purged, retentionDays);
+        }
+    }
+
+    // ── Private helpers ──────────────────────────────────────────────────────
+
+    private void deliver(Claim claim) {
+        Entry entry = claim.entry();
+        try {
+            if (!claim.notified()) {
+                txTemplate.executeWithoutResult(status -> {
+                    notificationService.createInApp(entry.patientId(), entry.type(), entry.title(),
+                            entry.inAppMessage(), entry.appointmentId());
+                    if (!outbox.markNotified(claim.id())) {
+                        // Lease expired and another node took the row — roll back our copy
+                        throw new IllegalStateException("Outbox claim lost for row " + claim.id());
+                    }
+                });
+            }
+            if (entry.smsMessage() != null) {
+                smsRateLimiter.acquire();
+                if (!outbox.renew(claim.id())) {
+                    // Lease expired while waiting for a permit; the node now holding the row sends it
+                    log.warn("Outbox claim lost before sending SMS outboxId={} key={}", claim.id(), entry.dedupKey());
+                    return;
+                }
+                notificationService.deliverSms(entry.patientId(), entry.smsMessage());
+            }
+            if (outbox.complete(claim.id())) {
+                delivered.increment();
+            } else {
+                // Lease expired mid-delivery; the node now holding the row delivers and counts it
+                log.warn("Outbox claim lost before completion outboxId={} key={}", claim.id(), entry.dedupKey());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            release(claim, "interrupted");
+        } catch (RuntimeException e) {
+            // Non-PHI identifiers only
+            log.warn("Notification delivery failed outboxId={} key={} attempt={} error={}",
+                    claim.id(), entry.dedupKey(), claim.attempts(), e.getMessage());
+            release(claim, e.getMessage());
+        }
+    }
+
+    private void release(Claim claim, String error) {
+        retried.increment();
+        try {
+            outbox.retry(claim, error);
+        } catch (RuntimeException e) {
+            // The lease expiry hands the row out again
+            log.error("Could not release outbox row {}: {}", claim.id(), e.getMessage());
+        }
+    }
+}
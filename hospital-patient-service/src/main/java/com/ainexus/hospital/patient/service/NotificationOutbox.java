@@ -0,0 +1,196 @@
+package com.ainexus.hospital.patient.service;
+
+import com.ainexus.hospital.patient.model.NotificationType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * notification_outbox access (V30, V31), delivered by {@link NotificationDispatcher}.
+ *
+ * {@link #add} belongs in the transaction of the change being notified about.
+ * {@link #claim} is a single statement; call it outside a transaction so the
+ * claim and its lease commit at once, like {@link ReminderDispatchLedger#claim}.
+ * {@link #markNotified} belongs in the transaction that writes the in-app
+ * notification. Updates after a claim only apply while this node still holds it.
+ */
+@Slf4j
+@Component
+public class NotificationOutbox {
+
+    public enum Status { PENDING, NOTIFIED, DONE, FAILED }
+
+    /**
+     * A rendered notification: {@code inAppMessage} is passed to
+     * {@link NotificationService#createInApp}, {@code smsMessage} (if any) to
+     * {@link NotificationService#deliverSms}. {@code dedupKey} names the
+     * business event; a second entry with the same key is ignored.
+     */
+    public record Entry(String dedupKey, String patientId, NotificationType type, String title,
+                        String inAppMessage, String smsMessage, Long appointmentId) {}
+
+    /** A claimed row; {@code notified} means its in-app notification already exists. */
+    public record Claim(long id, Entry entry, boolean notified, int attempts) {}
+
+    private static final String INSERT_SQL = """
+        INSERT INTO notification_outbox
+            (dedup_key, patient_id, type, title, in_app_message, sms_message, appointment_id)
+        VALUES (?, ?, ?, ?, ?, ?, ?)
+        ON CONFLICT (dedup_key) DO NOTHING
+        """;
+
+    private static final String EXHAUST_SQL = """
+        UPDATE notification_outbox
+        SET status = 'FAILED', completed_at = NOW(), last_error = COALESCE(last_error, 'claim lease expired')
+        WHERE status IN ('PENDING', 'NOTIFIED')
+          AND claimed_at < NOW() - make_interval(secs => ?)
+          AND attempts >= ?
+        """;
+
+    private static final String CLAIM_SQL = """
+        WITH claimable AS (
+            SELECT id
+            FROM notification_outbox
+            WHERE status IN ('PENDING', 'NOTIFIED')
+              AND next_attempt_at <= NOW()
+              AND (claimed_at IS NULL OR claimed_at < NOW() - make_interval(secs => ?))
+              AND attempts < ?
+            ORDER BY next_attempt_at, id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+        )
+        UPDATE notification_outbox o
+        SET attempts   = o.attempts + 1,
+            claimed_by = ?,
+            claimed_at = NOW()
+        FROM claimable c
+        WHERE o.id = c.id
+        RETURNING o.id, o.dedup_key, o.patient_id, o.type, o.title, o.in_app_message, o.sms_message,
+                  o.appointment_id, o.status, o.attempts
+        """;
+
+    private static final String MARK_NOTIFIED_SQL = """
+        UPDATE notification_outbox SET status = 'NOTIFIED'
+        WHERE id = ? AND claimed_by = ?
+        """;
+
+    private static final String RENEW_SQL = """
+        UPDATE notification_outbox SET claimed_at = NOW()
+        WHERE id = ? AND claimed_by = ? AND status IN ('PENDING', 'NOTIFIED')
+        """;
+
+    private static final String COMPLETE_SQL = """
+        UPDATE notification_outbox
+        SET status = 'DONE', completed_at = NOW(), claimed_at = NULL, last_error = NULL
+        WHERE id = ? AND claimed_by = ?
+        """;
+
+    private static final String RETRY_SQL = """
+        UPDATE notification_outbox
+        SET status          = CASE WHEN attempts >= ? THEN 'FAILED' ELSE status END,
+            completed_at    = CASE WHEN attempts >= ? THEN NOW() END,
+            next_attempt_at = NOW() + make_interval(secs => ?),
+            claimed_at      = NULL,
+            last_error      = ?
+        WHERE id = ? AND claimed_by = ?
+        """;
+
+    private static final String PURGE_SQL = """
+        DELETE FROM notification_outbox
+        WHERE status = 'DONE' AND completed_at < NOW() - make_interval(days => ?)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String       nodeId;
+    private final int          leaseSeconds;
+    private final int          maxAttempts;
+    private final int          backoffSeconds;
+
+    public NotificationOutbox(JdbcTemplate jdbcTemplate,
+                              @Value("${app.instance-id:}") String instanceId,
+                              @Value("${app.notifications.claim-lease-seconds:300}") int leaseSeconds,
+                              @Value("${app.notifications.max-attempts:8}") int maxAttempts,
+                              @Value("${app.notifications.retry-backoff-seconds:30}") int backoffSeconds) {
+        this.jdbcTemplate   = jdbcTemplate;
+        // RuntimeMXBean name is "pid@hostname" — unique per running JVM
+        this.nodeId         = instanceId.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : instanceId;
+        this.leaseSeconds   = leaseSeconds;
+        this.maxAttempts    = maxAttempts;
+        this.backoffSeconds = backoffSeconds;
+    }
+
+    /** Enqueues {@code entry} unless its dedup key is already present; true if inserted. */
+    public boolean add(Entry entry) {
+        return jdbcTemplate.update(INSERT_SQL, ps -> {
+            ps.setString(1, entry.dedupKey());
+            ps.setString(2, entry.patientId());
+            ps.setString(3, entry.type().name());
+            ps.setString(4, entry.title());
+            ps.setString(5, entry.inAppMessage());
+            ps.setString(6, entry.smsMessage());
+            if (entry.appointmentId() != null) {
+                ps.setLong(7, entry.appointmentId());
+            } else {
+                ps.setNull(7, Types.BIGINT);
+            }
+        }) > 0;
+    }
+
+    /**
+     * Claims up to {@code limit} due rows for this node, after retiring rows
+     * whose lease expired on their last allowed attempt.
+     */
+    public List<Claim> claim(int limit) {
+        int exhausted = jdbcTemplate.update(EXHAUST_SQL, leaseSeconds, maxAttempts);
+        if (exhausted > 0) {
+            log.warn("Notification outbox: {} notifications abandoned after {} attempts", exhausted, maxAttempts);
+        }
+        return jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> new Claim(
+                        rs.getLong(1),
+                        new Entry(rs.getString(2), rs.getString(3),
+                                NotificationType.valueOf(rs.getString(4)),
+                                rs.getString(5), rs.getString(6), rs.getString(7),
+                                rs.getObject(8, Long.class)),
+                        Status.NOTIFIED.name().equals(rs.getString(9)),
+                        rs.getInt(10)),
+                leaseSeconds, maxAttempts, limit, nodeId);
+    }
+
+    /** Records that the in-app notification exists; false if the claim was lost. */
+    public boolean markNotified(long id) {
+        return jdbcTemplate.update(MARK_NOTIFIED_SQL, id, nodeId) > 0;
+    }
+
+    /**
+     * Restarts the lease before a slow step such as the SMS send, which may
+     * have waited on the rate limiter; false if the claim was lost meanwhile.
+     */
+    public boolean renew(long id) {
+        return jdbcTemplate.update(RENEW_SQL, id, nodeId) > 0;
+    }
+
+    /** Marks the row DONE; false if the claim was lost. */
+    public boolean complete(long id) {
+        return jdbcTemplate.update(COMPLETE_SQL, id, nodeId) > 0;
+    }
+
+    /**
+     * Releases the claim after a failed attempt. The row is retried after an
+     * exponential backoff, or marked FAILED once {@code attempts} reaches
+     * {@code max-attempts}.
+     */
+    public void retry(Claim claim, String error) {
+        long delay = Math.min((long) backoffSeconds << Math.min(claim.attempts() - 1, 16), 3600L);
+        jdbcTemplate.update(RETRY_SQL, maxAttempts, maxAttempts, delay, error, claim.id(), nodeId);
+    }
+
+    /** Deletes delivered rows older than {@code retentionDays}; their dedup keys stop applying. */
+    public int purge(int retentionDays) {
+        return jdbcTemplate.update(PURGE_SQL, retentionDays);
+    }
+}
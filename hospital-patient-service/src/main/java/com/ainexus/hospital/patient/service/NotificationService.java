@@ -1,5 +1,6 @@
 package com.ainexus.hospital.patient.service;
 
+import com.ainexus.hospital.patient.exception.SmsDeliveryException;
 import com.ainexus.hospital.patient.model.PatientNotification;
 import com.ainexus.hospital.patient.model.NotificationType;
 import com.ainexus.hospital.patient.repository.PatientNotificationRepository;
@@ -11,6 +12,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.List;
 
 @Slf4j
 @Service
@@ -39,23 +41,43 @@ public class NotificationService {
         log.info("In-app notification created patientId={} type={}", patientId, type);
     }
 
+    /**
+     * Create many in-app notifications with one JDBC batch (reminder dispatch).
+     * Ids come from the pooled sequence, so Hibernate batches the inserts at flush.
+     */
+    @Transactional
+    public void createInAppBatch(List<PatientNotification> notifications) {
+        notificationRepository.saveAll(notifications);
+        log.info("In-app notifications created count={}", notifications.size());
+    }
+
     /**
      * Send an SMS to the patient — decrypts phone from DB at runtime.
      * Fire-and-forget: never throws.
      */
     public void sendSms(String patientId, String messageText) {
         try {
-            patientRepository.findByPatientId(patientId).ifPresent(patient -> {
-                String phone = patient.getPhoneNumber(); // AES decrypted at runtime
-                if (phone != null && !phone.isBlank()) {
-                    smsProvider.send(patientId, phone, messageText);
-                }
-            });
+            deliverSms(patientId, messageText);
         } catch (Exception ex) {
             log.error("SMS send failed patientId={} error={}", patientId, ex.getMessage());
         }
     }
 
+    /**
+     * Like {@link #sendSms} but for callers that retry (outbox delivery): a
+     * rejected or failed send throws. Patients without a phone number are skipped.
+     *
+     * @throws SmsDeliveryException if the provider did not accept the message
+     */
+    public void deliverSms(String patientId, String messageText) {
+        patientRepository.findByPatientId(patientId).ifPresent(patient -> {
+            String phone = patient.getPhoneNumber(); // AES decrypted at runtime
+            if (phone != null && !phone.isBlank()) {
+                smsProvider.send(patientId, phone, messageText);
+            }
+        });
+    }
+
     /**
      * Convenience method: create in-app notification AND send SMS in one call.
      */
@@ -1,5 +1,7 @@
 package com.ainexus.hospital.patient.service;
 
+import com.ainexus.hospital.patient.audit.AuditAction;
+import com.ainexus.hospital.patient.audit.Audited;
 import com.ainexus.hospital.patient.dto.request.PatientAllergyRequest;
 import com.ainexus.hospital.patient.dto.response.PatientAllergyResponse;
 import com.ainexus.hospital.patient.exception.PatientNotFoundException;
@@ -46,6 +48,7 @@ public class PatientAllergyService {
         return allergyRepository.existsByPatientIdAndSeverityInAndIsActiveTrue(patientId, CRITICAL_SEVERITIES);
     }
 
+    @Audited(action = AuditAction.ALLERGY_ADD)
     public PatientAllergyResponse addAllergy(String patientId, PatientAllergyRequest request) {
         validatePatientExists(patientId);
 
@@ -68,6 +71,7 @@ public class PatientAllergyService {
         return toResponse(saved);
     }
 
+    @Audited(action = AuditAction.ALLERGY_UPDATE)
     public PatientAllergyResponse updateAllergy(String patientId, Long allergyId, PatientAllergyRequest request) {
         PatientAllergy allergy = allergyRepository.findByIdAndPatientId(allergyId, patientId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Allergy record not found"));
@@ -91,6 +95,7 @@ public class PatientAllergyService {
         return toResponse(saved);
     }
 
+    @Audited(action = AuditAction.ALLERGY_REMOVE)
     public void deactivateAllergy(String patientId, Long allergyId) {
         PatientAllergy allergy = allergyRepository.findByIdAndPatientId(allergyId, patientId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Allergy record not found"));
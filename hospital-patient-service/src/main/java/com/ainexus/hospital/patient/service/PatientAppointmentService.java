@@ -1,8 +1,11 @@
 package com.ainexus.hospital.patient.service;
 
+import com.ainexus.hospital.patient.audit.AuditAction;
+import com.ainexus.hospital.patient.audit.Audited;
 import com.ainexus.hospital.patient.dto.request.AppointmentRequest;
 import com.ainexus.hospital.patient.dto.request.AppointmentUpdateRequest;
 import com.ainexus.hospital.patient.dto.response.AppointmentResponse;
+import com.ainexus.hospital.patient.dto.response.CursorPageResponse;
 import com.ainexus.hospital.patient.event.AppointmentBookedEvent;
 import com.ainexus.hospital.patient.event.AppointmentCancelledEvent;
 import com.ainexus.hospital.patient.event.AppointmentStatusChangedEvent;
@@ -15,6 +18,7 @@ import com.ainexus.hospital.patient.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -38,6 +42,7 @@ public class PatientAppointmentService {
     private final PatientAppointmentRepository appointmentRepository;
     private final PatientRepository patientRepository;
     private final ApplicationEventPublisher eventPublisher;
+    private final ScrollCursorCodec cursorCodec;
 
     @Transactional(readOnly = true)
     public List<AppointmentResponse> getAppointments(String patientId) {
@@ -64,6 +69,7 @@ public class PatientAppointmentService {
                 .stream().map(this::toResponse).toList();
     }
 
+    @Audited(action = AuditAction.APPOINTMENT_SCHEDULE)
     public AppointmentResponse bookAppointment(String patientId, AppointmentRequest request) {
         validatePatientExists(patientId);
 
@@ -98,6 +104,7 @@ public class PatientAppointmentService {
         return toResponse(saved);
     }
 
+    @Audited(action = AuditAction.APPOINTMENT_UPDATE)
     public AppointmentResponse updateAppointment(String patientId, Long appointmentId, AppointmentUpdateRequest request) {
         PatientAppointment appt = appointmentRepository.findByIdAndPatientId(appointmentId, patientId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Appointment not found"));
@@ -140,6 +147,7 @@ public class PatientAppointmentService {
         return toResponse(saved);
     }
 
+    @Audited(action = AuditAction.APPOINTMENT_CANCEL)
     public AppointmentResponse cancelAppointment(String patientId, Long appointmentId) {
         PatientAppointment appt = appointmentRepository.findByIdAndPatientId(appointmentId, patientId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Appointment not found"));
@@ -170,8 +178,45 @@ public class PatientAppointmentService {
                 .map(this::toResponse);
     }
 
+    /**
+     * Keyset-paginated global list (same filters and order as {@link #getAllAppointments}).
+     * Fetches one extra row to learn whether another slice exists; no count query.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<AppointmentResponse> scrollAllAppointments(String patientId, AppointmentStatus status,
+                                                                         LocalDate fromDate, LocalDate toDate,
+                                                                         String cursor, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<PatientAppointment> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = appointmentRepository.scrollFiltered(patientId, status, fromDate, toDate, limit);
+        } else {
+            AppointmentScrollKey after = cursorCodec.decode(cursor, 3, keys -> new AppointmentScrollKey(
+                    LocalDate.parse(keys[0]), LocalTime.parse(keys[1]), Long.parseLong(keys[2])));
+            rows = appointmentRepository.scrollFilteredAfter(patientId, status, fromDate, toDate,
+                    after.date(), after.time(), after.id(), limit);
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<PatientAppointment> slice = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            PatientAppointment last = slice.get(slice.size() - 1);
+            nextCursor = cursorCodec.encode(last.getAppointmentDate().toString(),
+                    last.getAppointmentTime().toString(), String.valueOf(last.getId()));
+        }
+        return CursorPageResponse.<AppointmentResponse>builder()
+                .content(slice.stream().map(this::toResponse).toList())
+                .size(slice.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
     // ── Private helpers ───────────────────────────────────────────────────────
 
+    private record AppointmentScrollKey(LocalDate date, LocalTime time, long id) {}
+
     private void validatePatientExists(String patientId) {
         if (!patientRepository.findByPatientId(patientId).isPresent()) {
             throw new PatientNotFoundException(patientId);
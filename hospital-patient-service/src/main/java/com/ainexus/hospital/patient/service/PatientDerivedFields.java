@@ -0,0 +1,49 @@
+package com.ainexus.hospital.patient.service;
+
+import com.ainexus.hospital.patient.model.Patient;
+import org.springframework.util.StringUtils;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * Search and filter columns derived from a patient's plaintext fields. Shared
+ * by registration, update and bulk import so the three write the same values;
+ * import calls it before encrypting PHI.
+ */
+final class PatientDerivedFields {
+
+    private PatientDerivedFields() {}
+
+    static void populateSearchIndex(Patient patient, SearchIndexService searchIndexService,
+                                    String firstName, String lastName, String phone, String email) {
+        patient.setFirstNameSearch(searchIndexService.nameSearchToken(firstName));
+        patient.setLastNameSearch(searchIndexService.nameSearchToken(lastName));
+        patient.setPhoneNumberHash(searchIndexService.hashPhone(phone));
+        patient.setEmailHash(searchIndexService.hashEmail(email));
+        // Soundex phonetic codes for duplicate detection (v2.0.0 REQ-8)
+        patient.setFirstNameSoundex(searchIndexService.soundex(firstName));
+        patient.setLastNameSoundex(searchIndexService.soundex(lastName));
+    }
+
+    static void populateDerivedFields(Patient patient, String dateOfBirth,
+                                      String knownAllergies, String chronicConditions) {
+        patient.setBirthYear(birthYear(dateOfBirth));
+        patient.setHasAllergies(StringUtils.hasText(knownAllergies));
+        patient.setHasChronicConditions(StringUtils.hasText(chronicConditions));
+    }
+
+    /**
+     * Year of an ISO date of birth, or null if there is none. Validation only
+     * checks the YYYY-MM-DD shape, so an impossible date such as 2023-02-30 is
+     * stored without a birth year rather than failing the write.
+     */
+    static Integer birthYear(String dateOfBirth) {
+        if (!StringUtils.hasText(dateOfBirth)) return null;
+        try {
+            return LocalDate.parse(dateOfBirth).getYear();
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+}
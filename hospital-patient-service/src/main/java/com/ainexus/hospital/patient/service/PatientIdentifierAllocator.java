@@ -0,0 +1,79 @@
+package com.ainexus.hospital.patient.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Year;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Allocates the Patient ID, format P{year}{seq} (e.g. P2026001), and the Medical
+ * Record Number, format MRN{year}{seq} (e.g. MRN2026001), for a new patient.
+ * Both use the same number from patient_identifier_seq (V27 migration). The
+ * sequence is shared across years; the year prefix provides human-readable context.
+ *
+ * One nextval reserves a block of INCREMENT BY values (50), which are handed out
+ * from memory with a compare-and-set. Only the caller that exhausts a block goes
+ * to the database, on the connection of its own transaction — nextval is never
+ * rolled back, so no separate transaction is needed. Numbers are unique across
+ * instances but not gap-free: the rest of a block is skipped when an instance stops.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PatientIdentifierAllocator {
+
+    public record PatientIdentifiers(String patientId, String mrn) {}
+
+    private static final String NEXT_BLOCK_SQL = """
+        SELECT nextval('patient_identifier_seq'), s.increment_by
+        FROM pg_sequences s
+        WHERE s.schemaname = current_schema() AND s.sequencename = 'patient_identifier_seq'
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final AtomicReference<Block> current = new AtomicReference<>(Block.EMPTY);
+
+    public PatientIdentifiers allocate() {
+        while (true) {
+            Block block = current.get();
+            long value = block.next.getAndIncrement();
+            if (value <= block.last) {
+                int year = Year.now().getValue();
+                return new PatientIdentifiers(
+                        String.format("P%d%03d", year, value),
+                        String.format("MRN%d%03d", year, value));
+            }
+            refill(block);
+        }
+    }
+
+    // ── Private helpers ──────────────────────────────────────────────────────
+
+    /** Replaces {@code exhausted} unless another caller already has. */
+    private synchronized void refill(Block exhausted) {
+        if (current.get() != exhausted) {
+            return;
+        }
+        Block block = jdbcTemplate.queryForObject(NEXT_BLOCK_SQL,
+                (rs, rowNum) -> new Block(rs.getLong(1), rs.getLong(1) + rs.getLong(2) - 1));
+        log.debug("Reserved patient identifier block {}..{}", block.next.get(), block.last);
+        current.set(block);
+    }
+
+    private static final class Block {
+        static final Block EMPTY = new Block(1, 0);
+
+        final AtomicLong next;
+        final long       last;
+
+        Block(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+    }
+}
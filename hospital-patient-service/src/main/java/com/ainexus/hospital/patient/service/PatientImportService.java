@@ -0,0 +1,529 @@
+package com.ainexus.hospital.patient.service;
+
+import com.ainexus.hospital.patient.audit.AuditAction;
+import com.ainexus.hospital.patient.audit.AuditWriter;
+import com.ainexus.hospital.patient.config.AesEncryptionConverter;
+import com.ainexus.hospital.patient.dto.request.PatientCreateRequest;
+import com.ainexus.hospital.patient.dto.response.PatientImportResponse;
+import com.ainexus.hospital.patient.dto.response.PatientImportResponse.RowError;
+import com.ainexus.hospital.patient.mapper.PatientMapper;
+import com.ainexus.hospital.patient.model.AuditLog;
+import com.ainexus.hospital.patient.model.Gender;
+import com.ainexus.hospital.patient.model.Patient;
+import com.ainexus.hospital.patient.model.PatientStatus;
+import com.ainexus.hospital.patient.repository.PatientRepository;
+import com.ainexus.hospital.patient.security.UserPrincipal;
+import com.ainexus.hospital.patient.service.PatientIdentifierAllocator.PatientIdentifiers;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk patient registration from a streamed CSV or NDJSON upload, for migrating
+ * records from another system. Each row is a {@link PatientCreateRequest} and
+ * gets the same validation, search fields and encryption as POST /patients.
+ *
+ * The upload is read on the request thread. Parsing, validation, search-field
+ * derivation and encryption run in parallel on {@link PhiDecryptionPipeline},
+ * which hands prepared rows back in file order. Identifiers are then allocated
+ * in file order, and rows are inserted in JDBC batches of
+ * {@code app.import.batch-size}. Each batch commits in its own transaction
+ * together with its CREATE audit entries, so memory and open work stay bounded
+ * whatever the file size.
+ *
+ * A rejected row is reported with its line number and does not stop the import.
+ * If the database rejects a batch, its rows are retried one at a time so only
+ * the offending rows are lost. The import is not atomic: rows in batches that
+ * committed stay registered even if a later batch fails. The duplicate-phone
+ * check of single registration is skipped; it only ever warned.
+ */
+@Slf4j
+@Service
+public class PatientImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    /** CSV columns by normalised header (lowercase, letters and digits only). */
+    private static final Map<String, BiConsumer<PatientCreateRequest, String>> CSV_COLUMNS = Map.ofEntries(
+            Map.entry("firstname",                    PatientCreateRequest::setFirstName),
+            Map.entry("lastname",                     PatientCreateRequest::setLastName),
+            Map.entry("dateofbirth",                  PatientCreateRequest::setDateOfBirth),
+            Map.entry("gender",                       PatientImportService::setGender),
+            Map.entry("phonenumber",                  PatientCreateRequest::setPhoneNumber),
+            Map.entry("email",                        PatientCreateRequest::setEmail),
+            Map.entry("address",                      PatientCreateRequest::setAddress),
+            Map.entry("city",                         PatientCreateRequest::setCity),
+            Map.entry("state",                        PatientCreateRequest::setState),
+            Map.entry("zipcode",                      PatientCreateRequest::setZipCode),
+            Map.entry("emergencycontactname",         PatientCreateRequest::setEmergencyContactName),
+            Map.entry("emergencycontactphone",        PatientCreateRequest::setEmergencyContactPhone),
+            Map.entry("emergencycontactrelationship", PatientCreateRequest::setEmergencyContactRelationship),
+            Map.entry("bloodgroup",                   PatientCreateRequest::setBloodGroup),
+            Map.entry("knownallergies",               PatientCreateRequest::setKnownAllergies),
+            Map.entry("chronicconditions",            PatientCreateRequest::setChronicConditions));
+
+    private final PatientRepository          patientRepository;
+    private final PatientIdentifierAllocator identifierAllocator;
+    private final PatientMapper              patientMapper;
+    private final SearchIndexService         searchIndexService;
+    private final AesEncryptionConverter     encryptionConverter;
+    private final PhiDecryptionPipeline      pipeline;
+    private final AuditWriter                auditWriter;
+    private final Validator                  validator;
+    private final ObjectMapper               objectMapper;
+    private final TransactionTemplate        txTemplate;
+    private final int                        batchSize;
+    private final int                        maxReportedErrors;
+
+    public PatientImportService(PatientRepository patientRepository,
+                                PatientIdentifierAllocator identifierAllocator,
+                                PatientMapper patientMapper,
+                                SearchIndexService searchIndexService,
+                                AesEncryptionConverter encryptionConverter,
+                                PhiDecryptionPipeline pipeline,
+                                AuditWriter auditWriter,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.import.batch-size:500}") int batchSize,
+                                @Value("${app.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.patientRepository   = patientRepository;
+        this.identifierAllocator = identifierAllocator;
+        this.patientMapper       = patientMapper;
+        this.searchIndexService  = searchIndexService;
+        this.encryptionConverter = encryptionConverter;
+        this.pipeline            = pipeline;
+        this.auditWriter         = auditWriter;
+        this.validator           = validator;
+        this.objectMapper        = objectMapper;
+        this.txTemplate          = new TransactionTemplate(transactionManager);
+        this.batchSize           = batchSize;
+        this.maxReportedErrors   = maxReportedErrors;
+    }
+
+    /**
+     * Imports every row of {@code body}. A CSV upload starts with a header row
+     * naming PatientCreateRequest fields in any order (e.g. {@code firstName} or
+     * {@code first_name}); NDJSON has one PatientCreateRequest object per line.
+     */
+    public PatientImportResponse importPatients(Reader body, Format format) {
+        long started = System.nanoTime();
+        Importer importer = new Importer(currentUser(), currentIpAddress());
+
+        RecordReader records = new RecordReader(body, format == Format.CSV);
+        if (format == Format.CSV && !records.hasNext()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV upload is empty; a header row is required");
+        }
+        RowParser parser = format == Format.CSV ? csvParser(header(records.next())) : this::parseJson;
+
+        pipeline.process(records, record -> prepare(record, parser), importer::accept);
+        importer.flush();
+
+        long elapsedMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        long rowsPerSecond = importer.received * 1000 / elapsedMs;
+        log.info("Patient import finished format={} received={} imported={} failed={} in {} ms ({} rows/s) userId={}",
+                format, importer.received, importer.imported, importer.failed, elapsedMs, rowsPerSecond,
+                importer.user.getUserId());
+
+        return PatientImportResponse.builder()
+                .received(importer.received)
+                .imported(importer.imported)
+                .failed(importer.failed)
+                .errors(importer.errors)
+                .errorsTruncated(importer.failed > importer.errors.size())
+                .elapsedMs(elapsedMs)
+                .rowsPerSecond(rowsPerSecond)
+                .build();
+    }
+
+    /**
+     * Parses, validates, derives search fields and encrypts one row. Runs on the
+     * pipeline workers; every failure becomes a row error.
+     */
+    Prepared prepare(RawRecord record, RowParser parser) {
+        if (record.error() != null) {
+            return Prepared.error(record.line(), record.error());
+        }
+        try {
+            PatientCreateRequest request = parser.parse(record.text());
+
+            String violations = validator.validate(request).stream()
+                    .sorted(Comparator.comparing((ConstraintViolation<?> v) -> v.getPropertyPath().toString()))
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .collect(Collectors.joining("; "));
+            if (!violations.isEmpty()) {
+                return Prepared.error(record.line(), violations);
+            }
+
+            Patient patient = patientMapper.toEntity(request);
+            PatientDerivedFields.populateSearchIndex(patient, searchIndexService, request.getFirstName(),
+                    request.getLastName(), request.getPhoneNumber(), request.getEmail());
+            PatientDerivedFields.populateDerivedFields(patient, request.getDateOfBirth(),
+                    request.getKnownAllergies(), request.getChronicConditions());
+            encryptPhi(patient);
+            return new Prepared(record.line(), patient, null);
+        } catch (JsonProcessingException ex) {
+            return Prepared.error(record.line(), "Invalid JSON: " + ex.getOriginalMessage());
+        } catch (IllegalArgumentException ex) {
+            return Prepared.error(record.line(), ex.getMessage());
+        } catch (RuntimeException ex) {
+            // Exception messages may echo field values — log the type only
+            log.warn("Patient import row at line {} failed: {}", record.line(), ex.getClass().getName());
+            return Prepared.error(record.line(), "Row could not be processed");
+        }
+    }
+
+    PatientCreateRequest parseJson(String text) throws JsonProcessingException {
+        return objectMapper.readValue(text, PatientCreateRequest.class);
+    }
+
+    /** Returns a parser binding each column of {@code headerRow} to its request field. */
+    static RowParser csvParser(String headerRow) {
+        List<String> header = splitCsv(headerRow);
+        List<BiConsumer<PatientCreateRequest, String>> setters = new ArrayList<>(header.size());
+        List<String> unknown = new ArrayList<>();
+        for (String column : header) {
+            BiConsumer<PatientCreateRequest, String> setter =
+                    CSV_COLUMNS.get(column.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", ""));
+            if (setter == null) unknown.add(column);
+            setters.add(setter);
+        }
+        if (!unknown.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown CSV columns: " + unknown);
+        }
+
+        return text -> {
+            List<String> fields = splitCsv(text);
+            if (fields.size() != setters.size()) {
+                throw new IllegalArgumentException(
+                        "Expected " + setters.size() + " fields, found " + fields.size());
+            }
+            PatientCreateRequest request = new PatientCreateRequest();
+            for (int i = 0; i < fields.size(); i++) {
+                String value = fields.get(i);
+                if (!value.isEmpty()) {
+                    setters.get(i).accept(request, value);
+                }
+            }
+            return request;
+        };
+    }
+
+    // ── Private helpers ──────────────────────────────────────────────────────
+
+    /** The batch insert bypasses the JPA converter, so PHI is encrypted here. */
+    private void encryptPhi(Patient p) {
+        p.setFirstName(encryptionConverter.convertToDatabaseColumn(p.getFirstName()));
+        p.setLastName(encryptionConverter.convertToDatabaseColumn(p.getLastName()));
+        p.setDateOfBirth(encryptionConverter.convertToDatabaseColumn(p.getDateOfBirth()));
+        p.setPhoneNumber(encryptionConverter.convertToDatabaseColumn(p.getPhoneNumber()));
+        p.setEmail(encryptionConverter.convertToDatabaseColumn(p.getEmail()));
+        p.setAddress(encryptionConverter.convertToDatabaseColumn(p.getAddress()));
+        p.setEmergencyContactName(encryptionConverter.convertToDatabaseColumn(p.getEmergencyContactName()));
+        p.setEmergencyContactPhone(encryptionConverter.convertToDatabaseColumn(p.getEmergencyContactPhone()));
+        p.setKnownAllergies(encryptionConverter.convertToDatabaseColumn(p.getKnownAllergies()));
+        p.setChronicConditions(encryptionConverter.convertToDatabaseColumn(p.getChronicConditions()));
+    }
+
+    private static String header(RawRecord record) {
+        if (record.error() != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "CSV header row: " + record.error());
+        }
+        return record.text();
+    }
+
+    private static void setGender(PatientCreateRequest request, String value) {
+        try {
+            request.setGender(Gender.valueOf(value.trim().toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("gender: must be one of " + Arrays.toString(Gender.values()));
+        }
+    }
+
+    /** RFC 4180 fields of one record; quoted fields may hold commas, quotes ("") and line breaks. */
+    static List<String> splitCsv(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private UserPrincipal currentUser() {
+        var auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof UserPrincipal up) {
+            return up;
+        }
+        throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+    }
+
+    private String currentIpAddress() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attrs) {
+            return attrs.getRequest().getRemoteAddr();
+        }
+        return null;
+    }
+
+    /** Collects prepared rows in file order and writes them batch by batch; request thread only. */
+    private final class Importer {
+
+        private final UserPrincipal   user;
+        private final String          ipAddress;
+        private final List<Prepared>  batch = new ArrayList<>(batchSize);
+        private final List<RowError>  errors = new ArrayList<>();
+        private long received;
+        private long imported;
+        private long failed;
+
+        Importer(UserPrincipal user, String ipAddress) {
+            this.user      = user;
+            this.ipAddress = ipAddress;
+        }
+
+        void accept(Prepared row) {
+            received++;
+            if (row.error() != null) {
+                reject(row.line(), row.error());
+                return;
+            }
+            PatientIdentifiers ids = identifierAllocator.allocate();
+            row.patient().setPatientId(ids.patientId());
+            row.patient().setMrn(ids.mrn());
+            batch.add(row);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) return;
+            try {
+                insert(batch);
+                imported += batch.size();
+            } catch (DataAccessException batchFailure) {
+                // One bad row fails the whole batch — retry individually so the rest are kept
+                log.warn("Patient import batch of {} failed ({}), retrying row by row",
+                        batch.size(), batchFailure.getClass().getSimpleName());
+                for (Prepared row : batch) {
+                    try {
+                        insert(List.of(row));
+                        imported++;
+                    } catch (DataAccessException rowFailure) {
+                        reject(row.line(), "Rejected by the database: " + firstLine(rowFailure));
+                    }
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+
+        private void insert(List<Prepared> rows) {
+            Instant now = Instant.now();
+            List<Patient> patients = new ArrayList<>(rows.size());
+            List<AuditLog> audits  = new ArrayList<>(rows.size());
+            for (Prepared row : rows) {
+                Patient patient = row.patient();
+                patient.setStatus(PatientStatus.ACTIVE);
+                patient.setRegisteredBy(user.getUsername());
+                patient.setRegisteredAt(now);
+                patients.add(patient);
+                audits.add(AuditLog.builder()
+                        .userId(user.getUserId())
+                        .username(user.getUsername())
+                        .userRole(user.getRole())
+                        .action(AuditAction.CREATE)
+                        .patientId(patient.getPatientId())
+                        .ipAddress(ipAddress)
+                        .occurredAt(now)
+                        .build());
+            }
+            txTemplate.executeWithoutResult(status -> {
+                patientRepository.insertEncrypted(patients);
+                auditWriter.insertAll(audits);
+            });
+        }
+
+        private void reject(long line, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new RowError(line, message));
+            }
+        }
+
+        /** Database message without the detail lines, which can quote column values. */
+        private static String firstLine(DataAccessException ex) {
+            String message = String.valueOf(NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+            int newline = message.indexOf('\n');
+            return newline < 0 ? message : message.substring(0, newline);
+        }
+    }
+
+    @FunctionalInterface
+    interface RowParser {
+        PatientCreateRequest parse(String text) throws JsonProcessingException;
+    }
+
+    /** One row of the upload and the line it starts on, or why it could not be read. */
+    record RawRecord(long line, String text, String error) {
+
+        RawRecord(long line, String text) {
+            this(line, text, null);
+        }
+    }
+
+    /** A row ready to insert (PHI already encrypted), or the reason it was rejected. */
+    record Prepared(long line, Patient patient, String error) {
+
+        static Prepared error(long line, String error) {
+            return new Prepared(line, null, error);
+        }
+    }
+
+    /**
+     * Splits the upload into rows, skipping blank lines. In CSV mode a quoted
+     * field may span lines; lines are joined until the quotes balance.
+     *
+     * A quote that is not closed within {@link #MAX_RECORD_LINES} lines or
+     * {@link #MAX_RECORD_CHARS} characters, or before the end of the upload, is
+     * taken to be a stray: that row is rejected and reading resumes at the line
+     * after it, so one bad quote cannot swallow the rest of the file.
+     */
+    static final class RecordReader implements Iterator<RawRecord> {
+
+        static final int MAX_RECORD_LINES = 100;
+        static final int MAX_RECORD_CHARS = 64 * 1024;
+
+        private final BufferedReader reader;
+        private final boolean        csv;
+        private final Deque<String>  pending = new ArrayDeque<>();  // lines read ahead, then given back
+        private RawRecord next;
+        private long      lineNo;
+
+        RecordReader(Reader reader, boolean csv) {
+            this.reader = reader instanceof BufferedReader br ? br : new BufferedReader(reader);
+            this.csv    = csv;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = read();
+            }
+            return next != null;
+        }
+
+        @Override
+        public RawRecord next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            RawRecord record = next;
+            next = null;
+            return record;
+        }
+
+        private RawRecord read() {
+            try {
+                String line;
+                do {
+                    line = nextLine();
+                    if (line == null) return null;
+                    if (lineNo == 1 && !line.isEmpty() && line.charAt(0) == '\uFEFF') {
+                        line = line.substring(1);   // byte order mark written by spreadsheet tools
+                    }
+                } while (line.isBlank());
+
+                long start = lineNo;
+                int quotes = csv ? countQuotes(line) : 0;
+                if (quotes % 2 == 0) {
+                    return new RawRecord(start, line);
+                }
+
+                List<String> continuation = new ArrayList<>();
+                int chars = line.length();
+                String more;
+                while (quotes % 2 != 0) {
+                    if (continuation.size() + 1 >= MAX_RECORD_LINES || chars > MAX_RECORD_CHARS
+                            || (more = nextLine()) == null) {
+                        // Give the lines after the opening one back; they are read as rows of their own
+                        for (int i = continuation.size() - 1; i >= 0; i--) {
+                            pending.push(continuation.get(i));
+                        }
+                        lineNo = start;
+                        return new RawRecord(start, null,
+                                "Quoted field has no closing quote (\"); the row was skipped");
+                    }
+                    continuation.add(more);
+                    quotes += countQuotes(more);
+                    chars += more.length() + 1;
+                }
+                return new RawRecord(start, line + "\n" + String.join("\n", continuation));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private String nextLine() throws IOException {
+            String line = pending.isEmpty() ? reader.readLine() : pending.pop();
+            if (line != null) lineNo++;
+            return line;
+        }
+
+        private static int countQuotes(String text) {
+            int quotes = 0;
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) == '"') quotes++;
+            }
+            return quotes;
+        }
+    }
+}
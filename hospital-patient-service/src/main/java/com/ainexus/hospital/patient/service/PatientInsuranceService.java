@@ -1,5 +1,7 @@
 package com.ainexus.hospital.patient.service;
 
+import com.ainexus.hospital.patient.audit.AuditAction;
+import com.ainexus.hospital.patient.audit.Audited;
 import com.ainexus.hospital.patient.dto.request.PatientInsuranceRequest;
 import com.ainexus.hospital.patient.dto.response.PatientInsuranceResponse;
 import com.ainexus.hospital.patient.exception.PatientNotFoundException;
@@ -36,6 +38,7 @@ public class PatientInsuranceService {
     }
 
     @Transactional
+    @Audited(action = AuditAction.INSURANCE_ADD)
     public PatientInsuranceResponse addInsurance(String patientId, PatientInsuranceRequest req) {
         patientRepository.findByPatientId(patientId)
                 .orElseThrow(() -> new PatientNotFoundException(patientId));
@@ -59,6 +62,7 @@ public class PatientInsuranceService {
     }
 
     @Transactional
+    @Audited(action = AuditAction.INSURANCE_UPDATE)
     public PatientInsuranceResponse updateInsurance(String patientId, Long id, PatientInsuranceRequest req) {
         PatientInsurance insurance = insuranceRepository.findByIdAndPatientId(id, patientId)
                 .orElseThrow(() -> new EntityNotFoundException("Insurance record not found"));
@@ -79,6 +83,7 @@ public class PatientInsuranceService {
     }
 
     @Transactional
+    @Audited(action = AuditAction.INSURANCE_REMOVE)
     public void deleteInsurance(String patientId, Long id) {
         PatientInsurance insurance = insuranceRepository.findByIdAndPatientId(id, patientId)
                 .orElseThrow(() -> new EntityNotFoundException("Insurance record not found"));
@@ -0,0 +1,161 @@
+package com.ainexus.hospital.patient.service;
+
+import com.ainexus.hospital.patient.audit.AuditAction;
+import com.ainexus.hospital.patient.audit.Audited;
+import com.ainexus.hospital.patient.event.PatientPhotoStoredEvent;
+import com.ainexus.hospital.patient.exception.PatientNotFoundException;
+import com.ainexus.hospital.patient.model.Patient;
+import com.ainexus.hospital.patient.repository.PatientPhotoRepository;
+import com.ainexus.hospital.patient.repository.PatientPhotoVariantRepository;
+import com.ainexus.hospital.patient.repository.PatientRepository;
+import com.ainexus.hospital.patient.repository.projection.PatientPhotoMeta;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Patient photos in the content-addressed {@code patient_photos} store.
+ *
+ * The patient row only records the SHA-256 of its photo; blobs are written
+ * once per distinct image and removed when the last patient referencing
+ * them replaces or deletes the photo. Uploads are hashed and stored from
+ * the multipart stream; downloads read only the requested byte range, which
+ * the JDBC driver buffers (bounded by the upload size cap). Scaling variants
+ * (PhotoVariantService) loads the original as a whole.
+ *
+ * Uploads lock the blob row {@code FOR KEY SHARE} and releases lock it
+ * {@code FOR UPDATE} before checking references, so a release cannot delete
+ * a blob that a concurrent upload of the same image is about to reference.
+ *
+ * A {@code sizePx} of null addresses the original upload; otherwise one of
+ * the scaled variants in PhotoVariantService.SIZES.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class PatientPhotoService {
+
+    private final PatientRepository             patientRepository;
+    private final PatientPhotoRepository        photoRepository;
+    private final PatientPhotoVariantRepository variantRepository;
+    private final ApplicationEventPublisher     eventPublisher;
+
+    /**
+     * Hashes the upload in one streaming pass, then streams it again into the
+     * blob table — skipped entirely when the same image is already stored.
+     * Loops only if a concurrent release deleted the blob between our insert
+     * finding it present and our lock.
+     */
+    @Audited(action = AuditAction.PHOTO_UPLOAD)
+    public void storePhoto(String patientId, InputStreamSource source, long sizeBytes,
+                           String contentType) throws IOException {
+        Patient patient = findPatient(patientId);
+        String hash     = sha256Hex(source);
+        String previous = patient.getPhotoHash();
+
+        while (!photoRepository.lockForReference(hash)) {
+            try (InputStream in = source.getInputStream()) {
+                photoRepository.insertIfAbsent(hash, contentType, sizeBytes, in);
+            }
+        }
+        patient.setPhotoHash(hash);
+        patient.setHasPhoto(true);
+        patientRepository.saveAndFlush(patient);
+
+        if (previous != null && !previous.equals(hash)) {
+            releaseBlob(previous);
+        }
+        // Variants are scaled after commit on the photo variant pool
+        eventPublisher.publishEvent(new PatientPhotoStoredEvent(patientId, hash));
+    }
+
+    /**
+     * Content hash of the patient's current photo — the strong ETag. Reads the
+     * patient row only, so a conditional GET is answered without the blob.
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> findPhotoHash(String patientId) {
+        Patient patient = findPatient(patientId);
+        if (!Boolean.TRUE.equals(patient.getHasPhoto())) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(patient.getPhotoHash());
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<PatientPhotoMeta> findPhotoMeta(String hash, Integer sizePx) {
+        return sizePx == null
+                ? photoRepository.findMetaByContentHash(hash)
+                : variantRepository.findMeta(hash, sizePx);
+    }
+
+    /** Streams bytes [offset, offset + length) of the blob; runs outside any transaction. */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void copyPhoto(String hash, Integer sizePx, long offset, long length, OutputStream out) {
+        boolean found = sizePx == null
+                ? photoRepository.copyData(hash, offset, length, out)
+                : photoRepository.copyVariantData(hash, sizePx, offset, length, out);
+        if (!found) {
+            log.warn("Photo blob disappeared while streaming hash={} size={}", hash, sizePx);
+        }
+    }
+
+    @Audited(action = AuditAction.PHOTO_DELETE)
+    public void deletePhoto(String patientId) {
+        Patient patient = findPatient(patientId);
+        String previous = patient.getPhotoHash();
+
+        patient.setPhotoHash(null);
+        patient.setHasPhoto(false);
+        patientRepository.saveAndFlush(patient);
+
+        if (previous != null) {
+            releaseBlob(previous);
+        }
+    }
+
+    // ── Private helpers ──────────────────────────────────────────────────────
+
+    private Patient findPatient(String patientId) {
+        return patientRepository.findByPatientId(patientId)
+                .orElseThrow(() -> new PatientNotFoundException(patientId));
+    }
+
+    /**
+     * Patient row must be flushed first so the reference check sees the new
+     * hash. The lock waits out uploads holding the blob; the delete is a
+     * separate statement so its snapshot includes their committed references.
+     */
+    private void releaseBlob(String hash) {
+        if (photoRepository.lockForDelete(hash) && photoRepository.deleteIfUnreferenced(hash) > 0) {
+            log.debug("Released orphaned photo blob hash={}", hash);
+        }
+    }
+
+    static String sha256Hex(InputStreamSource source) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        try (InputStream in = new DigestInputStream(source.getInputStream(), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -1,5 +1,7 @@
 package com.ainexus.hospital.patient.service;
 
+import com.ainexus.hospital.patient.audit.AuditAction;
+import com.ainexus.hospital.patient.audit.Audited;
 import com.ainexus.hospital.patient.dto.request.AddRelationshipRequest;
 import com.ainexus.hospital.patient.dto.response.PatientRelationshipResponse;
 import com.ainexus.hospital.patient.exception.PatientNotFoundException;
@@ -47,6 +49,7 @@ public class PatientRelationshipService {
                 .toList();
     }
 
+    @Audited(action = AuditAction.LINK_FAMILY)
     public PatientRelationshipResponse addRelationship(String patientId, AddRelationshipRequest req) {
         Patient patient        = requirePatientExists(patientId);
         Patient relatedPatient = requirePatientExists(req.getRelatedPatientId());
@@ -77,26 +80,41 @@ public class PatientRelationshipService {
                 .createdAt(now)
                 .build();
 
-        relationshipRepository.save(forward);
-        relationshipRepository.save(inverse);
+        // Re-linking overwrites the existing pair, as before; new rows are inserted
+        // together in one JDBC batch instead of a SELECT + INSERT per direction
+        List<PatientRelationship> existing = relationshipRepository.findLink(patientId, req.getRelatedPatientId());
+        relationshipRepository.saveAll(List.of(reuse(forward, existing), reuse(inverse, existing)));
 
         log.info("Linked patients {}<->{} type={}", patientId, req.getRelatedPatientId(), relType);
         return toResponseWithName(forward, relatedPatient);
     }
 
+    @Audited(action = AuditAction.UNLINK_FAMILY)
     public void removeRelationship(String patientId, String relatedPatientId) {
         requirePatientExists(patientId);
         requirePatientExists(relatedPatientId);
 
         // Delete both directions
-        relationshipRepository.deleteByPatientIdAndRelatedPatientId(patientId, relatedPatientId);
-        relationshipRepository.deleteByPatientIdAndRelatedPatientId(relatedPatientId, patientId);
+        relationshipRepository.deleteLink(patientId, relatedPatientId);
 
         log.info("Unlinked patients {}<->{}", patientId, relatedPatientId);
     }
 
     // ── Private helpers ───────────────────────────────────────────────────────
 
+    /** The loaded row with the same key, updated from {@code row}, or {@code row} itself if none. */
+    private static PatientRelationship reuse(PatientRelationship row, List<PatientRelationship> existing) {
+        for (PatientRelationship current : existing) {
+            if (current.getId().equals(row.getId())) {
+                current.setRelationshipType(row.getRelationshipType());
+                current.setCreatedBy(row.getCreatedBy());
+                current.setCreatedAt(row.getCreatedAt());
+                return current;
+            }
+        }
+        return row;
+    }
+
     private Patient requirePatientExists(String patientId) {
         return patientRepository.findByPatientId(patientId)
                 .orElseThrow(() -> new PatientNotFoundException(patientId));
@@ -0,0 +1,83 @@
+package com.ainexus.hospital.patient.service;
+
+import com.ainexus.hospital.patient.repository.search.SearchTerm;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Classifies a free-text search term so only the one matching lookup runs
+ * (see PatientSearchRepositoryImpl for the predicate used per kind).
+ *
+ * Rules, first match wins:
+ *   contains '@'                          → EMAIL (HMAC equality)
+ *   digits only                           → NUMBER: patient ID / MRN digits,
+ *                                           or a phone number if ≥ 7 digits
+ *   only digits / + - ( ) . space, ≥ 7 digits → PHONE (HMAC equality)
+ *   "MRN" followed by digits              → MRN match
+ *   "P" followed by digits                → PATIENT_ID match
+ *   anything else                         → NAME match
+ *
+ * Staff often type just the number of a patient ID or MRN ("6003",
+ * "20261001"), and those numbers are as long as phone numbers, so a bare
+ * digit run is looked up as both.
+ *
+ * Phone and email hashes are only computed when the term can actually be a
+ * phone number or email address.
+ */
+@Component
+@RequiredArgsConstructor
+public class PatientSearchPlanner {
+
+    /** Shortest digit run treated as a phone number (local number without area code). */
+    private static final int MIN_PHONE_DIGITS = 7;
+
+    private static final Pattern DIGITS     = Pattern.compile("\\d+");
+    private static final Pattern MRN        = Pattern.compile("MRN\\d*");
+    private static final Pattern PATIENT_ID = Pattern.compile("P\\d+");
+
+    private final SearchIndexService searchIndexService;
+
+    public SearchTerm plan(String search) {
+        if (!StringUtils.hasText(search)) return SearchTerm.NONE;
+        String term = search.trim();
+
+        if (term.indexOf('@') >= 0) {
+            return SearchTerm.emailHash(searchIndexService.hashEmail(term));
+        }
+        if (DIGITS.matcher(term).matches()) {
+            return SearchTerm.number(term,
+                    term.length() >= MIN_PHONE_DIGITS ? searchIndexService.hashPhone(term) : null);
+        }
+        if (isPhoneNumber(term)) {
+            return SearchTerm.phoneHash(searchIndexService.hashPhone(term));
+        }
+
+        String upper = term.toUpperCase(Locale.ROOT);
+        if (MRN.matcher(upper).matches()) {
+            return SearchTerm.mrnFragment(upper);
+        }
+        if (PATIENT_ID.matcher(upper).matches()) {
+            return SearchTerm.patientIdFragment(upper);
+        }
+        return SearchTerm.nameFragment(searchIndexService.nameSearchToken(term));
+    }
+
+    // ── Private helpers ──────────────────────────────────────────────────────
+
+    private static boolean isPhoneNumber(String term) {
+        int digits = 0;
+        for (int i = 0; i < term.length(); i++) {
+            char c = term.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+            } else if (c != '+' && c != '-' && c != '(' && c != ')' && c != '.' && c != ' ') {
+                return false;
+            }
+        }
+        return digits >= MIN_PHONE_DIGITS;
+    }
+}
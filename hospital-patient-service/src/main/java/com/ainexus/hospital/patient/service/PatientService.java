@@ -1,8 +1,12 @@
 package com.ainexus.hospital.patient.service;
 
+import com.ainexus.hospital.patient.audit.AuditAction;
+import com.ainexus.hospital.patient.audit.Audited;
+import com.ainexus.hospital.patient.config.AesEncryptionConverter;
 import com.ainexus.hospital.patient.dto.request.PatientCreateRequest;
 import com.ainexus.hospital.patient.dto.request.PatientStatusRequest;
 import com.ainexus.hospital.patient.dto.request.PatientUpdateRequest;
+import com.ainexus.hospital.patient.dto.response.CursorPageResponse;
 import com.ainexus.hospital.patient.dto.response.PatientResponse;
 import com.ainexus.hospital.patient.dto.response.PatientSummaryResponse;
 import com.ainexus.hospital.patient.exception.PatientNotFoundException;
@@ -11,7 +15,12 @@ import com.ainexus.hospital.patient.model.Gender;
 import com.ainexus.hospital.patient.model.Patient;
 import com.ainexus.hospital.patient.model.PatientStatus;
 import com.ainexus.hospital.patient.repository.PatientRepository;
+import com.ainexus.hospital.patient.repository.projection.PatientExportRow;
+import com.ainexus.hospital.patient.repository.projection.PatientSummaryRow;
+import com.ainexus.hospital.patient.repository.search.PatientScrollKey;
+import com.ainexus.hospital.patient.repository.search.PatientSearchCriteria;
 import com.ainexus.hospital.patient.security.UserPrincipal;
+import com.ainexus.hospital.patient.service.PatientIdentifierAllocator.PatientIdentifiers;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -19,7 +28,6 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.StringUtils;
 
 import java.io.IOException;
 import java.io.PrintWriter;
@@ -37,12 +45,19 @@ import java.util.stream.Stream;
 @Transactional
 public class PatientService {
 
-    private final PatientRepository         patientRepository;
-    private final PatientIdGeneratorService idGeneratorService;
-    private final MrnGeneratorService       mrnGeneratorService;
-    private final PatientMapper             patientMapper;
-    private final SearchIndexService        searchIndexService;
+    private final PatientRepository          patientRepository;
+    private final PatientIdentifierAllocator identifierAllocator;
+    private final PatientMapper              patientMapper;
+    private final SearchIndexService         searchIndexService;
+    private final PatientSearchPlanner       searchPlanner;
+    private final AesEncryptionConverter     encryptionConverter;
+    private final PhiDecryptionPipeline      decryptionPipeline;
+    private final ScrollCursorCodec          cursorCodec;
 
+    /** Flush the response writer every N exported rows so output reaches the client incrementally. */
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
+
+    @Audited(action = AuditAction.CREATE, patientId = "#result.patientId")
     public PatientResponse registerPatient(PatientCreateRequest request) {
         // Check for duplicate phone number (PRD REQ-1.11 — warn but allow)
         String phoneHash = searchIndexService.hashPhone(request.getPhoneNumber());
@@ -51,8 +66,9 @@ public class PatientService {
             log.warn("Duplicate phone detected during registration — proceeding per PRD REQ-1.11");
         }
 
-        String patientId   = idGeneratorService.generate();
-        String mrn         = mrnGeneratorService.generate();
+        PatientIdentifiers ids = identifierAllocator.allocate();
+        String patientId   = ids.patientId();
+        String mrn         = ids.mrn();
         String currentUser = getCurrentUsername();
 
         Patient patient = patientMapper.toEntity(request);
@@ -63,9 +79,9 @@ public class PatientService {
         patient.setRegisteredAt(Instant.now());
 
         // Populate derived search fields
-        populateSearchIndex(patient, request.getFirstName(), request.getLastName(),
-                request.getPhoneNumber(), request.getEmail());
-        populateDerivedFields(patient, request.getDateOfBirth(),
+        PatientDerivedFields.populateSearchIndex(patient, searchIndexService, request.getFirstName(),
+                request.getLastName(), request.getPhoneNumber(), request.getEmail());
+        PatientDerivedFields.populateDerivedFields(patient, request.getDateOfBirth(),
                 request.getKnownAllergies(), request.getChronicConditions());
 
         Patient saved = patientRepository.save(patient);
@@ -77,6 +93,7 @@ public class PatientService {
     }
 
     @Transactional(readOnly = true)
+    @Audited(action = AuditAction.READ, patientId = "#result.patientId")
     public PatientResponse getPatientById(String patientId) {
         Patient patient = patientRepository.findByPatientId(patientId)
                 .orElseThrow(() -> new PatientNotFoundException(patientId));
@@ -95,26 +112,52 @@ public class PatientService {
                                                         Boolean hasAllergies,
                                                         Boolean hasChronicConditions,
                                                         Pageable pageable) {
-        // Compute search hashes for exact phone/email lookup
-        String phoneHash = (search != null && !search.isBlank())
-                ? searchIndexService.hashPhone(search) : "";
-        String emailHash = (search != null && !search.isBlank())
-                ? searchIndexService.hashEmail(search) : "";
-
-        Gender genderEnum = null;
-        if (gender != null && !gender.isBlank()) {
-            try { genderEnum = Gender.valueOf(gender.toUpperCase()); }
-            catch (IllegalArgumentException ignored) {}
-        }
+        PatientSearchCriteria criteria = buildSearchCriteria(search, status, gender, bloodGroup,
+                city, state, birthYearFrom, birthYearTo, hasAllergies, hasChronicConditions);
 
-        Page<Patient> page = patientRepository.searchPatients(
-                search, phoneHash, emailHash, status, genderEnum, bloodGroup,
-                city, state, birthYearFrom, birthYearTo, hasAllergies, hasChronicConditions,
-                pageable);
+        Page<PatientSummaryRow> page = patientRepository.search(criteria, pageable);
 
         return page.map(this::buildSummaryResponse);
     }
 
+    /**
+     * Keyset-paginated variant of {@link #searchPatients}, ordered by name then id.
+     * Fetches one extra row to learn whether another slice exists; no count query.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<PatientSummaryResponse> scrollPatients(String search,
+                                                                     PatientStatus status,
+                                                                     String gender,
+                                                                     String bloodGroup,
+                                                                     String city,
+                                                                     String state,
+                                                                     Integer birthYearFrom,
+                                                                     Integer birthYearTo,
+                                                                     Boolean hasAllergies,
+                                                                     Boolean hasChronicConditions,
+                                                                     String cursor,
+                                                                     int size) {
+        PatientSearchCriteria criteria = buildSearchCriteria(search, status, gender, bloodGroup,
+                city, state, birthYearFrom, birthYearTo, hasAllergies, hasChronicConditions);
+        PatientScrollKey after = (cursor == null || cursor.isBlank()) ? null
+                : cursorCodec.decode(cursor, 3, keys -> new PatientScrollKey(keys[0], keys[1], Long.parseLong(keys[2])));
+
+        List<PatientSummaryRow> rows = patientRepository.scroll(criteria, after, size + 1);
+        boolean hasNext = rows.size() > size;
+        List<PatientSummaryRow> slice = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            PatientScrollKey last = PatientScrollKey.of(slice.get(slice.size() - 1));
+            nextCursor = cursorCodec.encode(last.lastNameSearch(), last.firstNameSearch(), String.valueOf(last.id()));
+        }
+        return CursorPageResponse.<PatientSummaryResponse>builder()
+                .content(slice.stream().map(this::buildSummaryResponse).toList())
+                .size(slice.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
     @Transactional(readOnly = true)
     public List<PatientSummaryResponse> findPotentialDuplicates(String patientId) {
         Patient patient = patientRepository.findByPatientId(patientId)
@@ -167,54 +210,63 @@ public class PatientService {
         return resultMap.values().stream().toList();
     }
 
+    /**
+     * Streams the filtered patient list as CSV without materialising it.
+     *
+     * Ciphertext rows come from a server-side cursor (see PatientSearchRepository#streamExportRows)
+     * on this thread; decryption and CSV formatting fan out over PhiDecryptionPipeline
+     * in bounded chunks, and lines are written back here in their original order.
+     * The writer is flushed every {@link #EXPORT_FLUSH_INTERVAL} rows so the servlet
+     * buffer never grows with the result size.
+     */
     @Transactional(readOnly = true)
     public void streamCsvExport(PrintWriter writer,
                                 String search, PatientStatus status, String gender,
                                 String bloodGroup, String city, String state,
                                 Integer birthYearFrom, Integer birthYearTo,
                                 Boolean hasAllergies, Boolean hasChronicConditions) throws IOException {
-        String phoneHash = (search != null && !search.isBlank()) ? searchIndexService.hashPhone(search) : "";
-        String emailHash = (search != null && !search.isBlank()) ? searchIndexService.hashEmail(search) : "";
-
-        Gender genderEnum = null;
-        if (gender != null && !gender.isBlank()) {
-            try { genderEnum = Gender.valueOf(gender.toUpperCase()); } catch (IllegalArgumentException ignored) {}
-        }
-
-        org.springframework.data.domain.Pageable unpaged = org.springframework.data.domain.Pageable.unpaged();
-        List<Patient> patients = patientRepository.searchPatients(
-                search, phoneHash, emailHash, status, genderEnum, bloodGroup,
-                city, state, birthYearFrom, birthYearTo, hasAllergies, hasChronicConditions,
-                unpaged).getContent();
+        PatientSearchCriteria criteria = buildSearchCriteria(search, status, gender, bloodGroup,
+                city, state, birthYearFrom, birthYearTo, hasAllergies, hasChronicConditions);
 
         // CSV header
         writer.println("PatientID,MRN,FirstName,LastName,DateOfBirth,Age,Gender,PhoneNumber," +
                 "Email,City,State,ZipCode,BloodGroup,KnownAllergies,ChronicConditions,Status,RegisteredAt");
 
-        // CSV rows
-        for (Patient p : patients) {
-            PatientResponse r = buildResponse(p);
-            writer.println(String.join(",",
-                    csvField(r.getPatientId()),
-                    csvField(r.getMrn()),
-                    csvField(r.getFirstName()),
-                    csvField(r.getLastName()),
-                    csvField(r.getDateOfBirth()),
-                    String.valueOf(r.getAge()),
-                    csvField(r.getGender() != null ? r.getGender().name() : ""),
-                    csvField(r.getPhoneNumber()),
-                    csvField(r.getEmail()),
-                    csvField(r.getCity()),
-                    csvField(r.getState()),
-                    csvField(r.getZipCode()),
-                    csvField(r.getBloodGroup()),
-                    csvField(r.getKnownAllergies()),
-                    csvField(r.getChronicConditions()),
-                    csvField(r.getStatus() != null ? r.getStatus().name() : ""),
-                    csvField(r.getRegisteredAt())
-            ));
+        // CSV rows — decrypt + format on the pipeline workers, write in order here
+        long[] written = {0};
+        try (Stream<PatientExportRow> rows = patientRepository.streamExportRows(criteria)) {
+            decryptionPipeline.process(rows.iterator(),
+                    row -> toCsvLine(row.decrypt(encryptionConverter::convertToEntityAttribute)),
+                    line -> {
+                        writer.println(line);
+                        if (++written[0] % EXPORT_FLUSH_INTERVAL == 0) {
+                            writer.flush();
+                        }
+                    });
         }
         writer.flush();
+        log.info("CSV export streamed rows={} userId={}", written[0], getCurrentUserId());
+    }
+
+    private String toCsvLine(PatientExportRow r) {
+        return String.join(",",
+                csvField(r.patientId()),
+                csvField(r.mrn()),
+                csvField(r.firstName()),
+                csvField(r.lastName()),
+                csvField(r.dateOfBirth()),
+                String.valueOf(calculateAge(r.dateOfBirth())),
+                csvField(r.gender() != null ? r.gender().name() : ""),
+                csvField(r.phoneNumber()),
+                csvField(r.email()),
+                csvField(r.city()),
+                csvField(r.state()),
+                csvField(r.zipCode()),
+                csvField(r.bloodGroup()),
+                csvField(r.knownAllergies()),
+                csvField(r.chronicConditions()),
+                csvField(r.status() != null ? r.status().name() : ""),
+                csvField(r.registeredAt() != null ? r.registeredAt().toString() : null));
     }
 
     private static String csvField(String value) {
@@ -225,6 +277,7 @@ public class PatientService {
         return value;
     }
 
+    @Audited(action = AuditAction.UPDATE, patientId = "#result.patientId")
     public PatientResponse updatePatient(String patientId, PatientUpdateRequest request) {
         Patient patient = patientRepository.findByPatientId(patientId)
                 .orElseThrow(() -> new PatientNotFoundException(patientId));
@@ -234,9 +287,9 @@ public class PatientService {
         patient.setUpdatedAt(Instant.now());
 
         // Refresh search index and derived fields with updated values
-        populateSearchIndex(patient, request.getFirstName(), request.getLastName(),
-                request.getPhoneNumber(), request.getEmail());
-        populateDerivedFields(patient, request.getDateOfBirth(),
+        PatientDerivedFields.populateSearchIndex(patient, searchIndexService, request.getFirstName(),
+                request.getLastName(), request.getPhoneNumber(), request.getEmail());
+        PatientDerivedFields.populateDerivedFields(patient, request.getDateOfBirth(),
                 request.getKnownAllergies(), request.getChronicConditions());
 
         Patient saved = patientRepository.save(patient);
@@ -244,6 +297,7 @@ public class PatientService {
         return buildResponse(saved);
     }
 
+    @Audited(action = AuditAction.DEACTIVATE, patientId = "#result.patientId")
     public PatientResponse deactivatePatient(String patientId) {
         Patient patient = patientRepository.findByPatientId(patientId)
                 .orElseThrow(() -> new PatientNotFoundException(patientId));
@@ -257,6 +311,7 @@ public class PatientService {
         return buildResponse(saved);
     }
 
+    @Audited(action = AuditAction.ACTIVATE, patientId = "#result.patientId")
     public PatientResponse activatePatient(String patientId) {
         Patient patient = patientRepository.findByPatientId(patientId)
                 .orElseThrow(() -> new PatientNotFoundException(patientId));
@@ -272,26 +327,32 @@ public class PatientService {
 
     // ── Private helpers ───────────────────────────────────────────────────────
 
-    private void populateSearchIndex(Patient patient, String firstName, String lastName,
-                                     String phone, String email) {
-        patient.setFirstNameSearch(searchIndexService.nameSearchToken(firstName));
-        patient.setLastNameSearch(searchIndexService.nameSearchToken(lastName));
-        patient.setPhoneNumberHash(searchIndexService.hashPhone(phone));
-        patient.setEmailHash(searchIndexService.hashEmail(email));
-        // Soundex phonetic codes for duplicate detection (v2.0.0 REQ-8)
-        patient.setFirstNameSoundex(searchIndexService.soundex(firstName));
-        patient.setLastNameSoundex(searchIndexService.soundex(lastName));
-    }
-
-    private void populateDerivedFields(Patient patient, String dateOfBirth,
-                                       String knownAllergies, String chronicConditions) {
-        if (StringUtils.hasText(dateOfBirth)) {
-            try {
-                patient.setBirthYear(LocalDate.parse(dateOfBirth).getYear());
-            } catch (Exception ignored) {}
+    /**
+     * Plans the free-text term (see PatientSearchPlanner) and collects the structured
+     * filters. Unknown gender values are ignored rather than rejected.
+     */
+    private PatientSearchCriteria buildSearchCriteria(String search, PatientStatus status, String gender,
+                                                      String bloodGroup, String city, String state,
+                                                      Integer birthYearFrom, Integer birthYearTo,
+                                                      Boolean hasAllergies, Boolean hasChronicConditions) {
+        Gender genderEnum = null;
+        if (gender != null && !gender.isBlank()) {
+            try { genderEnum = Gender.valueOf(gender.toUpperCase()); }
+            catch (IllegalArgumentException ignored) {}
         }
-        patient.setHasAllergies(StringUtils.hasText(knownAllergies));
-        patient.setHasChronicConditions(StringUtils.hasText(chronicConditions));
+
+        return PatientSearchCriteria.builder()
+                .term(searchPlanner.plan(search))
+                .status(status)
+                .gender(genderEnum)
+                .bloodGroup(bloodGroup)
+                .city(city)
+                .state(state)
+                .birthYearFrom(birthYearFrom)
+                .birthYearTo(birthYearTo)
+                .hasAllergies(hasAllergies)
+                .hasChronicConditions(hasChronicConditions)
+                .build();
     }
 
     private PatientResponse buildResponse(Patient patient) {
@@ -306,7 +367,14 @@ public class PatientService {
         return summary;
     }
 
-    private int calculateAge(String dateOfBirth) {
+    private PatientSummaryResponse buildSummaryResponse(PatientSummaryRow row) {
+        PatientSummaryResponse summary = patientMapper.toSummaryResponse(row);
+        summary.setAge(calculateAge(row.dateOfBirth()));
+        return summary;
+    }
+
+    /** Package-private and static so the JMH suite can exercise it without a Spring context. */
+    static int calculateAge(String dateOfBirth) {
         if (dateOfBirth == null) return 0;
         try {
             return Period.between(LocalDate.parse(dateOfBirth), LocalDate.now()).getYears();
@@ -1,5 +1,7 @@
 package com.ainexus.hospital.patient.service;
 
+import com.ainexus.hospital.patient.audit.AuditAction;
+import com.ainexus.hospital.patient.audit.Audited;
 import com.ainexus.hospital.patient.dto.request.PatientVitalsRequest;
 import com.ainexus.hospital.patient.dto.response.PatientVitalsResponse;
 import com.ainexus.hospital.patient.exception.PatientNotFoundException;
@@ -34,6 +36,7 @@ public class PatientVitalsService {
     }
 
     @Transactional
+    @Audited(action = AuditAction.VITALS_RECORD)
     public PatientVitalsResponse recordVitals(String patientId, PatientVitalsRequest req) {
         patientRepository.findByPatientId(patientId)
                 .orElseThrow(() -> new PatientNotFoundException(patientId));
@@ -0,0 +1,103 @@
+package com.ainexus.hospital.patient.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Ordered, bounded fan-out for bulk PHI reads (CSV export) and writes
+ * (patient import).
+ *
+ * The caller's thread pulls ciphertext rows from the source (typically a
+ * transaction-bound JPA stream) in chunks; each chunk is decrypted/transformed
+ * on a shared worker pool, and finished chunks are handed to the sink on the
+ * caller's thread in their original order.
+ *
+ * Backpressure: at most {@code maxInFlight} chunks exist between the source
+ * and the sink at any time — the reader blocks on the oldest chunk before
+ * pulling more — so decrypted PHI never accumulates beyond
+ * {@code maxInFlight × chunkSize} rows, whatever the total row count.
+ */
+@Slf4j
+@Component
+public class PhiDecryptionPipeline {
+
+    private final ForkJoinPool workers;
+    private final int          chunkSize;
+    private final int          maxInFlight;
+
+    public PhiDecryptionPipeline(@Value("${app.export.decrypt-threads:0}") int threads,
+                                 @Value("${app.export.chunk-size:256}") int chunkSize) {
+        int parallelism  = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.workers     = new ForkJoinPool(parallelism);
+        this.chunkSize   = chunkSize;
+        this.maxInFlight = parallelism * 2;
+        log.info("PHI decryption pipeline parallelism={} chunkSize={} maxInFlight={}",
+                parallelism, chunkSize, maxInFlight);
+    }
+
+    /**
+     * Runs every element of {@code source} through {@code transform} on the worker
+     * pool and passes the results to {@code sink} in source order.
+     *
+     * @return number of elements processed
+     */
+    public <S, R> long process(Iterator<S> source, Function<S, R> transform, Consumer<R> sink) {
+        Deque<CompletableFuture<List<R>>> inFlight = new ArrayDeque<>(maxInFlight);
+        long processed = 0;
+        try {
+            while (source.hasNext()) {
+                List<S> chunk = new ArrayList<>(chunkSize);
+                while (chunk.size() < chunkSize && source.hasNext()) {
+                    chunk.add(source.next());
+                }
+                inFlight.addLast(CompletableFuture.supplyAsync(() -> transformChunk(chunk, transform), workers));
+                if (inFlight.size() >= maxInFlight) {
+                    processed += drainHead(inFlight, sink);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                processed += drainHead(inFlight, sink);
+            }
+            return processed;
+        } catch (CompletionException ex) {
+            inFlight.forEach(f -> f.cancel(true));
+            if (ex.getCause() instanceof RuntimeException re) throw re;
+            throw ex;
+        } catch (RuntimeException ex) {
+            inFlight.forEach(f -> f.cancel(true));
+            throw ex;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private static <S, R> List<R> transformChunk(List<S> chunk, Function<S, R> transform) {
+        List<R> out = new ArrayList<>(chunk.size());
+        for (S item : chunk) {
+            out.add(transform.apply(item));
+        }
+        return out;
+    }
+
+    private static <R> int drainHead(Deque<CompletableFuture<List<R>>> inFlight, Consumer<R> sink) {
+        List<R> results = inFlight.removeFirst().join();
+        results.forEach(sink);
+        return results.size();
+    }
+}
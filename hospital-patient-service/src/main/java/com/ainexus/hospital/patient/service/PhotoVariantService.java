@@ -0,0 +1,202 @@
+package com.ainexus.hospital.patient.service;
+
+import com.ainexus.hospital.patient.model.PatientPhoto;
+import com.ainexus.hospital.patient.repository.PatientPhotoRepository;
+import com.ainexus.hospital.patient.repository.PatientPhotoVariantRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Generates the down-scaled photo variants in {@link #SIZES} with plain
+ * {@code javax.imageio} on the {@code photoVariantExecutor} pool.
+ *
+ * Work is requested after an upload commits and again whenever a variant is
+ * asked for but missing (photos uploaded before variants existed, dropped
+ * tasks), so the table converges without a backfill job. A hash already
+ * queued or running is not queued twice.
+ *
+ * The upload cap bounds the compressed bytes, not the pixels: a small PNG
+ * can declare a huge canvas. The header is read first and images above
+ * {@code app.photo.variants.max-pixels} are served as the original only;
+ * the rest are decoded subsampled to about {@link #DECODE_EDGE} px.
+ */
+@Slf4j
+@Service
+public class PhotoVariantService {
+
+    /** Longest-edge sizes in pixels. 256 covers the 96 px UI avatar on high-DPI screens. */
+    public static final List<Integer> SIZES = List.of(64, 256);
+
+    /** Longest edge kept when decoding — 4× the largest variant, so halving still filters. */
+    static final int DECODE_EDGE = 4 * 256;
+
+    private final PatientPhotoRepository        photoRepository;
+    private final PatientPhotoVariantRepository variantRepository;
+    private final Executor                      executor;
+    private final long                          maxPixels;
+
+    private final Set<String> pending      = ConcurrentHashMap.newKeySet();
+    /** Blobs ImageIO cannot decode (e.g. WebP/HEIC) — served as the original, not retried. */
+    private final Set<String> undecodable  = ConcurrentHashMap.newKeySet();
+
+    static {
+        ImageIO.setUseCache(false); // encode in memory, no temp files per thumbnail
+    }
+
+    public PhotoVariantService(PatientPhotoRepository photoRepository,
+                               PatientPhotoVariantRepository variantRepository,
+                               @Qualifier("photoVariantExecutor") Executor executor,
+                               @Value("${app.photo.variants.max-pixels:40000000}") long maxPixels) {
+        this.photoRepository   = photoRepository;
+        this.variantRepository = variantRepository;
+        this.executor          = executor;
+        this.maxPixels         = maxPixels;
+    }
+
+    public static boolean isSupportedSize(int sizePx) {
+        return SIZES.contains(sizePx);
+    }
+
+    /** Queues generation of any missing variants of {@code hash}; returns immediately. */
+    public void requestVariants(String hash) {
+        if (undecodable.contains(hash) || !pending.add(hash)) return;
+        try {
+            executor.execute(() -> {
+                try {
+                    generateVariants(hash);
+                } catch (Exception ex) {
+                    log.warn("Photo variant generation failed hash={}: {}", hash, ex.getMessage());
+                } finally {
+                    pending.remove(hash);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            pending.remove(hash);
+            log.warn("Photo variant queue full — skipped hash={}", hash);
+        }
+    }
+
+    void generateVariants(String hash) throws IOException {
+        List<Integer> existing = variantRepository.findSizesByContentHash(hash);
+        List<Integer> missing  = SIZES.stream().filter(s -> !existing.contains(s)).toList();
+        if (missing.isEmpty()) return;
+
+        PatientPhoto photo = photoRepository.findById(hash).orElse(null);
+        if (photo == null) return; // released before the task ran
+
+        BufferedImage source = decode(hash, photo);
+        if (source == null) {
+            undecodable.add(hash);
+            return;
+        }
+
+        long start = System.nanoTime();
+        for (int size : missing) {
+            Rendition rendition = render(source, size);
+            try {
+                variantRepository.insertIfAbsent(hash, size, rendition.contentType(),
+                        rendition.data().length, rendition.data());
+            } catch (DataIntegrityViolationException ex) {
+                return; // blob deleted meanwhile — FK rejects the variant
+            }
+        }
+        log.debug("Generated photo variants hash={} sizes={} in {} ms",
+                hash, missing, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Reads the dimensions from the header, then decodes only every n-th
+     * pixel of every n-th row so the result's longest edge is between
+     * {@link #DECODE_EDGE} and twice that. Null (logged) when no ImageIO
+     * reader handles the format or the image exceeds {@code maxPixels}.
+     */
+    BufferedImage decode(String hash, PatientPhoto photo) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(photo.getData()))) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                log.info("No ImageIO reader for photo hash={} type={} — serving original only",
+                        hash, photo.getContentType());
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width  = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    log.info("Photo hash={} is {}x{} px, above the {} px cap — serving original only",
+                            hash, width, height, maxPixels);
+                    return null;
+                }
+                int step = Math.max(1, Math.max(width, height) / DECODE_EDGE);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scales so the longest edge is at most {@code maxEdge} (never upscales).
+     * Shrinks by halves with bilinear filtering — a single bilinear step from
+     * 2000 px to 64 px skips most source pixels and aliases badly. Images with
+     * alpha stay PNG; everything else is re-encoded as JPEG.
+     */
+    static Rendition render(BufferedImage source, int maxEdge) throws IOException {
+        boolean alpha  = source.getColorModel().hasAlpha();
+        double  scale  = Math.min(1.0, (double) maxEdge / Math.max(source.getWidth(), source.getHeight()));
+        int     width  = Math.max(1, (int) Math.round(source.getWidth()  * scale));
+        int     height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        do {
+            w = Math.max(width,  w / 2);
+            h = Math.max(height, h / 2);
+            current = resize(current, w, h, alpha);
+        } while (w != width || h != height);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        ImageIO.write(current, alpha ? "png" : "jpg", out);
+        return new Rendition(alpha ? "image/png" : "image/jpeg", out.toByteArray());
+    }
+
+    private static BufferedImage resize(BufferedImage src, int width, int height, boolean alpha) {
+        BufferedImage dst = new BufferedImage(width, height,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = dst.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(src, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return dst;
+    }
+
+    record Rendition(String contentType, byte[] data) {}
+}
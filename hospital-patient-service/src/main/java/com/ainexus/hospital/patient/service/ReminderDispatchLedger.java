@@ -0,0 +1,151 @@
+package com.ainexus.hospital.patient.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * reminder_dispatch_ledger access (V26). Claims are committed with a lease,
+ * so rows of a node that dies mid-chunk become claimable again once the
+ * lease expires. Several nodes running the same cron share the work through
+ * {@code FOR UPDATE SKIP LOCKED} instead of each sending every reminder.
+ *
+ * {@link #claim} is a single statement. Call it outside a transaction so the
+ * claim commits at once. {@link #markNotified} belongs in the transaction
+ * that writes the in-app notifications.
+ */
+@Slf4j
+@Component
+public class ReminderDispatchLedger {
+
+    public enum Status { PENDING, CLAIMED, NOTIFIED, SENT, NO_PHONE, SMS_FAILED, SKIPPED, EXHAUSTED }
+
+    /** A claimed row; {@code notified} means its in-app notification already exists. */
+    public record Claim(long appointmentId, boolean notified) {}
+
+    private static final String SEED_SQL = """
+        INSERT INTO reminder_dispatch_ledger (appointment_id, reminder_date)
+        SELECT id, appointment_date FROM patient_appointments
+        WHERE appointment_date = ? AND status IN ('SCHEDULED', 'CONFIRMED')
+        ON CONFLICT (appointment_id, reminder_date) DO NOTHING
+        """;
+
+    private static final String EXHAUST_SQL = """
+        UPDATE reminder_dispatch_ledger
+        SET status = 'EXHAUSTED', completed_at = NOW()
+        WHERE reminder_date = ?
+          AND status IN ('CLAIMED', 'NOTIFIED')
+          AND claimed_at < NOW() - make_interval(mins => ?)
+          AND attempts >= ?
+        """;
+
+    private static final String CLAIM_SQL = """
+        WITH claimable AS (
+            SELECT appointment_id, status AS previous
+            FROM reminder_dispatch_ledger
+            WHERE reminder_date = ?
+              AND (status = 'PENDING'
+                   OR (status IN ('CLAIMED', 'NOTIFIED')
+                       AND claimed_at < NOW() - make_interval(mins => ?)
+                       AND attempts < ?))
+            ORDER BY appointment_id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+        )
+        UPDATE reminder_dispatch_ledger l
+        SET status     = CASE WHEN c.previous = 'NOTIFIED' THEN 'NOTIFIED' ELSE 'CLAIMED' END,
+            attempts   = l.attempts + 1,
+            claimed_by = ?,
+            claimed_at = NOW()
+        FROM claimable c
+        WHERE l.appointment_id = c.appointment_id AND l.reminder_date = ?
+        RETURNING l.appointment_id, c.previous
+        """;
+
+    private static final String MARK_SQL = """
+        UPDATE reminder_dispatch_ledger
+        SET status = ?, completed_at = CASE WHEN ? THEN NOW() ELSE completed_at END
+        WHERE appointment_id = ? AND reminder_date = ? AND claimed_by = ?
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String       nodeId;
+    private final int          leaseMinutes;
+    private final int          maxAttempts;
+
+    public ReminderDispatchLedger(JdbcTemplate jdbcTemplate,
+                                  @Value("${app.instance-id:}") String instanceId,
+                                  @Value("${app.reminders.claim-lease-minutes:10}") int leaseMinutes,
+                                  @Value("${app.reminders.max-attempts:3}") int maxAttempts) {
+        this.jdbcTemplate = jdbcTemplate;
+        // RuntimeMXBean name is "pid@hostname" — unique per running JVM
+        this.nodeId       = instanceId.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : instanceId;
+        this.leaseMinutes = leaseMinutes;
+        this.maxAttempts  = maxAttempts;
+    }
+
+    /** How long a claim stays with this node before other nodes may take it over. */
+    public Duration lease() {
+        return Duration.ofMinutes(leaseMinutes);
+    }
+
+    /**
+     * Adds PENDING rows for appointments on {@code date} that have none yet, and
+     * retires rows whose lease expired {@code max-attempts} times. Idempotent;
+     * every node calls it at the start of a run.
+     *
+     * @return number of rows added
+     */
+    public int seed(LocalDate date) {
+        int exhausted = jdbcTemplate.update(EXHAUST_SQL, Date.valueOf(date), leaseMinutes, maxAttempts);
+        if (exhausted > 0) {
+            log.warn("Reminder ledger: {} reminders for {} abandoned after {} attempts", exhausted, date, maxAttempts);
+        }
+        return jdbcTemplate.update(SEED_SQL, Date.valueOf(date));
+    }
+
+    /** Claims up to {@code limit} open reminders of {@code date} for this node. */
+    public List<Claim> claim(LocalDate date, int limit) {
+        return jdbcTemplate.query(CLAIM_SQL,
+                (rs, rowNum) -> new Claim(rs.getLong(1), Status.NOTIFIED.name().equals(rs.getString(2))),
+                Date.valueOf(date), leaseMinutes, maxAttempts, limit, nodeId, Date.valueOf(date));
+    }
+
+    /** Records that the in-app notifications exist; the lease keeps running. */
+    public void markNotified(LocalDate date, List<Long> appointmentIds) {
+        mark(date, Status.NOTIFIED, appointmentIds);
+    }
+
+    /** Records final outcomes. Rows since reclaimed by another node are left alone. */
+    public void complete(LocalDate date, Map<Long, Status> outcomes) {
+        if (outcomes.isEmpty()) return;
+        jdbcTemplate.batchUpdate(MARK_SQL, List.copyOf(outcomes.entrySet()), outcomes.size(), (ps, entry) -> {
+            ps.setString(1, entry.getValue().name());
+            ps.setBoolean(2, true);
+            ps.setLong(3, entry.getKey());
+            ps.setDate(4, Date.valueOf(date));
+            ps.setString(5, nodeId);
+        });
+    }
+
+    // ── Private helpers ──────────────────────────────────────────────────────
+
+    private void mark(LocalDate date, Status status, List<Long> appointmentIds) {
+        if (appointmentIds.isEmpty()) return;
+        jdbcTemplate.batchUpdate(MARK_SQL, appointmentIds, appointmentIds.size(), (ps, appointmentId) -> {
+            ps.setString(1, status.name());
+            ps.setBoolean(2, false);
+            ps.setLong(3, appointmentId);
+            ps.setDate(4, Date.valueOf(date));
+            ps.setString(5, nodeId);
+        });
+    }
+}
@@ -0,0 +1,229 @@
+package com.ainexus.hospital.patient.service;
+
+import com.ainexus.hospital.patient.model.AppointmentStatus;
+import com.ainexus.hospital.patient.model.NotificationType;
+import com.ainexus.hospital.patient.model.PatientAppointment;
+import com.ainexus.hospital.patient.model.PatientNotification;
+import com.ainexus.hospital.patient.repository.PatientAppointmentRepository;
+import com.ainexus.hospital.patient.repository.PatientRepository;
+import com.ainexus.hospital.patient.repository.projection.PatientPhoneRow;
+import com.ainexus.hospital.patient.service.ReminderDispatchLedger.Claim;
+import com.ainexus.hospital.patient.service.ReminderDispatchLedger.Status;
+import com.ainexus.hospital.patient.sms.SmsProvider;
+import com.ainexus.hospital.patient.sms.SmsRateLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sends appointment reminders for one day, claiming work from
+ * {@link ReminderDispatchLedger} in chunks of {@code app.reminders.chunk-size}.
+ * For each claimed chunk:
+ * <ol>
+ *   <li>one query loads the patients' phone numbers (only that column is decrypted),</li>
+ *   <li>one JDBC batch inserts the in-app notifications, committed together with
+ *       the ledger moving those rows to NOTIFIED,</li>
+ *   <li>SMS sends fan out over {@code reminderSmsExecutor}, paced by
+ *       {@link SmsRateLimiter}, and the outcomes are written to the ledger.</li>
+ * </ol>
+ * Memory and open work are bounded by one chunk regardless of the day's volume.
+ *
+ * Running it again for the same day only picks up unfinished reminders, so
+ * every replica can run the same cron and a restart resumes where it stopped.
+ * An in-app notification is never written twice. An SMS can be sent twice only
+ * if a node dies after the provider call and before the outcome is recorded;
+ * startup fails if pacing one chunk at the SMS rate could outlast the claim
+ * lease, which would let another node take over rows still being sent.
+ * A provider rejection is recorded as SMS_FAILED and not retried.
+ */
+@Slf4j
+@Service
+public class ReminderDispatchService {
+
+    private static final List<AppointmentStatus> REMINDABLE =
+            List.of(AppointmentStatus.SCHEDULED, AppointmentStatus.CONFIRMED);
+
+    private static final DateTimeFormatter TIME_FMT = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final PatientAppointmentRepository appointmentRepository;
+    private final PatientRepository            patientRepository;
+    private final NotificationService          notificationService;
+    private final ReminderDispatchLedger       ledger;
+    private final SmsProvider                  smsProvider;
+    private final SmsRateLimiter               smsRateLimiter;
+    private final ThreadPoolTaskExecutor       smsExecutor;
+    private final TransactionTemplate          txTemplate;
+    private final int                          chunkSize;
+
+    public ReminderDispatchService(PatientAppointmentRepository appointmentRepository,
+                                   PatientRepository patientRepository,
+                                   NotificationService notificationService,
+                                   ReminderDispatchLedger ledger,
+                                   SmsProvider smsProvider,
+                                   SmsRateLimiter smsRateLimiter,
+                                   @Qualifier("reminderSmsExecutor") ThreadPoolTaskExecutor smsExecutor,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.reminders.chunk-size:500}") int chunkSize) {
+        this.appointmentRepository = appointmentRepository;
+        this.patientRepository     = patientRepository;
+        this.notificationService   = notificationService;
+        this.ledger                = ledger;
+        this.smsProvider           = smsProvider;
+        this.smsRateLimiter        = smsRateLimiter;
+        this.smsExecutor           = smsExecutor;
+        this.txTemplate            = new TransactionTemplate(transactionManager);
+        this.chunkSize             = chunkSize;
+
+        // A chunk must be sent before its claim can be taken over, or another node re-sends it
+        Duration chunkSendTime = smsRateLimiter.timeFor(chunkSize);
+        if (chunkSendTime.compareTo(ledger.lease()) >= 0) {
+            throw new IllegalStateException(String.format(
+                    "app.reminders.claim-lease-minutes (%d) must exceed the %d s needed to send a chunk of %d SMS "
+                            + "at this node's rate; raise the lease or lower app.reminders.chunk-size",
+                    ledger.lease().toMinutes(), chunkSendTime.toSeconds(), chunkSize));
+        }
+    }
+
+    /** Sends any outstanding reminders for SCHEDULED or CONFIRMED appointments on {@code date}. */
+    public void dispatchReminders(LocalDate date) {
+        long started = System.nanoTime();
+        int seeded = ledger.seed(date);
+        DispatchTally tally = new DispatchTally();
+
+        List<Claim> claims;
+        while (!(claims = ledger.claim(date, chunkSize)).isEmpty()) {
+            dispatchChunk(date, claims, tally);
+        }
+
+        if (seeded > 0 || tally.claimed.get() > 0) {
+            log.info("Reminder dispatch for {}: {} new, {} claimed, {} SMS sent, {} without phone, "
+                            + "{} SMS failed, {} skipped in {} ms",
+                    date, seeded, tally.claimed, tally.smsSent, tally.noPhone, tally.smsFailed,
+                    tally.skipped, (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    // ── Private helpers ──────────────────────────────────────────────────────
+
+    private void dispatchChunk(LocalDate date, List<Claim> claims, DispatchTally tally) {
+        tally.claimed.addAndGet(claims.size());
+        Map<Long, PatientAppointment> appointments = appointmentRepository
+                .findAllById(claims.stream().map(Claim::appointmentId).toList())
+                .stream()
+                .collect(Collectors.toMap(PatientAppointment::getId, Function.identity()));
+
+        Map<Long, Status> outcomes = new ConcurrentHashMap<>();
+        List<PatientAppointment> due = new ArrayList<>(claims.size());
+        List<PatientAppointment> needInApp = new ArrayList<>(claims.size());
+        for (Claim claim : claims) {
+            PatientAppointment appt = appointments.get(claim.appointmentId());
+            // Cancelled, rescheduled or deleted since the ledger row was seeded
+            if (appt == null || !date.equals(appt.getAppointmentDate()) || !REMINDABLE.contains(appt.getStatus())) {
+                outcomes.put(claim.appointmentId(), Status.SKIPPED);
+                tally.skipped.incrementAndGet();
+                continue;
+            }
+            due.add(appt);
+            if (!claim.notified()) {
+                needInApp.add(appt);
+            }
+        }
+
+        Map<String, String> phones = due.isEmpty() ? Map.of() : patientRepository.findPhoneNumbers(
+                        due.stream().map(PatientAppointment::getPatientId).collect(Collectors.toSet()))
+                .stream()
+                .filter(row -> row.phoneNumber() != null && !row.phoneNumber().isBlank())
+                .collect(Collectors.toMap(PatientPhoneRow::patientId, PatientPhoneRow::phoneNumber));
+
+        // In-app rows and the NOTIFIED mark commit together, before any SMS leaves
+        if (!needInApp.isEmpty()) {
+            Instant now = Instant.now();
+            List<PatientNotification> inApp = needInApp.stream()
+                    .map(appt -> PatientNotification.builder()
+                            .patientId(appt.getPatientId())
+                            .type(NotificationType.APPOINTMENT_REMINDER)
+                            .title("Appointment Reminder")
+                            .message(Reminder.of(appt).inApp())
+                            .appointmentId(appt.getId())
+                            .createdAt(now)
+                            .build())
+                    .toList();
+            txTemplate.executeWithoutResult(status -> {
+                notificationService.createInAppBatch(inApp);
+                ledger.markNotified(date, needInApp.stream().map(PatientAppointment::getId).toList());
+            });
+        }
+
+        List<CompletableFuture<Void>> sends = new ArrayList<>(due.size());
+        for (PatientAppointment appt : due) {
+            String phone = phones.get(appt.getPatientId());
+            if (phone == null) {
+                outcomes.put(appt.getId(), Status.NO_PHONE);
+                tally.noPhone.incrementAndGet();
+                continue;
+            }
+            sends.add(CompletableFuture.runAsync(() -> outcomes.put(appt.getId(),
+                    sendSms(appt.getPatientId(), phone, Reminder.of(appt).sms(), tally)), smsExecutor));
+        }
+        CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+
+        ledger.complete(date, outcomes);
+    }
+
+    private Status sendSms(String patientId, String phone, String message, DispatchTally tally) {
+        try {
+            smsRateLimiter.acquire();
+            smsProvider.send(patientId, phone, message);
+            tally.smsSent.incrementAndGet();
+            return Status.SENT;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            tally.smsFailed.incrementAndGet();
+            return Status.SMS_FAILED;
+        } catch (Exception ex) {
+            // Never log PHI (phone number or message content)
+            log.error("SMS send failed patientId={} error={}", patientId, ex.getMessage());
+            tally.smsFailed.incrementAndGet();
+            return Status.SMS_FAILED;
+        }
+    }
+
+    private record Reminder(String inApp, String sms) {
+
+        static Reminder of(PatientAppointment appt) {
+            String dateStr = appt.getAppointmentDate().toString();
+            String timeStr = appt.getAppointmentTime().format(TIME_FMT);
+            String doctor  = appt.getDoctorName() != null ? appt.getDoctorName() : "your doctor";
+            return new Reminder(
+                    String.format("Reminder: You have an appointment tomorrow %s at %s with %s.",
+                            dateStr, timeStr, doctor),
+                    String.format("Reminder: Appointment tomorrow %s at %s with %s. — Ai Nexus Hospital",
+                            dateStr, timeStr, doctor));
+        }
+    }
+
+    private static final class DispatchTally {
+        final AtomicInteger claimed   = new AtomicInteger();
+        final AtomicInteger smsSent   = new AtomicInteger();
+        final AtomicInteger smsFailed = new AtomicInteger();
+        final AtomicInteger noPhone   = new AtomicInteger();
+        final AtomicInteger skipped   = new AtomicInteger();
+    }
+}
@@ -0,0 +1,71 @@
+package com.ainexus.hospital.patient.service;
+
+import com.ainexus.hospital.patient.config.AesEncryptionConverter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Encodes keyset pagination positions (sort key values + id of the last row
+ * returned) into opaque, URL-safe cursor strings.
+ *
+ * Patient sort keys are name search tokens — PHI — so the payload is
+ * AES-GCM encrypted with the PHI key rather than merely base64-encoded.
+ * This also makes cursors tamper-evident: any modified or foreign cursor
+ * fails authentication and is rejected with 400.
+ */
+@Component
+@RequiredArgsConstructor
+public class ScrollCursorCodec {
+
+    private final AesEncryptionConverter encryptionConverter;
+
+    /** Null values are encoded as empty strings. */
+    public String encode(String... keys) {
+        String payload = String.join(",", Arrays.stream(keys)
+                .map(k -> URLEncoder.encode(k != null ? k : "", StandardCharsets.UTF_8))
+                .toList());
+        return toUrlSafe(encryptionConverter.convertToDatabaseColumn(payload));
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encode} with exactly {@code keyCount}
+     * keys and converts it with {@code parser}. Any failure — bad base64, failed
+     * decryption, wrong key count, unparseable value — is reported as 400.
+     */
+    public <T> T decode(String cursor, int keyCount, Function<String[], T> parser) {
+        try {
+            String payload = encryptionConverter.convertToEntityAttribute(fromUrlSafe(cursor));
+            String[] keys = payload.split(",", -1);
+            if (keys.length != keyCount) {
+                throw new IllegalArgumentException("Expected " + keyCount + " cursor keys, got " + keys.length);
+            }
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = URLDecoder.decode(keys[i], StandardCharsets.UTF_8);
+            }
+            return parser.apply(keys);
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    // ── Private helpers ──────────────────────────────────────────────────────
+
+    private static String toUrlSafe(String base64) {
+        int end = base64.length();
+        while (end > 0 && base64.charAt(end - 1) == '=') end--;
+        return base64.substring(0, end).replace('+', '-').replace('/', '_');
+    }
+
+    private static String fromUrlSafe(String cursor) {
+        String base64 = cursor.replace('-', '+').replace('_', '/');
+        return base64 + "=".repeat((4 - base64.length() % 4) % 4);
+    }
+}
@@ -4,9 +4,10 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
-import java.util.HexFormat;
+import java.security.GeneralSecurityException;
 
 /**
  * Computes deterministic search index values for patient records.
@@ -18,14 +19,23 @@ import java.util.HexFormat;
  *
  * The HMAC key is the AES encryption key, so search hashes are only
  * reproducible with application access (same security boundary as decryption).
+ *
+ * Mac instances are not thread-safe, so each thread keeps its own pre-keyed
+ * Mac together with reusable digest and hex buffers (see {@link HmacEngine}).
  */
 @Service
 public class SearchIndexService {
 
-    private final byte[] hmacKeyBytes;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int DIGEST_BYTES = 32;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final SecretKeySpec hmacKey;
+    private final ThreadLocal<HmacEngine> engines;
 
     public SearchIndexService(@Value("${app.encryption.key}") String encryptionKey) {
-        this.hmacKeyBytes = encryptionKey.getBytes(StandardCharsets.UTF_8);
+        this.hmacKey = new SecretKeySpec(encryptionKey.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.engines = ThreadLocal.withInitial(() -> new HmacEngine(hmacKey));
     }
 
     /** Normalized lowercase name token for LIKE-based partial search. */
@@ -37,8 +47,15 @@ public class SearchIndexService {
     /** HMAC-SHA256 of the normalized phone number (digits only). */
     public String hashPhone(String phone) {
         if (phone == null || phone.isBlank()) return null;
-        String normalized = phone.replaceAll("[^0-9]", "");
-        return hmac(normalized);
+        HmacEngine engine = engines.get();
+        Mac mac = engine.mac;
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                mac.update((byte) c);
+            }
+        }
+        return engine.finish();
     }
 
     /** HMAC-SHA256 of lowercase-trimmed email. */
@@ -92,13 +109,44 @@ public class SearchIndexService {
     }
 
     private String hmac(String value) {
-        try {
-            Mac mac = Mac.getInstance("HmacSHA256");
-            mac.init(new SecretKeySpec(hmacKeyBytes, "HmacSHA256"));
-            byte[] digest = mac.doFinal(value.getBytes(StandardCharsets.UTF_8));
-            return HexFormat.of().formatHex(digest);
-        } catch (Exception e) {
-            throw new RuntimeException("Search index hashing failed", e);
+        HmacEngine engine = engines.get();
+        engine.mac.update(value.getBytes(StandardCharsets.UTF_8));
+        return engine.finish();
+    }
+
+    /**
+     * Per-thread HMAC state: a Mac keyed once at creation plus the digest and
+     * hex buffers reused across calls. {@code doFinal} resets the Mac, so the
+     * engine is ready for the next value as soon as {@link #finish()} returns.
+     */
+    private static final class HmacEngine {
+
+        private final Mac mac;
+        private final byte[] digest = new byte[DIGEST_BYTES];
+        private final char[] hex = new char[DIGEST_BYTES * 2];
+
+        private HmacEngine(SecretKeySpec key) {
+            try {
+                this.mac = Mac.getInstance(HMAC_ALGORITHM);
+                this.mac.init(key);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Search index hashing failed", e);
+            }
+        }
+
+        private String finish() {
+            try {
+                mac.doFinal(digest, 0);
+            } catch (ShortBufferException e) {
+                mac.reset();
+                throw new IllegalStateException("Search index hashing failed", e);
+            }
+            for (int i = 0; i < DIGEST_BYTES; i++) {
+                int b = digest[i] & 0xFF;
+                hex[i * 2] = HEX[b >>> 4];
+                hex[i * 2 + 1] = HEX[b & 0x0F];
+            }
+            return new String(hex);
         }
     }
 }
@@ -1,11 +1,15 @@
 package com.ainexus.hospital.patient.sms;
 
+import com.ainexus.hospital.patient.exception.SmsDeliveryException;
+
 public interface SmsProvider {
     /**
-     * Send an SMS message.
+     * Send an SMS message. Returns once the provider has accepted it.
      * @param patientId  for audit/logging only (never log phone/message content)
      * @param toPhone    destination phone number (decrypted at call site)
      * @param message    SMS text content
+     * @throws SmsDeliveryException if the provider rejected the message (including
+     *         rate limiting) or could not be reached; the caller decides whether to retry
      */
     void send(String patientId, String toPhone, String message);
 }
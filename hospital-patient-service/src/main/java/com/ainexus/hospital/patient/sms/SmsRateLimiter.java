@@ -0,0 +1,68 @@
+package com.ainexus.hospital.patient.sms;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket in front of the active {@link SmsProvider}. Carriers and
+ * Twilio throttle per sending number (a long code accepts about 1 msg/s,
+ * toll-free and short codes more), and excess requests are queued or
+ * rejected on their side. Set {@code app.sms.rate-per-second} to the
+ * provider account's limit.
+ *
+ * The bucket is per JVM, not shared between replicas: each node paces itself
+ * at {@code rate-per-second / app.sms.replicas}, so {@code replicas} must be
+ * the number of instances sending SMS. Too low and the account limit is
+ * exceeded (sends then fail and are retried); too high only sends slower.
+ *
+ * The bucket holds up to one second of permits, so a short burst goes out
+ * at once, and then callers are spaced at the configured rate. Each caller
+ * reserves its slot under the lock and sleeps outside it.
+ */
+@Component
+public class SmsRateLimiter {
+
+    private final double nanosPerPermit;
+    private final double capacity;
+
+    private double tokens;
+    private long   lastRefill;
+
+    public SmsRateLimiter(@Value("${app.sms.rate-per-second:10}") double accountPermitsPerSecond,
+                          @Value("${app.sms.replicas:1}") int replicas) {
+        if (accountPermitsPerSecond <= 0) {
+            throw new IllegalArgumentException("app.sms.rate-per-second must be positive");
+        }
+        if (replicas < 1) {
+            throw new IllegalArgumentException("app.sms.replicas must be at least 1");
+        }
+        double permitsPerSecond = accountPermitsPerSecond / replicas;
+        this.nanosPerPermit = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        this.capacity       = Math.max(1, permitsPerSecond);
+        this.tokens         = capacity;
+        this.lastRefill     = System.nanoTime();
+    }
+
+    /** Upper bound on how long this node needs to pace {@code sends} sends, ignoring the burst. */
+    public Duration timeFor(int sends) {
+        return Duration.ofNanos((long) (sends * nanosPerPermit));
+    }
+
+    /** Blocks until a send is allowed. */
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) / nanosPerPermit);
+            lastRefill = now;
+            tokens -= 1;    // negative = permits already promised to waiting callers
+            waitNanos = tokens >= 0 ? 0 : (long) (-tokens * nanosPerPermit);
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
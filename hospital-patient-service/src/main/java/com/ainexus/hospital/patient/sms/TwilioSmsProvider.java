@@ -1,5 +1,6 @@
 package com.ainexus.hospital.patient.sms;
 
+import com.ainexus.hospital.patient.exception.SmsDeliveryException;
 import com.ainexus.hospital.patient.model.SmsDeliveryLog;
 import com.ainexus.hospital.patient.model.SmsStatus;
 import com.ainexus.hospital.patient.repository.SmsDeliveryLogRepository;
@@ -64,7 +65,13 @@ public class TwilioSmsProvider implements SmsProvider {
             logEntry.setStatus(SmsStatus.FAILED);
             logEntry.setErrorMessage(ex.getMessage());
             log.error("[SMS-TWILIO] patientId={} status=FAILED error={}", patientId, ex.getCode());
-            // Never rethrow — SMS is fire-and-forget
+            throw new SmsDeliveryException("Twilio rejected the message, error " + ex.getCode());
+        } catch (RuntimeException ex) {
+            // Connection failures and the like: nothing was accepted
+            logEntry.setStatus(SmsStatus.FAILED);
+            logEntry.setErrorMessage(ex.getClass().getSimpleName());
+            log.error("[SMS-TWILIO] patientId={} status=FAILED error={}", patientId, ex.getClass().getSimpleName());
+            throw new SmsDeliveryException("Twilio request failed: " + ex.getClass().getSimpleName());
         } finally {
             smsLogRepository.save(logEntry);
         }
@@ -0,0 +1,19 @@
+-- Prefix-search indexes for the planned patient search (PatientSearchPlanner).
+--
+-- Free-text search now issues one predicate per classified term:
+--   patient ID / MRN → patient_id LIKE 'P2026%' / mrn LIKE 'MRN2026%'
+--   name            → last_name_search LIKE 'smi%' OR first_name_search LIKE 'smi%'
+--   phone / email   → hash equality (existing idx_patients_phone_hash / idx_patients_email_hash)
+--
+-- A plain B-tree under a non-C collation cannot serve LIKE 'x%'; the
+-- varchar_pattern_ops operator class can, and still serves equality, so it
+-- replaces the plain name-search indexes (also used by duplicate detection).
+-- The unique indexes on patient_id and mrn are kept for exact lookups.
+
+DROP INDEX IF EXISTS idx_patients_first_name_search;
+DROP INDEX IF EXISTS idx_patients_last_name_search;
+
+CREATE INDEX idx_patients_first_name_search_prefix ON patients (first_name_search varchar_pattern_ops);
+CREATE INDEX idx_patients_last_name_search_prefix  ON patients (last_name_search  varchar_pattern_ops);
+CREATE INDEX idx_patients_patient_id_prefix        ON patients (patient_id        varchar_pattern_ops);
+CREATE INDEX idx_patients_mrn_prefix               ON patients (mrn               varchar_pattern_ops) WHERE mrn IS NOT NULL;
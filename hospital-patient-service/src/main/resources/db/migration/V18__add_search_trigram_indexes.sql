@@ -0,0 +1,21 @@
+-- Trigram indexes for substring patient search.
+--
+-- Search terms of 3+ characters are matched as substrings (LIKE '%smi%'),
+-- which no B-tree can serve. pg_trgm GIN indexes can, as long as the pattern
+-- contains at least one complete trigram; shorter terms stay on the prefix
+-- indexes from V17 (see PatientSearchRepositoryImpl).
+--
+-- Name search columns are stored lower-case and patient_id / mrn upper-case,
+-- so queries compare the raw column with a pre-normalised term — no LOWER()
+-- that would stop the planner from matching these indexes.
+--
+-- pg_trgm ships with the standard PostgreSQL contrib package (included in the
+-- official postgres Docker image). CREATE EXTENSION needs a role with CREATE
+-- privilege on the database.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_patients_first_name_search_trgm ON patients USING gin (first_name_search gin_trgm_ops);
+CREATE INDEX idx_patients_last_name_search_trgm  ON patients USING gin (last_name_search  gin_trgm_ops);
+CREATE INDEX idx_patients_patient_id_trgm        ON patients USING gin (patient_id        gin_trgm_ops);
+CREATE INDEX idx_patients_mrn_trgm               ON patients USING gin (mrn               gin_trgm_ops);
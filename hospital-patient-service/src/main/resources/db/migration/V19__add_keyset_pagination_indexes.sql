@@ -0,0 +1,24 @@
+-- Keyset (seek) pagination for GET /patients/scroll and GET /appointments/scroll.
+--
+-- Each slice resumes with a row-value comparison on the full sort key, e.g.
+--   WHERE (last_name_search, first_name_search, id) > ($1, $2, $3)
+--   ORDER BY last_name_search, first_name_search, id LIMIT 21
+-- which a composite B-tree on the same columns answers with a single range
+-- scan, whatever the depth — no OFFSET rows to skip and no COUNT(*).
+
+-- Row-value comparisons treat NULL as unknown, which would silently drop
+-- rows from the scroll. The application always writes the name search
+-- tokens; rows that predate V4 may still have NULLs, so normalise them.
+UPDATE patients SET first_name_search = '' WHERE first_name_search IS NULL;
+UPDATE patients SET last_name_search  = '' WHERE last_name_search  IS NULL;
+
+ALTER TABLE patients
+    ALTER COLUMN first_name_search SET DEFAULT '',
+    ALTER COLUMN first_name_search SET NOT NULL,
+    ALTER COLUMN last_name_search  SET DEFAULT '',
+    ALTER COLUMN last_name_search  SET NOT NULL;
+
+CREATE INDEX idx_patients_name_keyset ON patients (last_name_search, first_name_search, id);
+
+-- Appointments scroll newest first; a B-tree is scanned backwards for DESC order.
+CREATE INDEX idx_appointments_keyset ON patient_appointments (appointment_date, appointment_time, id);
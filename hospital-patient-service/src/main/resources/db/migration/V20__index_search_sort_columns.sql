@@ -0,0 +1,17 @@
+-- Sort the patient list on the plaintext search tokens, not on ciphertext.
+--
+-- idx_patients_name covered (last_name, first_name), which hold AES-GCM
+-- ciphertext with random IVs: ordering by them is meaningless, so the index
+-- only cost writes. The list is now ordered by
+-- (last_name_search, first_name_search, id).
+--
+-- The list endpoint is almost always filtered by status, so the composite
+-- index leads with status: "WHERE status = 'ACTIVE' ORDER BY ... LIMIT 20"
+-- becomes an index-ordered top-N scan with no sort step. Unfiltered lists use
+-- idx_patients_name_keyset (V19). idx_patients_status is a prefix of the new
+-- index and is dropped.
+
+DROP INDEX IF EXISTS idx_patients_name;
+DROP INDEX IF EXISTS idx_patients_status;
+
+CREATE INDEX idx_patients_status_name ON patients (status, last_name_search, first_name_search, id);
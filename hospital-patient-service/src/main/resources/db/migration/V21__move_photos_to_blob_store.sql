@@ -0,0 +1,36 @@
+-- Patient photos move out of the patients row into a content-addressed blob table.
+-- Any findByPatientId (existence checks, SMS sends, relationship responses) used to
+-- drag the photo bytea — up to 2 MB — across the wire; patients now only carries
+-- the SHA-256 of the image and a has_photo flag. Identical uploads share one blob.
+
+CREATE TABLE patient_photos (
+    content_hash  CHAR(64)     PRIMARY KEY,             -- lowercase hex SHA-256 of data
+    content_type  VARCHAR(50)  NOT NULL,
+    size_bytes    INTEGER      NOT NULL,
+    data          BYTEA        NOT NULL,
+    created_at    TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+ALTER TABLE patients
+    ADD COLUMN photo_hash CHAR(64) REFERENCES patient_photos(content_hash),
+    ADD COLUMN has_photo  BOOLEAN  NOT NULL DEFAULT FALSE;
+
+-- Copy existing photos — one blob per distinct content
+INSERT INTO patient_photos (content_hash, content_type, size_bytes, data)
+SELECT DISTINCT ON (hash) hash, COALESCE(photo_content_type, 'image/jpeg'), length(photo), photo
+FROM (SELECT encode(sha256(photo), 'hex') AS hash, photo_content_type, photo
+      FROM patients
+      WHERE photo IS NOT NULL AND length(photo) > 0) src
+ORDER BY hash;
+
+UPDATE patients
+SET    photo_hash = encode(sha256(photo), 'hex'),
+       has_photo  = TRUE
+WHERE  photo IS NOT NULL AND length(photo) > 0;
+
+ALTER TABLE patients
+    DROP COLUMN photo,
+    DROP COLUMN photo_content_type;
+
+-- Orphan check on replace/delete: "is this blob still referenced?"
+CREATE INDEX idx_patients_photo_hash ON patients(photo_hash) WHERE photo_hash IS NOT NULL;
@@ -0,0 +1,14 @@
+-- Pre-scaled photo variants (avatar/thumbnail sizes) generated in the background after
+-- upload, so list and search pages fetch a few KB per avatar instead of the 2 MB original.
+-- Keyed by the source blob's content hash: patients sharing an image share its variants,
+-- and releasing an orphaned blob removes its variants with it.
+
+CREATE TABLE patient_photo_variants (
+    content_hash  CHAR(64)     NOT NULL REFERENCES patient_photos(content_hash) ON DELETE CASCADE,
+    size_px       INTEGER      NOT NULL,                -- longest edge in pixels
+    content_type  VARCHAR(50)  NOT NULL,
+    size_bytes    INTEGER      NOT NULL,
+    data          BYTEA        NOT NULL,
+    created_at    TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (content_hash, size_px)
+);
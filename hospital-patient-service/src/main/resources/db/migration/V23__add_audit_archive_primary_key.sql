@@ -0,0 +1,9 @@
+-- Archive rows keep the id of the audit_logs row they came from. audit_logs_archive.id
+-- has no default, so it is assigned on archival rather than generated, and made the
+-- primary key: an entry can be archived only once.
+--
+-- audit_logs stays append-only. Moving expired entries out of it must not need a
+-- DELETE exception on its immutability trigger.
+
+ALTER TABLE audit_logs_archive
+    ADD CONSTRAINT audit_logs_archive_pkey PRIMARY KEY (id);
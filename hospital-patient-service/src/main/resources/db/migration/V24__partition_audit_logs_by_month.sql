@@ -0,0 +1,222 @@
+-- Monthly range partitions on occurred_at for audit_logs and audit_logs_archive.
+--
+-- audit_logs grows with every READ. With one partition per month:
+--   * a per-patient or date-bounded query only visits the months in range,
+--   * retention archives a whole month by DETACHing it from audit_logs and
+--     ATTACHing it to audit_logs_archive (metadata only — no row copy or delete),
+--   * future months are created ahead of time by fn_ensure_audit_partitions(),
+--     which AuditRetentionService also calls at startup and nightly.
+--
+-- Naming: audit_logs_yYYYYmMM (live) / audit_logs_archive_yYYYYmMM (archived).
+-- Month boundaries are UTC regardless of the session time zone.
+-- Both parents carry the V5 immutability trigger. PostgreSQL clones a row trigger
+-- defined on a partitioned table onto every partition, including ones created or
+-- attached later, so each partition is append-only too.
+--
+-- Partitioned tables need the partition key in the primary key, so both keys become
+-- (id, occurred_at). ids still come from audit_logs_id_seq and stay unique.
+-- archived_at moves from the archive rows to audit_archive_partitions (one row per month).
+
+-- ── 1. Move the existing tables aside ────────────────────────────────────────
+
+ALTER TABLE audit_logs         RENAME TO audit_logs_legacy;
+ALTER TABLE audit_logs_archive RENAME TO audit_logs_archive_legacy;
+
+ALTER TABLE audit_logs_legacy         RENAME CONSTRAINT audit_logs_pkey         TO audit_logs_legacy_pkey;
+ALTER TABLE audit_logs_archive_legacy RENAME CONSTRAINT audit_logs_archive_pkey TO audit_logs_archive_legacy_pkey;
+
+DROP INDEX idx_audit_logs_patient_id;
+DROP INDEX idx_audit_logs_occurred_at;
+DROP INDEX idx_audit_logs_user_id;
+DROP INDEX idx_audit_archive_patient_id;
+DROP INDEX idx_audit_archive_occurred_at;
+DROP INDEX idx_audit_archive_archived_at;
+
+-- Keep the id sequence when the legacy table is dropped
+ALTER SEQUENCE audit_logs_id_seq OWNED BY NONE;
+
+-- ── 2. Partitioned parents ───────────────────────────────────────────────────
+
+CREATE TABLE audit_logs (
+    id          BIGINT       NOT NULL DEFAULT nextval('audit_logs_id_seq'),
+    user_id     VARCHAR(100) NOT NULL,
+    username    VARCHAR(100) NOT NULL,
+    user_role   VARCHAR(50)  NOT NULL,
+    action      VARCHAR(20)  NOT NULL,
+    patient_id  VARCHAR(10)  NOT NULL,
+    ip_address  VARCHAR(45),
+    occurred_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (id, occurred_at)
+) PARTITION BY RANGE (occurred_at);
+
+ALTER SEQUENCE audit_logs_id_seq OWNED BY audit_logs.id;
+
+-- Same columns as audit_logs so a detached partition can be attached here unchanged
+CREATE TABLE audit_logs_archive (
+    id          BIGINT       NOT NULL,
+    user_id     VARCHAR(100) NOT NULL,
+    username    VARCHAR(100) NOT NULL,
+    user_role   VARCHAR(50)  NOT NULL,
+    action      VARCHAR(20)  NOT NULL,
+    patient_id  VARCHAR(10)  NOT NULL,
+    ip_address  VARCHAR(45),
+    occurred_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (id, occurred_at)
+) PARTITION BY RANGE (occurred_at);
+
+-- Identical index definitions on both parents: ATTACH then adopts the detached
+-- partition's existing indexes instead of building new ones.
+CREATE INDEX idx_audit_logs_patient_id  ON audit_logs(patient_id, occurred_at);
+CREATE INDEX idx_audit_logs_occurred_at ON audit_logs(occurred_at);
+CREATE INDEX idx_audit_logs_user_id     ON audit_logs(user_id);
+
+CREATE INDEX idx_audit_archive_patient_id  ON audit_logs_archive(patient_id, occurred_at);
+CREATE INDEX idx_audit_archive_occurred_at ON audit_logs_archive(occurred_at);
+CREATE INDEX idx_audit_archive_user_id     ON audit_logs_archive(user_id);
+
+CREATE TABLE audit_archive_partitions (
+    partition_name VARCHAR(63)  PRIMARY KEY,
+    range_start    TIMESTAMP WITH TIME ZONE NOT NULL,
+    range_end      TIMESTAMP WITH TIME ZONE NOT NULL,
+    row_count      BIGINT       NOT NULL,
+    archived_at    TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+-- ── 3. Partition management ──────────────────────────────────────────────────
+
+-- Creates the month partition of p_parent ('audit_logs' or 'audit_logs_archive')
+-- containing p_month, if it does not exist. Returns true if it was created.
+CREATE OR REPLACE FUNCTION fn_create_audit_partition(p_parent TEXT, p_month DATE)
+RETURNS BOOLEAN AS $$
+DECLARE
+    v_start DATE := date_trunc('month', p_month)::DATE;
+    v_from  TIMESTAMPTZ := v_start::TIMESTAMP AT TIME ZONE 'UTC';
+    v_to    TIMESTAMPTZ := (v_start + INTERVAL '1 month') AT TIME ZONE 'UTC';
+    v_name  TEXT := p_parent || to_char(v_start, '"_y"YYYY"m"MM');
+BEGIN
+    IF to_regclass(v_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+    EXECUTE format(
+        'CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+        v_name, p_parent, v_from, v_to);
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Ensures audit_logs partitions exist for the current month and p_months_ahead
+-- months after it. Returns how many partitions were created.
+CREATE OR REPLACE FUNCTION fn_ensure_audit_partitions(p_months_ahead INTEGER)
+RETURNS INTEGER AS $$
+DECLARE
+    v_month   DATE := date_trunc('month', NOW() AT TIME ZONE 'UTC')::DATE;
+    v_created INTEGER := 0;
+BEGIN
+    FOR i IN 0..p_months_ahead LOOP
+        IF fn_create_audit_partition('audit_logs', (v_month + make_interval(months => i))::DATE) THEN
+            v_created := v_created + 1;
+        END IF;
+    END LOOP;
+    RETURN v_created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Moves one audit_logs month partition into audit_logs_archive and returns its row count.
+-- Runs in the caller's transaction, so it either completes or leaves nothing changed.
+-- The CHECK constraint is validated before DETACH. It scans only the (old, idle)
+-- partition and lets ATTACH skip its own validation scan. That way the ACCESS
+-- EXCLUSIVE lock DETACH takes on audit_logs lasts only for catalog changes.
+CREATE OR REPLACE FUNCTION fn_archive_audit_partition(p_partition TEXT)
+RETURNS BIGINT AS $$
+DECLARE
+    v_month   DATE;
+    v_start   TIMESTAMPTZ;
+    v_end     TIMESTAMPTZ;
+    v_archive TEXT;
+    v_rows    BIGINT;
+BEGIN
+    IF p_partition !~ '^audit_logs_y[0-9]{4}m[0-9]{2}$' THEN
+        RAISE EXCEPTION 'Not an audit_logs month partition: %', p_partition;
+    END IF;
+
+    v_month   := to_date(substring(p_partition FROM 12), '"y"YYYY"m"MM');
+    v_start   := v_month::TIMESTAMP AT TIME ZONE 'UTC';
+    v_end     := (v_month + INTERVAL '1 month') AT TIME ZONE 'UTC';
+    v_archive := 'audit_logs_archive_' || substring(p_partition FROM 12);
+
+    EXECUTE format('SELECT count(*) FROM %I', p_partition) INTO v_rows;
+
+    EXECUTE format('ALTER TABLE %I ADD CONSTRAINT %I CHECK (occurred_at >= %L AND occurred_at < %L)',
+                   p_partition, p_partition || '_range', v_start, v_end);
+    EXECUTE format('ALTER TABLE audit_logs DETACH PARTITION %I', p_partition);
+    -- Cloned triggers are dropped on DETACH on current PostgreSQL versions; be explicit
+    EXECUTE format('DROP TRIGGER IF EXISTS trg_audit_logs_immutable ON %I', p_partition);
+    EXECUTE format('ALTER TABLE %I RENAME TO %I', p_partition, v_archive);
+    EXECUTE format('ALTER TABLE audit_logs_archive ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   v_archive, v_start, v_end);
+    EXECUTE format('ALTER TABLE %I DROP CONSTRAINT %I', v_archive, p_partition || '_range');
+
+    INSERT INTO audit_archive_partitions (partition_name, range_start, range_end, row_count)
+    VALUES (v_archive, v_start, v_end, v_rows);
+
+    RETURN v_rows;
+END;
+$$ LANGUAGE plpgsql;
+
+-- ── 4. Create partitions for existing data and copy it across ────────────────
+
+DO $$
+DECLARE
+    r RECORD;
+BEGIN
+    FOR r IN SELECT DISTINCT date_trunc('month', occurred_at AT TIME ZONE 'UTC')::DATE AS m FROM audit_logs_legacy LOOP
+        PERFORM fn_create_audit_partition('audit_logs', r.m);
+    END LOOP;
+    FOR r IN SELECT DISTINCT date_trunc('month', occurred_at AT TIME ZONE 'UTC')::DATE AS m FROM audit_logs_archive_legacy LOOP
+        PERFORM fn_create_audit_partition('audit_logs_archive', r.m);
+    END LOOP;
+END;
+$$;
+
+SELECT fn_ensure_audit_partitions(3);
+
+INSERT INTO audit_logs (id, user_id, username, user_role, action, patient_id, ip_address, occurred_at)
+SELECT id, user_id, username, user_role, action, patient_id, ip_address, occurred_at
+FROM audit_logs_legacy;
+
+INSERT INTO audit_logs_archive (id, user_id, username, user_role, action, patient_id, ip_address, occurred_at)
+SELECT id, user_id, username, user_role, action, patient_id, ip_address, occurred_at
+FROM audit_logs_archive_legacy;
+
+INSERT INTO audit_archive_partitions (partition_name, range_start, range_end, row_count, archived_at)
+SELECT 'audit_logs_archive' || to_char(m, '"_y"YYYY"m"MM'),
+       m AT TIME ZONE 'UTC', (m + INTERVAL '1 month') AT TIME ZONE 'UTC', n, last_archived
+FROM (
+    SELECT date_trunc('month', occurred_at AT TIME ZONE 'UTC') AS m, count(*) AS n, max(archived_at) AS last_archived
+    FROM audit_logs_archive_legacy
+    GROUP BY 1
+) archived_months;
+
+DROP TABLE audit_logs_legacy;
+DROP TABLE audit_logs_archive_legacy;
+
+-- ── 5. Immutability on every partition ───────────────────────────────────────
+
+CREATE TRIGGER trg_audit_logs_immutable
+    BEFORE DELETE OR UPDATE ON audit_logs
+    FOR EACH ROW
+    EXECUTE FUNCTION fn_prevent_audit_modification();
+
+CREATE TRIGGER trg_audit_logs_archive_immutable
+    BEFORE DELETE OR UPDATE ON audit_logs_archive
+    FOR EACH ROW
+    EXECUTE FUNCTION fn_prevent_audit_modification();
+
+COMMENT ON TABLE audit_logs IS
+    'Append-only HIPAA audit log, partitioned by month on occurred_at. Every partition is '
+    'protected by trg_audit_logs_immutable. Retention: minimum 6 years per HIPAA §164.530(j); '
+    'older months are moved to audit_logs_archive by fn_archive_audit_partition().';
+
+COMMENT ON TABLE audit_logs_archive IS
+    'HIPAA audit log archive: month partitions detached from audit_logs after 6 years. '
+    'Immutable. Retention: indefinite (minimum 6 years from occurred_at).';
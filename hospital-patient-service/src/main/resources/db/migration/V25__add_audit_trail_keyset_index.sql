@@ -0,0 +1,15 @@
+-- Keyset pagination for GET /patients/{id}/audit-trail (AuditTrailRepositoryImpl).
+--
+-- The trail is read newest first by (occurred_at, id) with a row-comparison seek
+-- "(occurred_at, id) < (?, ?)". With id as the trailing column, each slice is a single
+-- backward range scan for the patient; action and user filters are checked on the rows
+-- that scan visits. The index supersedes the V24 (patient_id, occurred_at) index.
+--
+-- The definition must stay identical on both parents, because ATTACH adopts matching
+-- indexes when a month partition is moved to the archive.
+
+DROP INDEX idx_audit_logs_patient_id;
+DROP INDEX idx_audit_archive_patient_id;
+
+CREATE INDEX idx_audit_logs_trail    ON audit_logs(patient_id, occurred_at, id);
+CREATE INDEX idx_audit_archive_trail ON audit_logs_archive(patient_id, occurred_at, id);
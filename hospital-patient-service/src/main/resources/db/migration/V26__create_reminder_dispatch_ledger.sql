@@ -0,0 +1,34 @@
+-- One row per appointment reminder, so reminder runs are idempotent, resumable and can be
+-- shared by several replicas (ReminderDispatchLedger / ReminderDispatchService).
+--
+-- Every run first seeds PENDING rows for the day (INSERT ... ON CONFLICT DO NOTHING).
+-- Then each node claims chunks with SELECT ... FOR UPDATE SKIP LOCKED and commits the
+-- claim with a lease. Two nodes never claim the same row. If a node dies mid-chunk,
+-- its rows become claimable again once claimed_at is older than the lease.
+--
+-- status:
+--   PENDING     seeded, not yet claimed
+--   CLAIMED     claimed by claimed_by; nothing sent yet
+--   NOTIFIED    in-app notification written (same transaction); SMS not yet confirmed
+--   SENT        SMS handed to the provider
+--   NO_PHONE    in-app only — patient has no phone number
+--   SMS_FAILED  provider call threw; not retried, to avoid duplicate texts
+--   SKIPPED     appointment cancelled, moved or deleted since the row was seeded
+--   EXHAUSTED   lease expired max-attempts times; left for investigation
+
+CREATE TABLE reminder_dispatch_ledger (
+    appointment_id  BIGINT       NOT NULL,
+    reminder_date   DATE         NOT NULL,              -- appointment day the reminder is for
+    status          VARCHAR(20)  NOT NULL DEFAULT 'PENDING',
+    attempts        INTEGER      NOT NULL DEFAULT 0,
+    claimed_by      VARCHAR(100),
+    claimed_at      TIMESTAMP WITH TIME ZONE,
+    completed_at    TIMESTAMP WITH TIME ZONE,
+    created_at      TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (appointment_id, reminder_date)
+);
+
+-- Claim scan: open rows of one day in appointment order
+CREATE INDEX idx_reminder_ledger_open
+    ON reminder_dispatch_ledger (reminder_date, appointment_id)
+    WHERE status IN ('PENDING', 'CLAIMED', 'NOTIFIED');
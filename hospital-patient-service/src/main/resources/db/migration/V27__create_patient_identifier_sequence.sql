@@ -0,0 +1,22 @@
+-- One sequence for both the Patient ID (P{year}{n}) and the MRN (MRN{year}{n}).
+-- PatientIdentifierAllocator takes one nextval per block: a call returning v reserves
+-- v .. v + 49 for that instance, which hands them out from memory (hi/lo).
+-- Values of a block left unused when an instance stops are skipped, never reused.
+--
+-- Starts above every value patient_seq and mrn_seq have issued, so new identifiers
+-- cannot collide with existing ones.
+
+CREATE SEQUENCE patient_identifier_seq
+    INCREMENT BY 50
+    NO MAXVALUE
+    NO CYCLE;
+
+SELECT setval('patient_identifier_seq',
+              GREATEST((SELECT CASE WHEN is_called THEN last_value ELSE 0 END FROM patient_seq),
+                       (SELECT CASE WHEN is_called THEN last_value ELSE 0 END FROM mrn_seq)) + 1,
+              false);
+
+-- Dropped rather than left behind: an instance still running the old code during a
+-- rollout fails its registrations instead of issuing numbers from a block above.
+DROP SEQUENCE patient_seq;
+DROP SEQUENCE mrn_seq;
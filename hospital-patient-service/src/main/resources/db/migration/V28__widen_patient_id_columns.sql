@@ -0,0 +1,22 @@
+-- Patient IDs are P{year}{seq}: VARCHAR(10) ends at P202699999. A bulk import of an
+-- existing patient base passes 100,000 quickly, so the business ID and every column
+-- that stores it are widened to 20 characters (sequence values up to 15 digits).
+-- MRNs share the sequence as MRN{year}{seq}; VARCHAR(15) would end at 8 digits, so
+-- mrn is widened to 22 characters for the same 15 digits.
+--
+-- Increasing a VARCHAR limit is a catalog-only change in PostgreSQL: no table rewrite
+-- and no index rebuild. On audit_logs / audit_logs_archive the change cascades to
+-- every monthly partition.
+
+ALTER TABLE patients               ALTER COLUMN patient_id         TYPE VARCHAR(20),
+                                   ALTER COLUMN mrn                TYPE VARCHAR(22);
+ALTER TABLE patient_relationships  ALTER COLUMN patient_id         TYPE VARCHAR(20),
+                                   ALTER COLUMN related_patient_id TYPE VARCHAR(20);
+ALTER TABLE patient_insurance      ALTER COLUMN patient_id         TYPE VARCHAR(20);
+ALTER TABLE patient_vitals         ALTER COLUMN patient_id         TYPE VARCHAR(20);
+ALTER TABLE patient_appointments   ALTER COLUMN patient_id         TYPE VARCHAR(20);
+ALTER TABLE patient_allergies      ALTER COLUMN patient_id         TYPE VARCHAR(20);
+ALTER TABLE patient_notifications  ALTER COLUMN patient_id         TYPE VARCHAR(20);
+ALTER TABLE sms_delivery_log       ALTER COLUMN patient_id         TYPE VARCHAR(20);
+ALTER TABLE audit_logs             ALTER COLUMN patient_id         TYPE VARCHAR(20);
+ALTER TABLE audit_logs_archive     ALTER COLUMN patient_id         TYPE VARCHAR(20);
@@ -0,0 +1,19 @@
+-- Hibernate's pooled optimizer: entities take ids from these sequences in blocks of 50
+-- (@SequenceGenerator allocationSize = 50) instead of IDENTITY, which forced an
+-- INSERT ... RETURNING round trip per row and disabled JDBC insert batching.
+--
+-- A nextval returning v reserves v-49 .. v. After this change the next nextval returns
+-- last_value + 50, so the first block starts right after the highest existing id.
+-- The column defaults stay in place for plain SQL inserts. Such an insert takes one
+-- whole block for its row, which only leaves a gap.
+--
+-- audit_logs_id_seq keeps INCREMENT BY 1: audit rows are only written by AuditWriter's
+-- JDBC batches through the column default, never through Hibernate.
+
+ALTER SEQUENCE patients_id_seq              INCREMENT BY 50;
+ALTER SEQUENCE patient_insurance_id_seq     INCREMENT BY 50;
+ALTER SEQUENCE patient_vitals_id_seq        INCREMENT BY 50;
+ALTER SEQUENCE patient_appointments_id_seq  INCREMENT BY 50;
+ALTER SEQUENCE patient_allergies_id_seq     INCREMENT BY 50;
+ALTER SEQUENCE patient_notifications_id_seq INCREMENT BY 50;
+ALTER SEQUENCE sms_delivery_log_id_seq      INCREMENT BY 50;
@@ -0,0 +1,23 @@
+-- Durable overflow for appointment notifications (NotificationOutbox / NotificationDispatcher).
+--
+-- Notifications are delivered on the bounded notificationExecutor pool. When its queue is
+-- full, or the pool is shutting down, the rendered notification is written here instead
+-- of being dropped. A poller replays rows once the pool has spare capacity. Each row is
+-- deleted in the same transaction that writes its in-app notification.
+--
+-- A replay that fails rolls back the delete and increments attempts, so the row moves
+-- behind rows that have not failed. After app.notifications.max-attempts it is no longer
+-- replayed and stays here with last_error for investigation.
+
+CREATE TABLE notification_outbox (
+    id              BIGSERIAL    PRIMARY KEY,
+    patient_id      VARCHAR(20)  NOT NULL,
+    type            VARCHAR(50)  NOT NULL,
+    title           VARCHAR(200) NOT NULL,
+    in_app_message  TEXT         NOT NULL,
+    sms_message     TEXT,
+    appointment_id  BIGINT,
+    attempts        INTEGER      NOT NULL DEFAULT 0,
+    last_error      TEXT,
+    created_at      TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
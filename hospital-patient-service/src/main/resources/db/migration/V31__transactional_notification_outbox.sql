@@ -0,0 +1,48 @@
+-- notification_outbox becomes a transactional outbox. Booking, updating and cancelling an
+-- appointment insert the rendered notification here in the same transaction as the
+-- appointment change, so a notification exists exactly when the change committed.
+-- NotificationDispatcher on every node polls it.
+--
+-- Rows are claimed with SELECT ... FOR UPDATE SKIP LOCKED and the claim commits with a
+-- lease (claimed_by / claimed_at). A node that dies mid-delivery leaves its rows
+-- claimable again once the lease expires. Delivery is at-least-once:
+--   - The in-app notification is written in the same transaction as the row moving to
+--     NOTIFIED, so it is never written twice.
+--   - The lease is renewed right before the SMS is sent, after waiting for the rate
+--     limiter. SMS can repeat if a node dies between the provider call and marking
+--     DONE, or if the provider call itself outlasts the lease.
+--
+-- dedup_key identifies the business event (e.g. appointment:42:CANCELLED). Producers
+-- insert with ON CONFLICT (dedup_key) DO NOTHING, so the same event is never enqueued
+-- twice while its row is retained.
+--
+-- status:
+--   PENDING   waiting for delivery (or for next_attempt_at after a failure)
+--   NOTIFIED  in-app notification written; SMS not yet confirmed
+--   DONE      delivered; purged after app.notifications.retention-days
+--   FAILED    max-attempts reached; left for investigation
+
+ALTER TABLE notification_outbox
+    ADD COLUMN dedup_key        VARCHAR(150),
+    ADD COLUMN status           VARCHAR(20)  NOT NULL DEFAULT 'PENDING',
+    ADD COLUMN next_attempt_at  TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    ADD COLUMN claimed_by       VARCHAR(100),
+    ADD COLUMN claimed_at       TIMESTAMP WITH TIME ZONE,
+    ADD COLUMN completed_at     TIMESTAMP WITH TIME ZONE;
+
+-- Overflow rows written before this migration have no business key
+UPDATE notification_outbox SET dedup_key = 'outbox:' || id WHERE dedup_key IS NULL;
+
+ALTER TABLE notification_outbox
+    ALTER COLUMN dedup_key SET NOT NULL,
+    ADD CONSTRAINT uq_notification_outbox_dedup_key UNIQUE (dedup_key);
+
+-- Claim scan: open rows in due order
+CREATE INDEX idx_notification_outbox_due
+    ON notification_outbox (next_attempt_at, id)
+    WHERE status IN ('PENDING', 'NOTIFIED');
+
+-- Retention purge
+CREATE INDEX idx_notification_outbox_completed
+    ON notification_outbox (completed_at)
+    WHERE status = 'DONE';
@@ -0,0 +1,202 @@
+package com.ainexus.hospital.patient.audit;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Month partitions of audit_logs (V24) against PostgreSQL: creation ahead of
+ * time, nightly archival by DETACH / ATTACH, and the immutability trigger on
+ * partitions before and after they move.
+ *
+ * Not transactional: archival commits per month as in production. Partitions
+ * a test creates are dropped afterwards (DROP TABLE is not a row operation,
+ * so the trigger does not stop it).
+ */
+@JdbcTest
+@AutoConfigureEmbeddedDatabase(type = POSTGRES, provider = ZONKY)
+@Import(AuditRetentionService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AuditRetentionServiceTest {
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("'y'yyyy'm'MM");
+
+    @Autowired JdbcTemplate          jdbcTemplate;
+    @Autowired AuditRetentionService retentionService;
+
+    private final List<LocalDate> months = new ArrayList<>();
+
+    @AfterEach
+    void dropTestPartitions() {
+        for (LocalDate month : months) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + live(month));
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + archived(month));
+            jdbcTemplate.update("DELETE FROM audit_archive_partitions WHERE partition_name = ?", archived(month));
+        }
+    }
+
+    // ── fn_ensure_audit_partitions ────────────────────────────────────────────
+
+    @Test
+    void ensurePartitions_createsCurrentAndUpcomingMonths_once() {
+        LocalDate thisMonth = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+
+        jdbcTemplate.queryForObject("SELECT fn_ensure_audit_partitions(5)", Integer.class);
+
+        for (int i = 0; i <= 5; i++) {
+            assertEquals("audit_logs", parentOf(live(thisMonth.plusMonths(i))));
+        }
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT fn_ensure_audit_partitions(5)", Integer.class));
+    }
+
+    @Test
+    void createPartition_routesRowsOnUtcMonthBoundaries() {
+        LocalDate month = track(LocalDate.of(2015, 3, 1));
+        create(month);
+
+        long first = insert("2015-03-01T00:00:00Z");
+        long last  = insert("2015-03-31T23:59:59.999999Z");
+
+        assertEquals(live(month), partitionOf("audit_logs", first));
+        assertEquals(live(month), partitionOf("audit_logs", last));
+        assertThrows(DataAccessException.class, () -> insert("2015-02-28T23:59:59Z"),
+                "no partition for February");
+    }
+
+    // ── Archival ──────────────────────────────────────────────────────────────
+
+    @Test
+    void expiredPartitions_keepsTheMonthContainingTheCutoff() {
+        List<String> live = List.of("audit_logs_y2020m01", "audit_logs_y2020m02", "audit_logs_y2020m03",
+                "audit_logs_y2026m03");
+
+        // Cutoff 2020-02-28: February has not entirely passed it
+        assertEquals(List.of("audit_logs_y2020m01"),
+                AuditRetentionService.expiredPartitions(live, LocalDate.of(2026, 2, 28)));
+        // Cutoff 2020-03-01: all of February is older than six years
+        assertEquals(List.of("audit_logs_y2020m01", "audit_logs_y2020m02"),
+                AuditRetentionService.expiredPartitions(live, LocalDate.of(2026, 3, 1)));
+    }
+
+    @Test
+    void archiveExpiredAuditLogs_movesMonthsBeforeTheCutoffMonth_only() {
+        LocalDate cutoffMonth = LocalDate.now(ZoneOffset.UTC).minusYears(6).withDayOfMonth(1);
+        LocalDate expired     = track(cutoffMonth.minusMonths(1));
+        LocalDate retained    = track(cutoffMonth);
+        create(expired);
+        create(retained);
+        long expiredId  = insert(expired.plusDays(3));
+        long retainedId = insert(retained.plusDays(3));
+
+        retentionService.archiveExpiredAuditLogs();
+
+        assertEquals("audit_logs_archive", parentOf(archived(expired)));
+        assertNull(jdbcTemplate.queryForObject("SELECT to_regclass(?)::text", String.class, live(expired)));
+        assertEquals(archived(expired), partitionOf("audit_logs_archive", expiredId));
+        assertEquals(1L, jdbcTemplate.queryForObject(
+                "SELECT row_count FROM audit_archive_partitions WHERE partition_name = ?", Long.class, archived(expired)));
+
+        assertEquals("audit_logs", parentOf(live(retained)));
+        assertEquals(live(retained), partitionOf("audit_logs", retainedId));
+    }
+
+    // ── Immutability ──────────────────────────────────────────────────────────
+
+    @Test
+    void livePartition_rejectsUpdateAndDelete_throughParentAndDirectly() {
+        LocalDate month = track(LocalDate.of(2015, 4, 1));
+        create(month);
+        long id = insert(month.plusDays(1));
+
+        assertImmutable("audit_logs", id);
+        assertImmutable(live(month), id);
+    }
+
+    @Test
+    void archivedPartition_rejectsUpdateAndDelete_afterDetachAndAttach() {
+        LocalDate month = track(LocalDate.of(2015, 5, 1));
+        create(month);
+        long id = insert(month.plusDays(1));
+
+        assertEquals(1L, jdbcTemplate.queryForObject(
+                "SELECT fn_archive_audit_partition(?)", Long.class, live(month)));
+
+        assertImmutable("audit_logs_archive", id);
+        assertImmutable(archived(month), id);
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM audit_logs_archive WHERE id = ? AND username = 'admin1'", Integer.class, id));
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    private LocalDate track(LocalDate month) {
+        months.add(month);
+        return month;
+    }
+
+    private static String live(LocalDate month) {
+        return "audit_logs_" + month.format(SUFFIX);
+    }
+
+    private static String archived(LocalDate month) {
+        return "audit_logs_archive_" + month.format(SUFFIX);
+    }
+
+    private void create(LocalDate month) {
+        assertEquals(Boolean.TRUE, jdbcTemplate.queryForObject(
+                "SELECT fn_create_audit_partition('audit_logs', ?)", Boolean.class, Date.valueOf(month)));
+    }
+
+    private long insert(LocalDate day) {
+        return insert(day.atStartOfDay(ZoneOffset.UTC).toInstant().toString());
+    }
+
+    private long insert(String occurredAt) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO audit_logs (user_id, username, user_role, action, patient_id, occurred_at)
+                VALUES ('user-1', 'admin1', 'ADMIN', 'READ', 'P9100001', ?)
+                RETURNING id
+                """, Long.class, Timestamp.from(Instant.parse(occurredAt)));
+    }
+
+    private String parentOf(String partition) {
+        return jdbcTemplate.queryForObject("""
+                SELECT i.inhparent::regclass::text FROM pg_inherits i
+                WHERE i.inhrelid = to_regclass(?)
+                """, String.class, partition);
+    }
+
+    private String partitionOf(String parent, long id) {
+        return jdbcTemplate.queryForObject(
+                "SELECT tableoid::regclass::text FROM " + parent + " WHERE id = ?", String.class, id);
+    }
+
+    private void assertImmutable(String table, long id) {
+        DataAccessException update = assertThrows(DataAccessException.class, () -> jdbcTemplate.update(
+                "UPDATE " + table + " SET username = 'tampered' WHERE id = ?", id));
+        assertTrue(update.getMessage().contains("immutable"), update.getMessage());
+        DataAccessException delete = assertThrows(DataAccessException.class, () -> jdbcTemplate.update(
+                "DELETE FROM " + table + " WHERE id = ?", id));
+        assertTrue(delete.getMessage().contains("immutable"), delete.getMessage());
+    }
+}
@@ -0,0 +1,207 @@
+package com.ainexus.hospital.patient.audit;
+
+import com.ainexus.hospital.patient.model.AuditLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * AuditWriter's queueing and fallbacks with JDBC mocked out: batches are
+ * recorded in {@link #flushed}, synchronous single-row writes are counted
+ * via {@code jdbcTemplate.update}.
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditWriterTest {
+
+    @Mock JdbcTemplate               jdbcTemplate;
+    @Mock PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry  meterRegistry = new SimpleMeterRegistry();
+    private final List<List<AuditLog>> flushed       = new ArrayList<>();
+    private AuditWriter writer;
+
+    @BeforeEach
+    void commitEveryTransaction() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @AfterEach
+    void stopWriter() {
+        if (writer != null && writer.isRunning()) writer.stop();
+    }
+
+    // ── Durable ───────────────────────────────────────────────────────────────
+
+    @Test
+    void durable_writeReturnsOnlyAfterTheBatchCommitted() {
+        recordBatches();
+        writer = start("durable", 100);
+        AuditLog entry = entry();
+
+        writer.write(entry);
+
+        assertEquals(List.of(List.of(entry)), flushed());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void durable_rowThatCannotBeInserted_failsTheWrite() {
+        doThrow(new DataIntegrityViolationException("batch rejected"))
+                .when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("row rejected"));
+        writer = start("durable", 100);
+
+        assertThrows(DataIntegrityViolationException.class, () -> writer.write(entry()));
+        assertEquals(1.0, meterRegistry.counter("audit.writer.failed").count());
+    }
+
+    @Test
+    void failedBatch_isRetriedRowByRow_andOnlyTheBadRowIsLost() {
+        doThrow(new DataIntegrityViolationException("batch rejected"))
+                .when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class)))
+                .thenReturn(1)
+                .thenThrow(new DataIntegrityViolationException("row rejected"));
+        // Async with a long linger: both entries land in one batch, in order
+        writer = new AuditWriter(jdbcTemplate, transactionManager, meterRegistry, "async", 100, 2, 5000, 5000);
+        writer.start();
+
+        writer.write(entry());
+        writer.write(entry());
+
+        verify(jdbcTemplate, timeout(5000).times(2)).update(anyString(), any(PreparedStatementSetter.class));
+        writer.stop(); // joins the flusher, so the failure has been counted
+        verify(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(1.0, meterRegistry.counter("audit.writer.failed").count());
+    }
+
+    // ── Async ─────────────────────────────────────────────────────────────────
+
+    @Test
+    void async_writeReturnsBeforeTheFlush() throws Exception {
+        CountDownLatch release = blockBatches();
+        writer = start("async", 1);
+        AuditLog entry = entry();
+
+        writer.write(entry);
+
+        assertTrue(flushed().isEmpty());
+        release.countDown();
+        writer.stop(); // joins the flusher, which flushes what is queued first
+        assertEquals(List.of(List.of(entry)), flushed());
+    }
+
+    @Test
+    void async_queueFull_writesOnTheCallersThread() throws Exception {
+        CountDownLatch release = blockBatches();
+        writer = new AuditWriter(jdbcTemplate, transactionManager, meterRegistry, "async", 1, 1, 10, 5000);
+        writer.start();
+
+        writer.write(entry());      // taken by the flusher, which blocks in the batch
+        awaitQueued(0);
+        writer.write(entry());      // fills the queue
+        writer.write(entry());      // no room: inserted synchronously
+
+        verify(jdbcTemplate).update(anyString(), any(PreparedStatementSetter.class));
+        assertEquals(1.0, meterRegistry.counter("audit.writer.sync.fallback").count());
+        release.countDown();
+    }
+
+    // ── Shutdown ──────────────────────────────────────────────────────────────
+
+    @Test
+    void stop_flushesEverythingQueued_thenWritesSynchronously() throws Exception {
+        CountDownLatch release = blockBatches();
+        writer = start("async", 1);
+        List<AuditLog> queued = List.of(entry(), entry(), entry());
+        queued.forEach(writer::write);
+
+        CompletableFuture<Void> stopping = CompletableFuture.runAsync(writer::stop);
+        release.countDown();
+        stopping.get(10, TimeUnit.SECONDS);
+
+        assertEquals(queued, flushed().stream().flatMap(List::stream).toList());
+        verify(jdbcTemplate, never()).update(anyString(), any(PreparedStatementSetter.class));
+
+        writer.write(entry());
+
+        verify(jdbcTemplate).update(anyString(), any(PreparedStatementSetter.class));
+        assertEquals(1.0, meterRegistry.counter("audit.writer.sync.fallback").count());
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    private AuditWriter start(String mode, int batchSize) {
+        AuditWriter started = new AuditWriter(jdbcTemplate, transactionManager, meterRegistry,
+                mode, 100, batchSize, 10, 5000);
+        started.start();
+        return started;
+    }
+
+    private static AuditLog entry() {
+        return AuditLog.builder().userId("user-1").username("nurse1").userRole("NURSE")
+                .action(AuditAction.READ).patientId("P2026001").build();
+    }
+
+    /** Records each batch the flusher inserts. */
+    private void recordBatches() {
+        doAnswer(invocation -> {
+            record(invocation.getArgument(1));
+            return new int[0][];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    /** Records batches, but holds each one in the flusher until the latch opens. */
+    private CountDownLatch blockBatches() {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+            record(invocation.getArgument(1));
+            return new int[0][];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        return release;
+    }
+
+    private void record(Collection<AuditWriter.Pending> batch) {
+        List<AuditLog> entries = batch.stream().map(AuditWriter.Pending::entry).toList();
+        synchronized (flushed) {
+            flushed.add(entries);
+        }
+    }
+
+    private List<List<AuditLog>> flushed() {
+        synchronized (flushed) {
+            return List.copyOf(flushed);
+        }
+    }
+
+    private void awaitQueued(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("audit.writer.queue.depth").gauge().value() != depth) {
+            assertTrue(System.nanoTime() < deadline, "queue depth never reached " + depth);
+            Thread.sleep(5);
+        }
+    }
+}
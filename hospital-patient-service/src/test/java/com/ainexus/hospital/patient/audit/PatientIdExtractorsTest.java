@@ -0,0 +1,98 @@
+package com.ainexus.hospital.patient.audit;
+
+import com.ainexus.hospital.patient.dto.response.PatientResponse;
+import com.ainexus.hospital.patient.model.Gender;
+import com.ainexus.hospital.patient.model.PatientStatus;
+import com.ainexus.hospital.patient.repository.projection.PatientSummaryRow;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatientIdExtractorsTest {
+
+    /** Signatures shaped like the audited service methods. */
+    @SuppressWarnings("unused")
+    interface AuditedMethods {
+        void addVitals(String patientId, Object request);
+        PatientResponse register(Object request);
+        PatientSummaryRow summary(Object request);
+        Object untyped(Object request);
+    }
+
+    // ── Argument ──────────────────────────────────────────────────────────────
+
+    @Test
+    void compile_argumentName_readsThatArgumentSlot() {
+        PatientIdExtractor extractor = compile("addVitals", "#patientId");
+
+        assertTrue(extractor.usesArgs());
+        assertEquals("P2026001", extractor.extract(new Object[] { "P2026001", "body" }, null));
+        assertNull(extractor.extract(new Object[] { null, "body" }, null));
+    }
+
+    @Test
+    void compile_positionalArgument_readsThatArgumentSlot() {
+        assertEquals("body", compile("addVitals", "#p1").extract(new Object[] { "P2026001", "body" }, null));
+        assertEquals("P2026001", compile("addVitals", "#a0").extract(new Object[] { "P2026001", "body" }, null));
+    }
+
+    @Test
+    void compile_unknownArgument_failsAtCompileTime() {
+        assertThrows(IllegalStateException.class, () -> compile("addVitals", "#mrn"));
+        assertThrows(IllegalStateException.class, () -> compile("addVitals", "#p2"));
+    }
+
+    // ── Result getter ─────────────────────────────────────────────────────────
+
+    @Test
+    void compile_resultProperty_callsTheGetterWithoutArgs() {
+        PatientIdExtractor extractor = compile("register", "#result.patientId");
+
+        assertFalse(extractor.usesArgs());
+        assertEquals("P2026001", extractor.extract(null, PatientResponse.builder().patientId("P2026001").build()));
+        assertNull(extractor.extract(null, null));
+    }
+
+    @Test
+    void compile_resultProperty_usesRecordAccessor() {
+        PatientIdExtractor extractor = compile("summary", "#result.patientId");
+        PatientSummaryRow row = new PatientSummaryRow(1L, "P2026003", "MRN2026003", "Alice", "Johnson",
+                "1990-01-01", Gender.FEMALE, "555-000-0003", PatientStatus.ACTIVE, "johnson", "alice");
+
+        assertFalse(extractor.usesArgs());
+        assertEquals("P2026003", extractor.extract(null, row));
+    }
+
+    // ── SpEL fallback ─────────────────────────────────────────────────────────
+
+    @Test
+    void compile_propertyNotOnDeclaredReturnType_fallsBackToSpelOnRuntimeType() {
+        PatientIdExtractor extractor = compile("untyped", "#result.patientId");
+
+        assertTrue(extractor.usesArgs());
+        assertEquals("P2026002", extractor.extract(new Object[] { "body" },
+                PatientResponse.builder().patientId("P2026002").build()));
+    }
+
+    @Test
+    void compile_otherExpression_isEvaluatedBySpelOnEveryCall() {
+        PatientIdExtractor extractor = compile("addVitals", "#patientId.toUpperCase()");
+
+        assertTrue(extractor.usesArgs());
+        // Repeated calls: MIXED mode compiles the expression after the first evaluation
+        for (String id : new String[] { "p2026001", "p2026002", "p2026003" }) {
+            assertEquals(id.toUpperCase(), extractor.extract(new Object[] { id, "body" }, null));
+        }
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    private static PatientIdExtractor compile(String methodName, String expression) {
+        for (Method method : AuditedMethods.class.getMethods()) {
+            if (method.getName().equals(methodName)) return PatientIdExtractors.compile(method, expression);
+        }
+        throw new IllegalArgumentException(methodName);
+    }
+}
@@ -0,0 +1,44 @@
+package com.ainexus.hospital.patient.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncExecutorConfigTest {
+
+    @Test
+    void notificationExecutor_fullQueue_runsOnCallerThreadAndCountsIt() throws InterruptedException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ThreadPoolTaskExecutor executor = new AsyncExecutorConfig().notificationExecutor(1, 1, meterRegistry);
+        executor.initialize();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.execute(() -> awaitQuietly(release));  // occupies the only thread
+            executor.execute(() -> { });                     // fills the queue
+            AtomicReference<Thread> ranOn = new AtomicReference<>();
+
+            executor.execute(() -> ranOn.set(Thread.currentThread()));
+
+            assertSame(Thread.currentThread(), ranOn.get());
+            assertEquals(1.0, meterRegistry.get("executor.rejected")
+                    .tag("name", "notificationExecutor").counter().count());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.ainexus.hospital.patient.controller;
 import com.ainexus.hospital.patient.dto.request.PatientCreateRequest;
 import com.ainexus.hospital.patient.dto.request.PatientStatusRequest;
 import com.ainexus.hospital.patient.dto.request.PatientUpdateRequest;
+import com.ainexus.hospital.patient.dto.response.CursorPageResponse;
 import com.ainexus.hospital.patient.dto.response.PatientResponse;
 import com.ainexus.hospital.patient.dto.response.PatientSummaryResponse;
 import com.ainexus.hospital.patient.exception.PatientNotFoundException;
@@ -10,23 +11,27 @@ import com.ainexus.hospital.patient.model.Gender;
 import com.ainexus.hospital.patient.model.PatientStatus;
 import com.ainexus.hospital.patient.security.JwtAuthFilter;
 import com.ainexus.hospital.patient.security.SecurityConfig;
+import com.ainexus.hospital.patient.service.PatientImportService;
 import com.ainexus.hospital.patient.service.PatientService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.FilterChain;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -47,8 +52,9 @@ class PatientControllerTest {
     @Autowired MockMvc        mockMvc;
     @Autowired ObjectMapper   objectMapper;
 
-    @MockBean PatientService  patientService;
-    @MockBean JwtAuthFilter   jwtAuthFilter; // satisfies SecurityConfig constructor injection
+    @MockBean PatientService       patientService;
+    @MockBean PatientImportService patientImportService;
+    @MockBean JwtAuthFilter        jwtAuthFilter; // satisfies SecurityConfig constructor injection
 
     /** Make the JWT filter mock a transparent pass-through so downstream filters run. */
     @BeforeEach
@@ -163,6 +169,41 @@ class PatientControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @WithMockUser(roles = "RECEPTIONIST")
+    void searchPatients_sortsOnPlaintextSearchColumns() throws Exception {
+        when(patientService.searchPatients(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of()));
+
+        mockMvc.perform(get("/api/v1/patients"))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(patientService).searchPatients(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), pageable.capture());
+        assertEquals(Sort.by("lastNameSearch", "firstNameSearch", "id"), pageable.getValue().getSort());
+    }
+
+    // ── GET /api/v1/patients/scroll ────────────────────────────────────────────
+
+    @Test
+    @WithMockUser(roles = "NURSE")
+    void scrollPatients_returns200_withNextCursor() throws Exception {
+        PatientSummaryResponse summary = PatientSummaryResponse.builder()
+                .patientId("P2026001")
+                .status(PatientStatus.ACTIVE)
+                .build();
+        when(patientService.scrollPatients(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(),
+                eq("abc"), eq(100)))
+                .thenReturn(CursorPageResponse.<PatientSummaryResponse>builder()
+                        .content(List.of(summary)).size(1).hasNext(true).nextCursor("def").build());
+
+        mockMvc.perform(get("/api/v1/patients/scroll").param("cursor", "abc").param("size", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].patientId").value("P2026001"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").value("def"));
+    }
+
     // ── GET /api/v1/patients/{id} ──────────────────────────────────────────────
 
     @Test
@@ -0,0 +1,256 @@
+package com.ainexus.hospital.patient.controller;
+
+import com.ainexus.hospital.patient.repository.projection.PatientPhotoMeta;
+import com.ainexus.hospital.patient.security.JwtAuthFilter;
+import com.ainexus.hospital.patient.security.SecurityConfig;
+import com.ainexus.hospital.patient.service.PatientPhotoService;
+import com.ainexus.hospital.patient.service.PhotoVariantService;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Web layer slice test for PatientPhotoController.getPhoto: variants,
+ * validators, conditional requests and byte ranges. The service is mocked to serve a
+ * ten-byte photo so response bodies can be compared byte for byte.
+ */
+@WebMvcTest(PatientPhotoController.class)
+@Import(SecurityConfig.class)
+class PatientPhotoControllerTest {
+
+    private static final String URL   = "/api/v1/patients/P2026001/photo";
+    private static final String HASH  = "ab12cd34";
+    private static final String ETAG  = "\"" + HASH + "\"";
+    private static final byte[] BYTES = "0123456789".getBytes();
+
+    @Autowired MockMvc mockMvc;
+
+    @MockBean PatientPhotoService photoService;
+    @MockBean PhotoVariantService variantService;
+    @MockBean JwtAuthFilter       jwtAuthFilter; // satisfies SecurityConfig constructor injection
+
+    /** Make the JWT filter mock a transparent pass-through so downstream filters run. */
+    @BeforeEach
+    void configureJwtFilterToForwardChain() throws Exception {
+        doAnswer(invocation -> {
+            ((FilterChain) invocation.getArgument(2))
+                    .doFilter(invocation.getArgument(0), invocation.getArgument(1));
+            return null;
+        }).when(jwtAuthFilter).doFilter(any(), any(), any(FilterChain.class));
+    }
+
+    @BeforeEach
+    void servePhoto() {
+        when(photoService.findPhotoHash("P2026001")).thenReturn(Optional.of(HASH));
+        when(photoService.findPhotoMeta(HASH, null))
+                .thenReturn(Optional.of(new PatientPhotoMeta(HASH, "image/png", BYTES.length)));
+        doAnswer(invocation -> {
+            int offset = Math.toIntExact(invocation.<Long>getArgument(2));
+            int length = Math.toIntExact(invocation.<Long>getArgument(3));
+            invocation.<OutputStream>getArgument(4).write(BYTES, offset, length);
+            return null;
+        }).when(photoService).copyPhoto(eq(HASH), any(), anyLong(), anyLong(), any(OutputStream.class));
+    }
+
+    // ── Full response ─────────────────────────────────────────────────────────
+
+    @Test
+    @WithMockUser(roles = "NURSE")
+    void getPhoto_returnsBytesWithStrongEtag() throws Exception {
+        mockMvc.perform(get(URL))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=3600"))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, BYTES.length))
+                .andExpect(content().contentType("image/png"))
+                .andExpect(content().bytes(BYTES));
+    }
+
+    @Test
+    @WithMockUser(roles = "NURSE")
+    void getPhoto_returns404_whenPatientHasNoPhoto() throws Exception {
+        when(photoService.findPhotoHash("P2026001")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get(URL))
+                .andExpect(status().isNotFound());
+    }
+
+    // ── ?size= variants ───────────────────────────────────────────────────────
+
+    @Test
+    @WithMockUser(roles = "NURSE")
+    void getPhoto_servesVariantWithItsOwnEtag() throws Exception {
+        when(photoService.findPhotoMeta(HASH, 64))
+                .thenReturn(Optional.of(new PatientPhotoMeta(HASH, "image/jpeg", 4)));
+
+        mockMvc.perform(get(URL).param("size", "64"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + HASH + "-64\""))
+                .andExpect(content().contentType("image/jpeg"))
+                .andExpect(content().bytes(Arrays.copyOfRange(BYTES, 0, 4)));
+
+        verify(photoService).copyPhoto(eq(HASH), eq(64), eq(0L), eq(4L), any());
+        verifyNoInteractions(variantService);
+    }
+
+    @Test
+    @WithMockUser(roles = "NURSE")
+    void getPhoto_missingVariant_servesOriginalAndRequestsVariants() throws Exception {
+        when(photoService.findPhotoMeta(HASH, 256)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get(URL).param("size", "256"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(content().contentType("image/png"))
+                .andExpect(content().bytes(BYTES));
+
+        verify(variantService).requestVariants(HASH);
+        verify(photoService).copyPhoto(eq(HASH), isNull(), eq(0L), eq(10L), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "NURSE")
+    void getPhoto_missingVariant_returns304_whenOriginalEtagMatches() throws Exception {
+        when(photoService.findPhotoMeta(HASH, 256)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get(URL).param("size", "256").header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG));
+
+        verify(variantService).requestVariants(HASH);
+    }
+
+    @Test
+    @WithMockUser(roles = "NURSE")
+    void getPhoto_returns400_forUnsupportedSize() throws Exception {
+        mockMvc.perform(get(URL).param("size", "100"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get(URL).param("size", "large"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(photoService);
+    }
+
+    @Test
+    @WithMockUser(roles = "NURSE")
+    void getPhoto_sizeOriginal_isCaseInsensitive() throws Exception {
+        mockMvc.perform(get(URL).param("size", "ORIGINAL"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG));
+    }
+
+    // ── If-None-Match ─────────────────────────────────────────────────────────
+
+    @Test
+    @WithMockUser(roles = "NURSE")
+    void getPhoto_returns304WithoutReadingTheBlob_whenEtagMatches() throws Exception {
+        mockMvc.perform(get(URL).header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(content().bytes(new byte[0]));
+
+        verify(photoService, never()).findPhotoMeta(any(), any());
+        verify(photoService, never()).copyPhoto(any(), any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "NURSE")
+    void getPhoto_returns304_forWeakTagInList_andForStar() throws Exception {
+        mockMvc.perform(get(URL).header(HttpHeaders.IF_NONE_MATCH, "\"other\", W/" + ETAG))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get(URL).header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @WithMockUser(roles = "NURSE")
+    void getPhoto_returns200_whenEtagIsStale() throws Exception {
+        mockMvc.perform(get(URL).header(HttpHeaders.IF_NONE_MATCH, "\"previous-photo\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(BYTES));
+    }
+
+    // ── Range / If-Range ──────────────────────────────────────────────────────
+
+    @Test
+    @WithMockUser(roles = "NURSE")
+    void getPhoto_returns206WithSlice_forSingleRange() throws Exception {
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 4))
+                .andExpect(content().bytes(Arrays.copyOfRange(BYTES, 2, 6)));
+
+        verify(photoService).copyPhoto(eq(HASH), isNull(), eq(2L), eq(4L), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "NURSE")
+    void getPhoto_returns206_forSuffixRange() throws Exception {
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 7-9/10"))
+                .andExpect(content().bytes(Arrays.copyOfRange(BYTES, 7, 10)));
+    }
+
+    @Test
+    @WithMockUser(roles = "NURSE")
+    void getPhoto_returnsWholePhoto_forMultipleRanges() throws Exception {
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=0-1,4-5"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(content().bytes(BYTES));
+    }
+
+    @Test
+    @WithMockUser(roles = "NURSE")
+    void getPhoto_returns206_whenIfRangeMatchesEtag() throws Exception {
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=0-0").header(HttpHeaders.IF_RANGE, ETAG))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().bytes(Arrays.copyOfRange(BYTES, 0, 1)));
+    }
+
+    @Test
+    @WithMockUser(roles = "NURSE")
+    void getPhoto_returnsWholePhoto_whenIfRangeIsStale() throws Exception {
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=0-0").header(HttpHeaders.IF_RANGE, "\"previous-photo\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(content().bytes(BYTES));
+    }
+
+    @Test
+    @WithMockUser(roles = "NURSE")
+    void getPhoto_returns416_whenRangeStartsPastTheEnd() throws Exception {
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=10-20"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+
+        verify(photoService, never()).copyPhoto(any(), any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "NURSE")
+    void getPhoto_returns416_forMalformedRange() throws Exception {
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=5-2"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+}
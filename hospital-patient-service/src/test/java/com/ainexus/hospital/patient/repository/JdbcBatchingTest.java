@@ -0,0 +1,139 @@
+package com.ainexus.hospital.patient.repository;
+
+import com.ainexus.hospital.patient.model.NotificationType;
+import com.ainexus.hospital.patient.model.PatientNotification;
+import com.ainexus.hospital.patient.model.PatientRelationship;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the JDBC statements Hibernate prepares for multi-row writes, using
+ * the session factory statistics. Batching is configured in application.yml
+ * (hibernate.jdbc.batch_size, order_inserts); with sequence ids a flush of N
+ * new rows is one prepared INSERT, executed as one batch.
+ */
+@DataJpaTest
+@TestPropertySource(properties = {
+    "spring.flyway.enabled=false",
+    "app.encryption.key=test-encryption-key-for-unit-tests!",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class JdbcBatchingTest {
+
+    @Autowired PatientRelationshipRepository relationshipRepository;
+    @Autowired PatientNotificationRepository notificationRepository;
+    @Autowired TestEntityManager             entityManager;
+    @Autowired EntityManagerFactory          entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    // ── PatientRelationship (assigned composite key) ──────────────────────────
+
+    @Test
+    void saveAll_newRelationshipPair_insertsWithoutSelectInOneStatement() {
+        relationshipRepository.saveAll(List.of(
+                relationship("P2026001", "P2026002", "PARENT"),
+                relationship("P2026002", "P2026001", "CHILD")));
+        entityManager.flush();
+
+        assertEquals(2, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findLink_thenSaveAll_updatesExistingPairInPlace() {
+        relationshipRepository.saveAll(List.of(
+                relationship("P2026001", "P2026002", "PARENT"),
+                relationship("P2026002", "P2026001", "CHILD")));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<PatientRelationship> link = relationshipRepository.findLink("P2026002", "P2026001");
+        assertEquals(2, link.size());
+        assertTrue(link.stream().noneMatch(PatientRelationship::isNew));
+
+        link.forEach(r -> r.setRelationshipType("OTHER"));
+        statistics.clear();
+        relationshipRepository.saveAll(link);
+        entityManager.flush();
+
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(2, statistics.getEntityUpdateCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void deleteLink_removesBothDirectionsInOneStatement() {
+        relationshipRepository.saveAll(List.of(
+                relationship("P2026001", "P2026002", "SPOUSE"),
+                relationship("P2026002", "P2026001", "SPOUSE")));
+        entityManager.flush();
+        statistics.clear();
+
+        assertEquals(2, relationshipRepository.deleteLink("P2026001", "P2026002"));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(relationshipRepository.findByPatientId("P2026001").isEmpty());
+    }
+
+    // ── PatientNotification (pooled sequence id) ──────────────────────────────
+
+    @Test
+    void saveAll_notifications_onePreparedInsertForWholeBatch() {
+        // On a fresh sequence the pooled optimizer calls nextval twice before its first
+        // block is settled; after that the next 20 ids come from memory
+        notificationRepository.save(notification("P2026000"));
+        entityManager.flush();
+        notificationRepository.save(notification("P2026001"));
+        entityManager.flush();
+        statistics.clear();
+
+        notificationRepository.saveAll(IntStream.range(0, 20)
+                .mapToObj(i -> notification("P20260" + (10 + i)))
+                .toList());
+        entityManager.flush();
+
+        assertEquals(20, statistics.getEntityInsertCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    private static PatientRelationship relationship(String patientId, String relatedPatientId, String type) {
+        return PatientRelationship.builder()
+                .patientId(patientId)
+                .relatedPatientId(relatedPatientId)
+                .relationshipType(type)
+                .createdBy("test-user")
+                .build();
+    }
+
+    private static PatientNotification notification(String patientId) {
+        return PatientNotification.builder()
+                .patientId(patientId)
+                .type(NotificationType.APPOINTMENT_REMINDER)
+                .title("Appointment Reminder")
+                .message("Reminder")
+                .createdAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,86 @@
+package com.ainexus.hospital.patient.repository;
+
+import com.ainexus.hospital.patient.model.Gender;
+import com.ainexus.hospital.patient.model.Patient;
+import com.ainexus.hospital.patient.model.PatientStatus;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PatientBatchRepository against PostgreSQL with the Flyway schema: ids are
+ * reserved from patients_id_seq in pooled blocks (pg_sequences, V29), which
+ * H2 cannot run.
+ */
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(type = POSTGRES, provider = ZONKY)
+@TestPropertySource(properties = "app.encryption.key=test-encryption-key-for-unit-tests!")
+class PatientBatchInsertTest {
+
+    @Autowired PatientRepository patientRepository;
+    @Autowired TestEntityManager entityManager;
+    @Autowired JdbcTemplate      jdbcTemplate;
+
+    @Test
+    void insertEncrypted_assignsDistinctIdsThatJpaInsertsDoNotReuse() {
+        List<Patient> imported = IntStream.range(0, 120)
+                .mapToObj(i -> patient(String.format("P2026%04d", i)))
+                .toList();
+
+        patientRepository.insertEncrypted(imported);
+        Patient registered = patientRepository.save(patient("P20269999"));
+        entityManager.flush();
+
+        assertEquals(121, jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT id) FROM patients", Integer.class));
+        List<Long> ids = imported.stream().map(Patient::getId).toList();
+        assertEquals(ids, jdbcTemplate.queryForList(
+                "SELECT id FROM patients WHERE id <> ? ORDER BY patient_id", Long.class, registered.getId()));
+        assertFalse(ids.contains(registered.getId()));
+    }
+
+    @Test
+    void insertEncrypted_onePatient_usesOneIdFromItsBlock() {
+        Patient single = patient("P20260001");
+
+        patientRepository.insertEncrypted(List.of(single));
+
+        assertNotNull(single.getId());
+        assertEquals("P20260001", jdbcTemplate.queryForObject(
+                "SELECT patient_id FROM patients WHERE id = ?", String.class, single.getId()));
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    private static Patient patient(String patientId) {
+        // insertEncrypted writes the PHI columns as given; the values only need to fit
+        return Patient.builder()
+                .patientId(patientId)
+                .mrn("MRN" + patientId.substring(1))
+                .firstName("ciphertext")
+                .lastName("ciphertext")
+                .dateOfBirth("ciphertext")
+                .gender(Gender.FEMALE)
+                .phoneNumber("ciphertext")
+                .firstNameSearch("jane")
+                .lastNameSearch("doe")
+                .birthYear(1990)
+                .hasAllergies(false)
+                .hasChronicConditions(false)
+                .status(PatientStatus.ACTIVE)
+                .registeredBy("test-user")
+                .registeredAt(Instant.now())
+                .build();
+    }
+}
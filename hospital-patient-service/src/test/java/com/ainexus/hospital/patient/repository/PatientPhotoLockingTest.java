@@ -0,0 +1,141 @@
+package com.ainexus.hospital.patient.repository;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The blob row locks PatientPhotoService takes around an upload and a release
+ * of the same image, run as two real transactions against PostgreSQL.
+ */
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(type = POSTGRES, provider = ZONKY)
+@TestPropertySource(properties = "app.encryption.key=test-encryption-key-for-unit-tests!")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PatientPhotoLockingTest {
+
+    private static final byte[] BYTES = { 1, 2, 3, 4 };
+
+    @Autowired PatientPhotoRepository     photoRepository;
+    @Autowired JdbcTemplate               jdbcTemplate;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    private final ExecutorService uploader = Executors.newSingleThreadExecutor();
+
+    /** Both transactions commit, and the embedded database is shared with other test classes. */
+    @AfterEach
+    void cleanUp() {
+        uploader.shutdownNow();
+        jdbcTemplate.update("DELETE FROM patients WHERE patient_id = 'P2026901'");
+        jdbcTemplate.update("DELETE FROM patient_photos WHERE content_hash IN (?, ?)", hash('a'), hash('b'));
+    }
+
+    @Test
+    void release_waitsForUploadHoldingTheBlob_andKeepsIt() throws Exception {
+        String hash = hash('a');
+        insertBlob(hash);
+        insertPatient("P2026901");
+        CountDownLatch locked = new CountDownLatch(1);
+
+        CompletableFuture<Void> upload = CompletableFuture.runAsync(() -> tx().executeWithoutResult(status -> {
+            assertTrue(photoRepository.lockForReference(hash));
+            locked.countDown();
+            pause();
+            jdbcTemplate.update("UPDATE patients SET photo_hash = ?, has_photo = TRUE WHERE patient_id = ?",
+                    hash, "P2026901");
+        }), uploader);
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+        int deleted = tx().execute(status -> photoRepository.lockForDelete(hash)
+                ? photoRepository.deleteIfUnreferenced(hash) : -1);
+        upload.get(10, TimeUnit.SECONDS);
+
+        assertEquals(0, deleted);
+        assertTrue(photoRepository.existsById(hash));
+        assertEquals(hash, jdbcTemplate.queryForObject(
+                "SELECT photo_hash FROM patients WHERE patient_id = 'P2026901'", String.class));
+    }
+
+    @Test
+    void lockForReference_waitsForPendingDelete_andReportsTheBlobGone() throws Exception {
+        String hash = hash('b');
+        insertBlob(hash);
+        CountDownLatch deleted = new CountDownLatch(1);
+        CompletableFuture<Boolean> present = new CompletableFuture<>();
+
+        tx().executeWithoutResult(status -> {
+            assertTrue(photoRepository.lockForDelete(hash));
+            assertEquals(1, photoRepository.deleteIfUnreferenced(hash));
+            uploader.execute(() -> {
+                deleted.countDown();
+                present.complete(tx().execute(s -> photoRepository.lockForReference(hash)));
+            });
+            awaitQuietly(deleted);
+            pause();
+            assertFalse(present.isDone(), "lock must wait for the deleting transaction");
+        });
+
+        assertFalse(present.get(10, TimeUnit.SECONDS));
+        // The upload then stores the blob again and can reference it
+        photoRepository.insertIfAbsent(hash, "image/png", BYTES.length, new ByteArrayInputStream(BYTES));
+        assertEquals(Boolean.TRUE, tx().execute(s -> photoRepository.lockForReference(hash)));
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    private TransactionTemplate tx() {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    private static String hash(char c) {
+        return String.valueOf(c).repeat(64);
+    }
+
+    private void insertBlob(String hash) {
+        photoRepository.insertIfAbsent(hash, "image/png", BYTES.length, new ByteArrayInputStream(BYTES));
+    }
+
+    private void insertPatient(String patientId) {
+        jdbcTemplate.update("""
+                INSERT INTO patients (patient_id, first_name, last_name, date_of_birth, gender,
+                                      phone_number, registered_by)
+                VALUES (?, 'x', 'x', 'x', 'FEMALE', 'x', 'test')
+                """, patientId);
+    }
+
+    /** Long enough for the other transaction to reach its lock and block. */
+    private static void pause() {
+        try {
+            Thread.sleep(500);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,17 +1,26 @@
 package com.ainexus.hospital.patient.repository;
 
+import com.ainexus.hospital.patient.config.AesEncryptionConverter;
 import com.ainexus.hospital.patient.model.Gender;
 import com.ainexus.hospital.patient.model.Patient;
 import com.ainexus.hospital.patient.model.PatientStatus;
+import com.ainexus.hospital.patient.repository.projection.PatientExportRow;
+import com.ainexus.hospital.patient.repository.projection.PatientSummaryRow;
+import com.ainexus.hospital.patient.repository.search.PatientScrollKey;
+import com.ainexus.hospital.patient.repository.search.PatientSearchCriteria;
+import com.ainexus.hospital.patient.repository.search.SearchTerm;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.TestPropertySource;
 
 import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -21,7 +30,7 @@ import static org.junit.jupiter.api.Assertions.*;
  * Flyway is disabled so Hibernate creates the schema from entity annotations.
  * The encryption key is provided as a test property so AesEncryptionConverter
  * can encrypt/decrypt PHI fields; search index columns (firstNameSearch, etc.)
- * are plaintext and are the fields exercised by the JPQL query under test.
+ * are plaintext and are the fields exercised by the search queries under test.
  */
 @DataJpaTest
 @TestPropertySource(properties = {
@@ -30,6 +39,8 @@ import static org.junit.jupiter.api.Assertions.*;
 })
 class PatientRepositoryTest {
 
+    private static final String TEST_KEY = "test-encryption-key-for-unit-tests!";
+
     @Autowired PatientRepository patientRepository;
 
     private static final PageRequest PAGE = PageRequest.of(0, 20);
@@ -58,7 +69,7 @@ class PatientRepositoryTest {
 
     @Test
     void search_noFilters_returnsAllPatients() {
-        Page<Patient> result = search(null, "", "", null, null, null);
+        Page<PatientSummaryRow> result = search(SearchTerm.NONE, null, null, null);
         assertEquals(3, result.getTotalElements());
     }
 
@@ -66,90 +77,172 @@ class PatientRepositoryTest {
 
     @Test
     void search_activeStatus_returnsOnlyActivePatients() {
-        Page<Patient> result = search(null, "", "", PatientStatus.ACTIVE, null, null);
+        Page<PatientSummaryRow> result = search(SearchTerm.NONE, PatientStatus.ACTIVE, null, null);
         assertEquals(2, result.getTotalElements());
-        result.getContent().forEach(p -> assertEquals(PatientStatus.ACTIVE, p.getStatus()));
+        result.getContent().forEach(p -> assertEquals(PatientStatus.ACTIVE, p.status()));
     }
 
     @Test
     void search_inactiveStatus_returnsOnlyInactivePatients() {
-        Page<Patient> result = search(null, "", "", PatientStatus.INACTIVE, null, null);
+        Page<PatientSummaryRow> result = search(SearchTerm.NONE, PatientStatus.INACTIVE, null, null);
         assertEquals(1, result.getTotalElements());
-        assertEquals("P2026002", result.getContent().get(0).getPatientId());
+        assertEquals("P2026002", result.getContent().get(0).patientId());
     }
 
     // ── searchPatients — gender filter ────────────────────────────────────────
 
     @Test
     void search_femaleGender_returnsOnlyFemalePatients() {
-        Page<Patient> result = search(null, "", "", null, Gender.FEMALE, null);
+        Page<PatientSummaryRow> result = search(SearchTerm.NONE, null, Gender.FEMALE, null);
         assertEquals(2, result.getTotalElements());
-        result.getContent().forEach(p -> assertEquals(Gender.FEMALE, p.getGender()));
+        result.getContent().forEach(p -> assertEquals(Gender.FEMALE, p.gender()));
     }
 
     @Test
     void search_maleGender_returnsOnlyMalePatients() {
-        Page<Patient> result = search(null, "", "", null, Gender.MALE, null);
+        Page<PatientSummaryRow> result = search(SearchTerm.NONE, null, Gender.MALE, null);
         assertEquals(1, result.getTotalElements());
-        assertEquals("P2026001", result.getContent().get(0).getPatientId());
+        assertEquals("P2026001", result.getContent().get(0).patientId());
     }
 
     // ── searchPatients — blood group filter ───────────────────────────────────
 
     @Test
     void search_bloodGroupFilter_returnsMatchingPatients() {
-        Page<Patient> result = search(null, "", "", null, null, "A+");
+        Page<PatientSummaryRow> result = search(SearchTerm.NONE, null, null, "A+");
         assertEquals(1, result.getTotalElements());
-        assertEquals("P2026001", result.getContent().get(0).getPatientId());
+        assertEquals("P2026001", result.getContent().get(0).patientId());
     }
 
     @Test
     void search_bloodGroupFilter_noMatch_returnsEmpty() {
-        Page<Patient> result = search(null, "", "", null, null, "AB-");
+        Page<PatientSummaryRow> result = search(SearchTerm.NONE, null, null, "AB-");
         assertEquals(0, result.getTotalElements());
     }
 
-    // ── searchPatients — text search ──────────────────────────────────────────
+    // ── searchPatients — ordering ─────────────────────────────────────────────
+
+    @Test
+    void search_sortedBySearchColumns_returnsNameOrder() {
+        Page<PatientSummaryRow> result = patientRepository.search(PatientSearchCriteria.builder().build(),
+                PageRequest.of(0, 20, Sort.by("lastNameSearch", "firstNameSearch", "id")));
+        assertEquals(List.of("doe", "johnson", "smith"),
+                result.getContent().stream().map(PatientSummaryRow::lastNameSearch).toList());
+    }
+
+    // ── searchPatients — planned text search ──────────────────────────────────
 
     @Test
     void search_byFirstNamePrefix_returnsMatchingPatient() {
-        Page<Patient> result = search("ali", "", "", null, null, null);
+        Page<PatientSummaryRow> result = search(SearchTerm.nameFragment("ali"), null, null, null);
         assertEquals(1, result.getTotalElements());
-        assertEquals("P2026003", result.getContent().get(0).getPatientId());
+        assertEquals("P2026003", result.getContent().get(0).patientId());
+    }
+
+    @Test
+    void search_projection_decryptsSummaryColumns() {
+        PatientSummaryRow row = search(SearchTerm.nameFragment("ali"), null, null, null).getContent().get(0);
+        // Converter runs on the projected columns, so PHI comes back as plaintext
+        assertEquals("alice", row.firstName());
+        assertEquals("johnson", row.lastName());
+        assertEquals("2000-01-01", row.dateOfBirth());
+        assertEquals("555-000-0001", row.phoneNumber());
     }
 
     @Test
     void search_byLastName_returnsMatchingPatient() {
-        Page<Patient> result = search("smith", "", "", null, null, null);
+        Page<PatientSummaryRow> result = search(SearchTerm.nameFragment("smith"), null, null, null);
         assertEquals(1, result.getTotalElements());
-        assertEquals("P2026002", result.getContent().get(0).getPatientId());
+        assertEquals("P2026002", result.getContent().get(0).patientId());
+    }
+
+    @Test
+    void search_byNameSubstring_matchesMidWord() {
+        // Terms of 3+ characters are substring matches (trigram-indexed in PostgreSQL)
+        Page<PatientSummaryRow> result = search(SearchTerm.nameFragment("mith"), null, null, null);
+        assertEquals(1, result.getTotalElements());
+        assertEquals("P2026002", result.getContent().get(0).patientId());
+    }
+
+    @Test
+    void search_byShortNameTerm_matchesPrefixOnly() {
+        // "oh" occurs inside "john"/"johnson" but is too short for a trigram — prefix only
+        assertEquals(0, search(SearchTerm.nameFragment("oh"), null, null, null).getTotalElements());
+        assertEquals(2, search(SearchTerm.nameFragment("jo"), null, null, null).getTotalElements());
+    }
+
+    @Test
+    void search_byName_treatsLikeWildcardsLiterally() {
+        Page<PatientSummaryRow> result = search(SearchTerm.nameFragment("%"), null, null, null);
+        assertEquals(0, result.getTotalElements());
     }
 
     @Test
     void search_byPatientId_returnsExactMatch() {
-        Page<Patient> result = search("P2026001", "", "", null, null, null);
+        Page<PatientSummaryRow> result = search(SearchTerm.patientIdFragment("P2026001"), null, null, null);
+        assertEquals(1, result.getTotalElements());
+        assertEquals("P2026001", result.getContent().get(0).patientId());
+    }
+
+    @Test
+    void search_byPatientIdPrefix_returnsAllMatching() {
+        Page<PatientSummaryRow> result = search(SearchTerm.patientIdFragment("P2026"), null, null, null);
+        assertEquals(3, result.getTotalElements());
+    }
+
+    @Test
+    void search_byPatientIdSubstring_returnsMatchingPatient() {
+        Page<PatientSummaryRow> result = search(SearchTerm.patientIdFragment("6003"), null, null, null);
+        assertEquals(1, result.getTotalElements());
+        assertEquals("P2026003", result.getContent().get(0).patientId());
+    }
+
+    @Test
+    void search_byMrn_returnsMatchingPatient() {
+        Page<PatientSummaryRow> result = search(SearchTerm.mrnFragment("MRN2026002"), null, null, null);
+        assertEquals(1, result.getTotalElements());
+        assertEquals("P2026002", result.getContent().get(0).patientId());
+    }
+
+    @Test
+    void search_byNumber_matchesPatientIdOrMrnDigits() {
+        Page<PatientSummaryRow> result = search(SearchTerm.number("6003", null), null, null, null);
         assertEquals(1, result.getTotalElements());
-        assertEquals("P2026001", result.getContent().get(0).getPatientId());
+        assertEquals("P2026003", result.getContent().get(0).patientId());
+    }
+
+    @Test
+    void search_byShortNumber_matchesDigitsAfterPrefixOnly() {
+        assertEquals(3, search(SearchTerm.number("20", null), null, null, null).getTotalElements());
+        assertEquals(0, search(SearchTerm.number("03", null), null, null, null).getTotalElements());
+    }
+
+    @Test
+    void search_byNumberWithPhoneHash_alsoMatchesPhone() {
+        Page<PatientSummaryRow> result = search(SearchTerm.number("5550002", "hash-555-0002"), null, null, null);
+        assertEquals(1, result.getTotalElements());
+        assertEquals("P2026002", result.getContent().get(0).patientId());
+
+        assertEquals(1, search(SearchTerm.number("2026001", "hash-none"), null, null, null).getTotalElements());
     }
 
     @Test
     void search_byPhoneHash_returnsExactMatch() {
-        // Phone/email search is hash-based exact match; text term can be anything
-        Page<Patient> result = search("anything", "hash-555-0002", "", null, null, null);
+        Page<PatientSummaryRow> result = search(SearchTerm.phoneHash("hash-555-0002"), null, null, null);
         assertEquals(1, result.getTotalElements());
-        assertEquals("P2026002", result.getContent().get(0).getPatientId());
+        assertEquals("P2026002", result.getContent().get(0).patientId());
     }
 
     @Test
     void search_byEmailHash_returnsExactMatch() {
-        Page<Patient> result = search("anything", "", "hash-alice@x.com", null, null, null);
+        Page<PatientSummaryRow> result = search(SearchTerm.emailHash("hash-alice@x.com"), null, null, null);
         assertEquals(1, result.getTotalElements());
-        assertEquals("P2026003", result.getContent().get(0).getPatientId());
+        assertEquals("P2026003", result.getContent().get(0).patientId());
     }
 
     @Test
     void search_noTextMatch_returnsEmpty() {
-        Page<Patient> result = search("zzznomatch", "", "", null, null, null);
+        Page<PatientSummaryRow> result = search(SearchTerm.nameFragment("zzznomatch"), null, null, null);
         assertEquals(0, result.getTotalElements());
     }
 
@@ -158,26 +251,79 @@ class PatientRepositoryTest {
     @Test
     void search_statusAndGender_combinedFilter() {
         // ACTIVE + FEMALE should return only alice (jane is INACTIVE)
-        Page<Patient> result = search(null, "", "", PatientStatus.ACTIVE, Gender.FEMALE, null);
+        Page<PatientSummaryRow> result = search(SearchTerm.NONE, PatientStatus.ACTIVE, Gender.FEMALE, null);
         assertEquals(1, result.getTotalElements());
-        assertEquals("P2026003", result.getContent().get(0).getPatientId());
+        assertEquals("P2026003", result.getContent().get(0).patientId());
     }
 
     @Test
     void search_textAndStatus_combinedFilter() {
         // "doe" matches john (ACTIVE) — should return 1
-        Page<Patient> result = search("doe", "", "", PatientStatus.ACTIVE, null, null);
+        Page<PatientSummaryRow> result = search(SearchTerm.nameFragment("doe"), PatientStatus.ACTIVE, null, null);
         assertEquals(1, result.getTotalElements());
-        assertEquals("P2026001", result.getContent().get(0).getPatientId());
+        assertEquals("P2026001", result.getContent().get(0).patientId());
+    }
+
+    // ── scroll (keyset pagination) ────────────────────────────────────────────
+
+    @Test
+    void scroll_returnsSlicesInNameOrder_andResumesAfterCursorKey() {
+        List<PatientSummaryRow> first = patientRepository.scroll(PatientSearchCriteria.builder().build(), null, 2);
+        assertEquals(List.of("doe", "johnson"), first.stream().map(PatientSummaryRow::lastNameSearch).toList());
+
+        List<PatientSummaryRow> second = patientRepository.scroll(PatientSearchCriteria.builder().build(),
+                PatientScrollKey.of(first.get(1)), 2);
+        assertEquals(1, second.size());
+        assertEquals("P2026002", second.get(0).patientId());
+    }
+
+    @Test
+    void scroll_appliesFilters() {
+        List<PatientSummaryRow> result = patientRepository.scroll(
+                PatientSearchCriteria.builder().gender(Gender.FEMALE).build(), null, 10);
+        assertEquals(List.of("P2026003", "P2026002"), result.stream().map(PatientSummaryRow::patientId).toList());
+    }
+
+    @Test
+    void scroll_breaksNameTiesById() {
+        Patient twin = patientRepository.save(makePatient("P2026004", "jane", "smith", "hash-555-0004",
+                "hash-jane2@x.com", Gender.FEMALE, PatientStatus.ACTIVE, "B+"));
+        List<PatientSummaryRow> first = patientRepository.scroll(
+                PatientSearchCriteria.builder().term(SearchTerm.nameFragment("smith")).build(), null, 1);
+        assertEquals("P2026002", first.get(0).patientId());
+
+        List<PatientSummaryRow> next = patientRepository.scroll(
+                PatientSearchCriteria.builder().term(SearchTerm.nameFragment("smith")).build(),
+                PatientScrollKey.of(first.get(0)), 10);
+        assertEquals(List.of(twin.getPatientId()), next.stream().map(PatientSummaryRow::patientId).toList());
+    }
+
+    // ── streamExportRows ──────────────────────────────────────────────────────
+
+    @Test
+    void streamExportRows_appliesFilters_andReturnsCiphertextRows() {
+        AesEncryptionConverter converter = new AesEncryptionConverter(TEST_KEY);
+        try (Stream<PatientExportRow> rows = patientRepository.streamExportRows(
+                PatientSearchCriteria.builder().status(PatientStatus.ACTIVE).build())) {
+            List<PatientExportRow> result = rows.toList();
+            assertEquals(2, result.size());
+            // Ordered by surrogate id (insertion order); PHI left as ciphertext for the pipeline
+            assertEquals("P2026001", result.get(0).patientId());
+            assertNotEquals("john", result.get(0).firstName());
+            assertEquals("john", result.get(0).decrypt(converter::convertToEntityAttribute).firstName());
+            assertEquals("P2026003", result.get(1).patientId());
+        }
     }
 
     // ── Helpers ───────────────────────────────────────────────────────────────
 
-    private Page<Patient> search(String text, String phoneHash, String emailHash,
-                                  PatientStatus status, Gender gender, String bloodGroup) {
-        return patientRepository.searchPatients(
-                text, phoneHash, emailHash, status, gender, bloodGroup,
-                null, null, null, null, null, null, PAGE);
+    private Page<PatientSummaryRow> search(SearchTerm term, PatientStatus status, Gender gender, String bloodGroup) {
+        return patientRepository.search(PatientSearchCriteria.builder()
+                .term(term)
+                .status(status)
+                .gender(gender)
+                .bloodGroup(bloodGroup)
+                .build(), PAGE);
     }
 
     private Patient makePatient(String patientId, String firstSearch, String lastSearch,
@@ -185,6 +331,7 @@ class PatientRepositoryTest {
                                  Gender gender, PatientStatus status, String bloodGroup) {
         return Patient.builder()
                 .patientId(patientId)
+                .mrn("MRN" + patientId.substring(1))
                 // Encrypted PHI — values don't matter for search tests;
                 // AesEncryptionConverter will encrypt them transparently.
                 .firstName(firstSearch)
@@ -192,7 +339,7 @@ class PatientRepositoryTest {
                 .dateOfBirth("2000-01-01")
                 .gender(gender)
                 .phoneNumber("555-000-0001")
-                // Plaintext search index columns — these drive the JPQL query
+                // Plaintext search index columns — these drive the search queries
                 .firstNameSearch(firstSearch)
                 .lastNameSearch(lastSearch)
                 .phoneNumberHash(phoneHash)
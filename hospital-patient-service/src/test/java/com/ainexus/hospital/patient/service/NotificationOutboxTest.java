@@ -0,0 +1,314 @@
+package com.ainexus.hospital.patient.service;
+
+import com.ainexus.hospital.patient.event.AppointmentBookedEvent;
+import com.ainexus.hospital.patient.event.AppointmentNotificationListener;
+import com.ainexus.hospital.patient.event.AppointmentStatusChangedEvent;
+import com.ainexus.hospital.patient.exception.SmsDeliveryException;
+import com.ainexus.hospital.patient.model.AppointmentStatus;
+import com.ainexus.hospital.patient.model.NotificationType;
+import com.ainexus.hospital.patient.model.Patient;
+import com.ainexus.hospital.patient.repository.PatientNotificationRepository;
+import com.ainexus.hospital.patient.repository.PatientRepository;
+import com.ainexus.hospital.patient.service.NotificationOutbox.Claim;
+import com.ainexus.hospital.patient.service.NotificationOutbox.Entry;
+import com.ainexus.hospital.patient.sms.SmsProvider;
+import com.ainexus.hospital.patient.sms.SmsRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * notification_outbox claim, lease, retry and deduplication against PostgreSQL
+ * (SKIP LOCKED, ON CONFLICT and make_interval do not run on H2). The schema
+ * comes from the Flyway migrations.
+ *
+ * Not transactional: every outbox call commits on its own, as in production,
+ * and the dispatcher delivers on executor threads with their own connections.
+ */
+@JdbcTest
+@AutoConfigureEmbeddedDatabase(type = POSTGRES, provider = ZONKY)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NotificationOutboxTest {
+
+    private static final int MAX_ATTEMPTS    = 3;
+    private static final int BACKOFF_SECONDS = 30;
+
+    @Autowired JdbcTemplate               jdbcTemplate;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    private NotificationOutbox     nodeA;
+    private NotificationOutbox     nodeB;
+    private ThreadPoolTaskExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM notification_outbox");
+        nodeA = new NotificationOutbox(jdbcTemplate, "node-a", 300, MAX_ATTEMPTS, BACKOFF_SECONDS);
+        nodeB = new NotificationOutbox(jdbcTemplate, "node-b", 300, MAX_ATTEMPTS, BACKOFF_SECONDS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    // ── Deduplication ─────────────────────────────────────────────────────────
+
+    @Test
+    void add_sameDedupKeyTwice_secondIsIgnored() {
+        assertTrue(nodeA.add(entry("appointment:1:BOOKED", "sms")));
+        assertFalse(nodeA.add(entry("appointment:1:BOOKED", "sms")));
+
+        assertEquals(1, count());
+    }
+
+    @Test
+    void listener_repeatedEvents_enqueueOncePerBookingAndPerConfirmedSlot() {
+        AppointmentNotificationListener listener = new AppointmentNotificationListener(nodeA);
+        AppointmentBookedEvent booked = new AppointmentBookedEvent(
+                "P2026001", 7L, "2026-03-01", "09:00", "Dr. Smith", "Cardiology");
+
+        listener.onBooked(booked);
+        listener.onBooked(booked);
+        listener.onStatusChanged(confirmed("09:00"));
+        listener.onStatusChanged(confirmed("09:00"));
+        // Rescheduled and confirmed again: a different slot, so a new notification
+        listener.onStatusChanged(confirmed("10:30"));
+
+        assertEquals(List.of(
+                        "appointment:7:BOOKED",
+                        "appointment:7:CONFIRMED:2026-03-01T09:00",
+                        "appointment:7:CONFIRMED:2026-03-01T10:30"),
+                jdbcTemplate.queryForList("SELECT dedup_key FROM notification_outbox ORDER BY id", String.class));
+    }
+
+    // ── Claims ────────────────────────────────────────────────────────────────
+
+    @Test
+    void claim_rowLeasedByAnotherNode_isSkipped() {
+        nodeA.add(entry("k1", "sms"));
+
+        assertEquals(1, nodeA.claim(10).size());
+        assertTrue(nodeB.claim(10).isEmpty());
+    }
+
+    @Test
+    void markNotifiedAndComplete_afterAnotherNodeTookOverTheClaim_returnFalse() {
+        nodeA.add(entry("k1", "sms"));
+        Claim claimA = nodeA.claim(10).get(0);
+
+        expireLease(claimA.id());
+        Claim claimB = nodeB.claim(10).get(0);
+        assertEquals(claimA.id(), claimB.id());
+        assertEquals(2, claimB.attempts());
+
+        assertFalse(nodeA.markNotified(claimA.id()));
+        assertFalse(nodeA.complete(claimA.id()));
+        assertTrue(nodeB.markNotified(claimB.id()));
+        assertTrue(nodeB.complete(claimB.id()));
+        assertEquals("DONE", status(claimB.id()));
+    }
+
+    // ── Retry ─────────────────────────────────────────────────────────────────
+
+    @Test
+    void retry_backsOffExponentiallyThenFailsAtMaxAttempts() {
+        nodeA.add(entry("k1", "sms"));
+
+        Claim first = nodeA.claim(10).get(0);
+        nodeA.retry(first, "provider down");
+        assertEquals("PENDING", status(first.id()));
+        assertEquals(BACKOFF_SECONDS, secondsUntilDue(first.id()), 5);
+        assertTrue(nodeA.claim(10).isEmpty(), "not due during backoff");
+
+        makeDue(first.id());
+        Claim second = nodeA.claim(10).get(0);
+        assertEquals(2, second.attempts());
+        nodeA.retry(second, "provider down");
+        assertEquals(2 * BACKOFF_SECONDS, secondsUntilDue(second.id()), 5);
+
+        makeDue(second.id());
+        Claim third = nodeA.claim(10).get(0);
+        assertEquals(MAX_ATTEMPTS, third.attempts());
+        nodeA.retry(third, "provider down");
+
+        assertEquals("FAILED", status(third.id()));
+        assertEquals("provider down",
+                jdbcTemplate.queryForObject("SELECT last_error FROM notification_outbox WHERE id = ?",
+                        String.class, third.id()));
+        makeDue(third.id());
+        assertTrue(nodeA.claim(10).isEmpty());
+    }
+
+    @Test
+    void claim_leaseExpiredOnLastAttempt_marksRowFailed() {
+        nodeA.add(entry("k1", "sms"));
+        jdbcTemplate.update("UPDATE notification_outbox SET attempts = ?", MAX_ATTEMPTS - 1);
+        Claim last = nodeA.claim(10).get(0);
+
+        // The node died on the last attempt: nobody released the row
+        expireLease(last.id());
+
+        assertTrue(nodeB.claim(10).isEmpty());
+        assertEquals("FAILED", status(last.id()));
+    }
+
+    // ── Dispatcher ────────────────────────────────────────────────────────────
+
+    @Test
+    void pollOutbox_smsFailsAfterInAppWritten_retrySendsSmsWithoutSecondInAppRow() {
+        NotificationService notificationService = mock(NotificationService.class);
+        doThrow(new IllegalStateException("provider down"))
+                .doNothing()
+                .when(notificationService).deliverSms(anyString(), anyString());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        NotificationDispatcher dispatcher = dispatcher(notificationService, meterRegistry);
+        nodeA.add(entry("k1", "sms"));
+        long id = jdbcTemplate.queryForObject("SELECT id FROM notification_outbox", Long.class);
+
+        dispatcher.pollOutbox();
+
+        assertEquals("NOTIFIED", status(id));
+        verify(notificationService, times(1)).createInApp(any(), any(), any(), any(), any());
+
+        makeDue(id);
+        dispatcher.pollOutbox();
+
+        assertEquals("DONE", status(id));
+        verify(notificationService, times(1)).createInApp(any(), any(), any(), any(), any());
+        verify(notificationService, times(2)).deliverSms("P2026001", "sms");
+        assertEquals(1.0, meterRegistry.counter("notifications.outbox.delivered").count());
+        assertEquals(1.0, meterRegistry.counter("notifications.outbox.retried").count());
+    }
+
+    @Test
+    void pollOutbox_providerRejectsSms_rowIsReleasedForRetryThenDelivered() {
+        PatientRepository patientRepository = mock(PatientRepository.class);
+        SmsProvider smsProvider = mock(SmsProvider.class);
+        when(patientRepository.findByPatientId("P2026001")).thenReturn(Optional.of(
+                Patient.builder().patientId("P2026001").phoneNumber("+15550000001").build()));
+        doThrow(new SmsDeliveryException("Twilio rejected the message, error 30003"))
+                .doNothing()
+                .when(smsProvider).send("P2026001", "+15550000001", "sms");
+        NotificationService notificationService = new NotificationService(
+                mock(PatientNotificationRepository.class), patientRepository, smsProvider);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        NotificationDispatcher dispatcher = dispatcher(notificationService, meterRegistry);
+        nodeA.add(entry("k1", "sms"));
+        long id = jdbcTemplate.queryForObject("SELECT id FROM notification_outbox", Long.class);
+
+        dispatcher.pollOutbox();
+
+        assertEquals("NOTIFIED", status(id));
+        assertEquals("Twilio rejected the message, error 30003",
+                jdbcTemplate.queryForObject("SELECT last_error FROM notification_outbox WHERE id = ?",
+                        String.class, id));
+        assertEquals(BACKOFF_SECONDS, secondsUntilDue(id), 5);
+        assertEquals(1.0, meterRegistry.counter("notifications.outbox.retried").count());
+
+        makeDue(id);
+        dispatcher.pollOutbox();
+
+        assertEquals("DONE", status(id));
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT attempts FROM notification_outbox WHERE id = ?", Integer.class, id));
+        verify(smsProvider, times(2)).send("P2026001", "+15550000001", "sms");
+        assertEquals(1.0, meterRegistry.counter("notifications.outbox.delivered").count());
+    }
+
+    @Test
+    void pollOutbox_leaseLostWhileWaitingForSmsPermit_skipsTheSend() throws InterruptedException {
+        NotificationService notificationService = mock(NotificationService.class);
+        SmsRateLimiter smsRateLimiter = mock(SmsRateLimiter.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        NotificationDispatcher dispatcher = dispatcher(notificationService, smsRateLimiter, meterRegistry);
+        nodeA.add(entry("k1", "sms"));
+        long id = jdbcTemplate.queryForObject("SELECT id FROM notification_outbox", Long.class);
+        // The permit takes longer than the lease, and node B claims the row meanwhile
+        doAnswer(invocation -> {
+            expireLease(id);
+            assertEquals(1, nodeB.claim(10).size());
+            return null;
+        }).when(smsRateLimiter).acquire();
+
+        dispatcher.pollOutbox();
+
+        verify(notificationService, never()).deliverSms(anyString(), anyString());
+        assertEquals("NOTIFIED", status(id));
+        assertEquals("node-b", jdbcTemplate.queryForObject(
+                "SELECT claimed_by FROM notification_outbox WHERE id = ?", String.class, id));
+        assertEquals(0.0, meterRegistry.counter("notifications.outbox.delivered").count());
+        assertEquals(0.0, meterRegistry.counter("notifications.outbox.retried").count());
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    private NotificationDispatcher dispatcher(NotificationService notificationService,
+                                              SimpleMeterRegistry meterRegistry) {
+        return dispatcher(notificationService, new SmsRateLimiter(1000, 1), meterRegistry);
+    }
+
+    private NotificationDispatcher dispatcher(NotificationService notificationService,
+                                              SmsRateLimiter smsRateLimiter,
+                                              SimpleMeterRegistry meterRegistry) {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.initialize();
+        return new NotificationDispatcher(notificationService, nodeA, smsRateLimiter,
+                executor, transactionManager, meterRegistry, 10, 30);
+    }
+
+    private static Entry entry(String dedupKey, String sms) {
+        return new Entry(dedupKey, "P2026001", NotificationType.APPOINTMENT_BOOKED,
+                "Appointment Confirmed", "in-app", sms, 7L);
+    }
+
+    private static AppointmentStatusChangedEvent confirmed(String time) {
+        return new AppointmentStatusChangedEvent(
+                "P2026001", 7L, AppointmentStatus.CONFIRMED, "2026-03-01", time, "Dr. Smith");
+    }
+
+    private int count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notification_outbox", Integer.class);
+    }
+
+    private String status(long id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM notification_outbox WHERE id = ?", String.class, id);
+    }
+
+    private double secondsUntilDue(long id) {
+        return jdbcTemplate.queryForObject(
+                "SELECT EXTRACT(EPOCH FROM next_attempt_at - NOW()) FROM notification_outbox WHERE id = ?",
+                Double.class, id);
+    }
+
+    private void makeDue(long id) {
+        jdbcTemplate.update("UPDATE notification_outbox SET next_attempt_at = NOW() WHERE id = ?", id);
+    }
+
+    private void expireLease(long id) {
+        jdbcTemplate.update(
+                "UPDATE notification_outbox SET claimed_at = NOW() - INTERVAL '1 hour' WHERE id = ?", id);
+    }
+}
@@ -0,0 +1,119 @@
+package com.ainexus.hospital.patient.service;
+
+import com.ainexus.hospital.patient.service.PatientIdentifierAllocator.PatientIdentifiers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * PatientIdentifierAllocator against a stubbed patient_identifier_seq: each
+ * nextval returns the first number of the next block of 50.
+ */
+@ExtendWith(MockitoExtension.class)
+class PatientIdentifierAllocatorTest {
+
+    private static final long BLOCK = 50;
+
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks private PatientIdentifierAllocator allocator;
+
+    private final AtomicLong sequence = new AtomicLong(1);
+    private final int        year     = Year.now().getValue();
+
+    @BeforeEach
+    void stubSequence() {
+        when(jdbcTemplate.queryForObject(anyString(), any(RowMapper.class))).thenAnswer(invocation -> {
+            long first = sequence.getAndAdd(BLOCK);
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getLong(1)).thenReturn(first);
+            when(rs.getLong(2)).thenReturn(BLOCK);
+            return invocation.<RowMapper<?>>getArgument(1).mapRow(rs, 0);
+        });
+    }
+
+    @Test
+    void allocate_formatsPatientIdAndMrnWithYearAndSharedNumber() {
+        assertEquals(new PatientIdentifiers("P" + year + "001", "MRN" + year + "001"), allocator.allocate());
+        assertEquals(new PatientIdentifiers("P" + year + "002", "MRN" + year + "002"), allocator.allocate());
+    }
+
+    @Test
+    void allocate_numbersPastThreeDigits_areNotTruncated() {
+        sequence.set(1234);
+
+        assertEquals(new PatientIdentifiers("P" + year + "1234", "MRN" + year + "1234"), allocator.allocate());
+    }
+
+    @Test
+    void allocate_reservesNextBlockOnlyWhenCurrentOneIsUsedUp() {
+        for (int i = 1; i <= BLOCK; i++) {
+            assertEquals(String.format("P%d%03d", year, i), allocator.allocate().patientId());
+        }
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), any(RowMapper.class));
+
+        // The sequence moved on (another instance took 51..100): continue from its next block
+        sequence.addAndGet(BLOCK);
+        assertEquals("P" + year + "101", allocator.allocate().patientId());
+        verify(jdbcTemplate, times(2)).queryForObject(anyString(), any(RowMapper.class));
+    }
+
+    @Test
+    void allocate_concurrentCallers_getDistinctNumbersAndOneQueryPerBlock() throws Exception {
+        int threads = 8, perThread = 500;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<PatientIdentifiers>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Callable<List<PatientIdentifiers>> caller = () -> {
+                    start.await();
+                    List<PatientIdentifiers> ids = new ArrayList<>(perThread);
+                    for (int i = 0; i < perThread; i++) ids.add(allocator.allocate());
+                    return ids;
+                };
+                futures.add(pool.submit(caller));
+            }
+            start.countDown();
+
+            Set<String> patientIds = new HashSet<>();
+            Set<String> mrns       = new HashSet<>();
+            for (Future<List<PatientIdentifiers>> future : futures) {
+                for (PatientIdentifiers ids : future.get()) {
+                    patientIds.add(ids.patientId());
+                    mrns.add(ids.mrn());
+                }
+            }
+            assertEquals(threads * perThread, patientIds.size());
+            assertEquals(threads * perThread, mrns.size());
+            // Every reserved number was handed out: no block was fetched twice or abandoned
+            verify(jdbcTemplate, times(threads * perThread / (int) BLOCK))
+                    .queryForObject(anyString(), any(RowMapper.class));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.ainexus.hospital.patient.service;
+
+import com.ainexus.hospital.patient.dto.request.PatientCreateRequest;
+import com.ainexus.hospital.patient.model.Gender;
+import com.ainexus.hospital.patient.service.PatientImportService.Prepared;
+import com.ainexus.hospital.patient.service.PatientImportService.RawRecord;
+import com.ainexus.hospital.patient.service.PatientImportService.RecordReader;
+import com.ainexus.hospital.patient.service.PatientImportService.RowParser;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CSV parsing of the bulk import: field splitting, header binding and how the
+ * upload is cut into records. Persistence is covered by the repository tests.
+ */
+class PatientImportServiceTest {
+
+    private static final String HEADER = "firstName,lastName,dateOfBirth,gender,phoneNumber,address";
+
+    // ── splitCsv ──────────────────────────────────────────────────────────────
+
+    @Test
+    void splitCsv_quotedFieldWithComma_staysOneField() {
+        assertEquals(List.of("Jane", "12 Main St, Apt 4", "Springfield"),
+                PatientImportService.splitCsv("Jane,\"12 Main St, Apt 4\",Springfield"));
+    }
+
+    @Test
+    void splitCsv_doubledQuoteInsideQuotedField_isOneQuote() {
+        assertEquals(List.of("Robert \"Bob\"", "Smith"),
+                PatientImportService.splitCsv("\"Robert \"\"Bob\"\"\",Smith"));
+    }
+
+    @Test
+    void splitCsv_lineBreakInsideQuotedField_isKept() {
+        assertEquals(List.of("Jane", "12 Main St\nApt 4"),
+                PatientImportService.splitCsv("Jane,\"12 Main St\nApt 4\""));
+    }
+
+    @Test
+    void splitCsv_emptyFields_areKept() {
+        assertEquals(List.of("Jane", "", "", ""), PatientImportService.splitCsv("Jane,,,"));
+    }
+
+    // ── csvParser ─────────────────────────────────────────────────────────────
+
+    @Test
+    void csvParser_headerInAnyOrderAndSpelling_bindsColumns() throws Exception {
+        RowParser parser = PatientImportService.csvParser("Last_Name,first name,GENDER,date-of-birth");
+
+        PatientCreateRequest request = parser.parse("Doe,Jane,female,1990-01-15");
+
+        assertEquals("Jane", request.getFirstName());
+        assertEquals("Doe", request.getLastName());
+        assertEquals(Gender.FEMALE, request.getGender());
+        assertEquals("1990-01-15", request.getDateOfBirth());
+    }
+
+    @Test
+    void csvParser_emptyField_leavesPropertyNull() throws Exception {
+        PatientCreateRequest request = PatientImportService.csvParser(HEADER)
+                .parse("Jane,Doe,1990-01-15,FEMALE,555-123-4567,");
+
+        assertNull(request.getAddress());
+    }
+
+    @Test
+    void csvParser_unknownHeaderColumns_rejectsUploadWithBadRequest() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> PatientImportService.csvParser("firstName,lastName,ssn,favouriteColour"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+        assertTrue(ex.getReason().contains("[ssn, favouriteColour]"), ex.getReason());
+    }
+
+    @Test
+    void csvParser_wrongFieldCount_rejectsRow() {
+        RowParser parser = PatientImportService.csvParser(HEADER);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> parser.parse("Jane,Doe,1990-01-15,FEMALE"));
+        assertEquals("Expected 6 fields, found 4", ex.getMessage());
+    }
+
+    @Test
+    void csvParser_unknownGender_rejectsRow() {
+        RowParser parser = PatientImportService.csvParser(HEADER);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> parser.parse("Jane,Doe,1990-01-15,unknown,555-123-4567,"));
+        assertTrue(ex.getMessage().startsWith("gender: must be one of"), ex.getMessage());
+    }
+
+    // ── RecordReader ──────────────────────────────────────────────────────────
+
+    @Test
+    void recordReader_byteOrderMark_isStrippedFromHeader() throws Exception {
+        List<RawRecord> records = read("\uFEFF" + HEADER + "\nJane,Doe,1990-01-15,FEMALE,555-123-4567,\n");
+
+        assertEquals(HEADER, records.get(0).text());
+        RowParser parser = PatientImportService.csvParser(records.get(0).text());
+        assertEquals("Jane", parser.parse(records.get(1).text()).getFirstName());
+    }
+
+    @Test
+    void recordReader_multiLineQuotedField_isOneRecordNumberedByItsFirstLine() {
+        List<RawRecord> records = read(HEADER + "\n"
+                + "Jane,Doe,1990-01-15,FEMALE,555-123-4567,\"12 Main St\nApt 4\"\n"
+                + "\n"
+                + "John,Roe,1985-06-01,MALE,555-987-6543,\n");
+
+        assertEquals(3, records.size());
+        assertEquals(2, records.get(1).line());
+        assertEquals("Apt 4", PatientImportService.splitCsv(records.get(1).text()).get(5).split("\n")[1]);
+        // The blank line is skipped but still counted
+        assertEquals(5, records.get(2).line());
+    }
+
+    @Test
+    void recordReader_strayQuote_rejectsThatRowAndResumesAtNextLine() {
+        StringBuilder csv = new StringBuilder(HEADER).append('\n')
+                .append("Jane,Doe,1990-01-15,FEMALE,555-123-4567,\"12 Main St\n");
+        int following = RecordReader.MAX_RECORD_LINES + 50;
+        for (int i = 0; i < following; i++) {
+            csv.append("John,Roe,1985-06-01,MALE,555-987-6543,\n");
+        }
+
+        List<RawRecord> records = read(csv.toString());
+
+        assertEquals(1 + 1 + following, records.size());
+        RawRecord rejected = records.get(1);
+        assertEquals(2, rejected.line());
+        assertNull(rejected.text());
+        assertNotNull(rejected.error());
+        for (int i = 0; i < following; i++) {
+            RawRecord row = records.get(2 + i);
+            assertNull(row.error());
+            assertEquals(3 + i, row.line());
+        }
+    }
+
+    @Test
+    void recordReader_quoteStillOpenAtEndOfUpload_rejectsOnlyThatRow() {
+        List<RawRecord> records = read(HEADER + "\n"
+                + "Jane,Doe,1990-01-15,FEMALE,555-123-4567,\"12 Main St\n"
+                + "John,Roe,1985-06-01,MALE,555-987-6543,\n");
+
+        assertEquals(3, records.size());
+        assertNotNull(records.get(1).error());
+        assertEquals("John,Roe,1985-06-01,MALE,555-987-6543,", records.get(2).text());
+        assertEquals(3, records.get(2).line());
+    }
+
+    @Test
+    void recordReader_ndjson_quotesDoNotJoinLines() {
+        List<RawRecord> records = readNdjson("{\"firstName\":\"Jane \\\"J\"}\n{\"firstName\":\"John\"}\n");
+
+        assertEquals(2, records.size());
+        assertNull(records.get(0).error());
+    }
+
+    @Test
+    void prepare_unreadableRecord_becomesRowErrorWithItsLine() {
+        PatientImportService service = new PatientImportService(
+                null, null, null, null, null, null, null, null, null, null, 500, 1000);
+
+        Prepared prepared = service.prepare(new RawRecord(7, null, "unreadable"),
+                PatientImportService.csvParser(HEADER));
+
+        assertEquals(7, prepared.line());
+        assertEquals("unreadable", prepared.error());
+        assertNull(prepared.patient());
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    private static List<RawRecord> read(String upload) {
+        return drain(new RecordReader(new StringReader(upload), true));
+    }
+
+    private static List<RawRecord> readNdjson(String upload) {
+        return drain(new RecordReader(new StringReader(upload), false));
+    }
+
+    private static List<RawRecord> drain(RecordReader reader) {
+        List<RawRecord> records = new ArrayList<>();
+        reader.forEachRemaining(records::add);
+        return records;
+    }
+}
@@ -0,0 +1,66 @@
+package com.ainexus.hospital.patient.service;
+
+import com.ainexus.hospital.patient.repository.search.SearchTerm;
+import com.ainexus.hospital.patient.repository.search.SearchTerm.Kind;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatientSearchPlannerTest {
+
+    private final SearchIndexService   searchIndexService = new SearchIndexService("test-encryption-key-for-unit-tests!");
+    private final PatientSearchPlanner planner            = new PatientSearchPlanner(searchIndexService);
+
+    @Test
+    void plan_blank_isNone() {
+        assertSame(SearchTerm.NONE, planner.plan(null));
+        assertSame(SearchTerm.NONE, planner.plan("   "));
+    }
+
+    @Test
+    void plan_email_isEmailHash() {
+        SearchTerm term = planner.plan(" Jane.Doe@Example.com ");
+
+        assertEquals(Kind.EMAIL, term.kind());
+        assertEquals(searchIndexService.hashEmail("jane.doe@example.com"), term.value());
+    }
+
+    @Test
+    void plan_formattedPhoneNumber_isPhoneHash() {
+        SearchTerm term = planner.plan("(555) 123-4567");
+
+        assertEquals(Kind.PHONE, term.kind());
+        assertEquals(searchIndexService.hashPhone("5551234567"), term.value());
+    }
+
+    @Test
+    void plan_shortDigitRun_isPatientIdOrMrnNumberWithoutPhoneHash() {
+        SearchTerm term = planner.plan("6003");
+
+        assertEquals(Kind.NUMBER, term.kind());
+        assertEquals("6003", term.value());
+        assertNull(term.phoneHash());
+    }
+
+    @Test
+    void plan_digitRunAsLongAsAPhoneNumber_isNumberAlsoMatchedAsPhone() {
+        // The digits of P2026003 — also a valid length for a local phone number
+        SearchTerm term = planner.plan("2026003");
+
+        assertEquals(Kind.NUMBER, term.kind());
+        assertEquals("2026003", term.value());
+        assertEquals(searchIndexService.hashPhone("2026003"), term.phoneHash());
+    }
+
+    @Test
+    void plan_patientIdAndMrn_areUpperCasedFragments() {
+        assertEquals(SearchTerm.patientIdFragment("P2026003"), planner.plan("p2026003"));
+        assertEquals(SearchTerm.mrnFragment("MRN2026"), planner.plan("mrn2026"));
+    }
+
+    @Test
+    void plan_anythingElse_isLowerCasedNameFragment() {
+        assertEquals(SearchTerm.nameFragment("smi"), planner.plan("Smi"));
+        assertEquals(SearchTerm.nameFragment("o'brien"), planner.plan("O'Brien"));
+    }
+}
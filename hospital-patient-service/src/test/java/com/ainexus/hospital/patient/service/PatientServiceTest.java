@@ -9,6 +9,7 @@ import com.ainexus.hospital.patient.model.Patient;
 import com.ainexus.hospital.patient.model.PatientStatus;
 import com.ainexus.hospital.patient.repository.PatientRepository;
 import com.ainexus.hospital.patient.security.UserPrincipal;
+import com.ainexus.hospital.patient.service.PatientIdentifierAllocator.PatientIdentifiers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -29,11 +30,10 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class PatientServiceTest {
 
-    @Mock private PatientRepository         patientRepository;
-    @Mock private PatientIdGeneratorService idGeneratorService;
-    @Mock private MrnGeneratorService       mrnGeneratorService;
-    @Mock private PatientMapper             patientMapper;
-    @Mock private SearchIndexService        searchIndexService;
+    @Mock private PatientRepository          patientRepository;
+    @Mock private PatientIdentifierAllocator identifierAllocator;
+    @Mock private PatientMapper              patientMapper;
+    @Mock private SearchIndexService         searchIndexService;
 
     @InjectMocks private PatientService patientService;
 
@@ -78,8 +78,7 @@ class PatientServiceTest {
         when(searchIndexService.hashPhone(anyString())).thenReturn("abc123hash");
         when(searchIndexService.nameSearchToken(anyString())).thenReturn("john");
         when(patientRepository.existsByPhoneNumberHash("abc123hash")).thenReturn(false);
-        when(idGeneratorService.generate()).thenReturn("P2026001");
-        when(mrnGeneratorService.generate()).thenReturn("MRN2026001");
+        when(identifierAllocator.allocate()).thenReturn(new PatientIdentifiers("P2026001", "MRN2026001"));
         when(patientMapper.toEntity(request)).thenReturn(entity);
         when(patientRepository.save(any(Patient.class))).thenReturn(saved);
         when(patientMapper.toResponse(saved)).thenReturn(expectedResponse);
@@ -119,8 +118,7 @@ class PatientServiceTest {
         when(searchIndexService.hashPhone(anyString())).thenReturn("abc123hash");
         when(searchIndexService.nameSearchToken(anyString())).thenReturn("jane");
         when(patientRepository.existsByPhoneNumberHash("abc123hash")).thenReturn(true);
-        when(idGeneratorService.generate()).thenReturn("P2026002");
-        when(mrnGeneratorService.generate()).thenReturn("MRN2026002");
+        when(identifierAllocator.allocate()).thenReturn(new PatientIdentifiers("P2026002", "MRN2026002"));
         when(patientMapper.toEntity(request)).thenReturn(entity);
         when(patientRepository.save(any(Patient.class))).thenReturn(saved);
         when(patientMapper.toResponse(saved)).thenReturn(expectedResponse);
@@ -0,0 +1,142 @@
+package com.ainexus.hospital.patient.service;
+
+import com.ainexus.hospital.patient.model.PatientPhoto;
+import com.ainexus.hospital.patient.repository.PatientPhotoRepository;
+import com.ainexus.hospital.patient.repository.PatientPhotoVariantRepository;
+import com.ainexus.hospital.patient.service.PhotoVariantService.Rendition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PhotoVariantServiceTest {
+
+    private static final String HASH = "ab12cd34";
+
+    @Mock private PatientPhotoRepository        photoRepository;
+    @Mock private PatientPhotoVariantRepository variantRepository;
+
+    // ── render ────────────────────────────────────────────────────────────────
+
+    @Test
+    void render_scalesLongestEdgeKeepingAspect_asJpeg() throws IOException {
+        Rendition rendition = PhotoVariantService.render(image(1000, 500, BufferedImage.TYPE_INT_RGB), 64);
+
+        assertEquals("image/jpeg", rendition.contentType());
+        BufferedImage scaled = read(rendition);
+        assertEquals(64, scaled.getWidth());
+        assertEquals(32, scaled.getHeight());
+    }
+
+    @Test
+    void render_neverUpscales() throws IOException {
+        BufferedImage scaled = read(PhotoVariantService.render(image(40, 30, BufferedImage.TYPE_INT_RGB), 256));
+
+        assertEquals(40, scaled.getWidth());
+        assertEquals(30, scaled.getHeight());
+    }
+
+    @Test
+    void render_keepsAlphaAsPng() throws IOException {
+        Rendition rendition = PhotoVariantService.render(image(300, 600, BufferedImage.TYPE_INT_ARGB), 64);
+
+        assertEquals("image/png", rendition.contentType());
+        BufferedImage scaled = read(rendition);
+        assertTrue(scaled.getColorModel().hasAlpha());
+        assertEquals(32, scaled.getWidth());
+        assertEquals(64, scaled.getHeight());
+    }
+
+    // ── decode ────────────────────────────────────────────────────────────────
+
+    @Test
+    void decode_subsamplesLargeImagesToAboutDecodeEdge() throws IOException {
+        BufferedImage decoded = service(40_000_000).decode(HASH, photo(png(2500, 1250)));
+
+        // step 2: every other pixel of every other row
+        assertEquals(1250, decoded.getWidth());
+        assertEquals(625, decoded.getHeight());
+    }
+
+    @Test
+    void decode_keepsImagesWithinDecodeEdgeAtFullSize() throws IOException {
+        BufferedImage decoded = service(40_000_000).decode(HASH, photo(png(800, 600)));
+
+        assertEquals(800, decoded.getWidth());
+        assertEquals(600, decoded.getHeight());
+    }
+
+    @Test
+    void decode_aboveThePixelCap_returnsNullWithoutDecoding() throws IOException {
+        assertNull(service(1_000_000).decode(HASH, photo(png(2000, 1000))));
+    }
+
+    @Test
+    void decode_unknownFormat_returnsNull() throws IOException {
+        assertNull(service(40_000_000).decode(HASH, photo("RIFF....WEBPVP8 ".getBytes())));
+    }
+
+    // ── generateVariants / requestVariants ────────────────────────────────────
+
+    @Test
+    void generateVariants_insertsOnlyMissingSizes() throws IOException {
+        when(variantRepository.findSizesByContentHash(HASH)).thenReturn(List.of(64));
+        when(photoRepository.findById(HASH)).thenReturn(Optional.of(photo(png(800, 600))));
+
+        service(40_000_000).generateVariants(HASH);
+
+        verify(variantRepository).insertIfAbsent(eq(HASH), eq(256), eq("image/jpeg"), anyInt(), any());
+        verify(variantRepository, never()).insertIfAbsent(eq(HASH), eq(64), any(), anyInt(), any());
+    }
+
+    @Test
+    void requestVariants_imageAboveThePixelCap_isNotRetried() throws IOException {
+        when(variantRepository.findSizesByContentHash(HASH)).thenReturn(List.of());
+        when(photoRepository.findById(HASH)).thenReturn(Optional.of(photo(png(2000, 1000))));
+        PhotoVariantService service = service(1_000_000);
+
+        service.requestVariants(HASH);
+        service.requestVariants(HASH);
+
+        verify(photoRepository, times(1)).findById(HASH);
+        verify(variantRepository, never()).insertIfAbsent(any(), anyInt(), any(), anyInt(), any());
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    /** Runs requested work inline on the calling thread. */
+    private PhotoVariantService service(long maxPixels) {
+        return new PhotoVariantService(photoRepository, variantRepository, Runnable::run, maxPixels);
+    }
+
+    private static PatientPhoto photo(byte[] data) {
+        return PatientPhoto.builder().contentHash(HASH).contentType("image/png").data(data).build();
+    }
+
+    private static BufferedImage image(int width, int height, int type) {
+        return new BufferedImage(width, height, type);
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+
+    private static BufferedImage read(Rendition rendition) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(rendition.data()));
+    }
+}
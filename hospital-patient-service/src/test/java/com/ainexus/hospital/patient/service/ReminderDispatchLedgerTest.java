@@ -0,0 +1,175 @@
+package com.ainexus.hospital.patient.service;
+
+import com.ainexus.hospital.patient.service.ReminderDispatchLedger.Claim;
+import com.ainexus.hospital.patient.service.ReminderDispatchLedger.Status;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY;
+import static io.zonky.test.db.AutoConfigureEmbeddedDatabase.DatabaseType.POSTGRES;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * reminder_dispatch_ledger seeding, claims and lease takeover against
+ * PostgreSQL (SKIP LOCKED, ON CONFLICT and make_interval do not run on H2).
+ *
+ * Not transactional: claims commit on their own, as in production.
+ */
+@JdbcTest
+@AutoConfigureEmbeddedDatabase(type = POSTGRES, provider = ZONKY)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReminderDispatchLedgerTest {
+
+    private static final LocalDate DAY          = LocalDate.of(2026, 3, 2);
+    private static final int       LEASE        = 10;
+    private static final int       MAX_ATTEMPTS = 3;
+
+    @Autowired JdbcTemplate               jdbcTemplate;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    private ReminderDispatchLedger nodeA;
+    private ReminderDispatchLedger nodeB;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM reminder_dispatch_ledger");
+        jdbcTemplate.update("DELETE FROM patient_appointments");
+        nodeA = new ReminderDispatchLedger(jdbcTemplate, "node-a", LEASE, MAX_ATTEMPTS);
+        nodeB = new ReminderDispatchLedger(jdbcTemplate, "node-b", LEASE, MAX_ATTEMPTS);
+    }
+
+    // ── Seeding ───────────────────────────────────────────────────────────────
+
+    @Test
+    void seed_addsOpenAppointmentsOfTheDayOnce() {
+        long scheduled = appointment(DAY, "SCHEDULED");
+        long confirmed = appointment(DAY, "CONFIRMED");
+        appointment(DAY, "CANCELLED");
+        appointment(DAY.plusDays(1), "SCHEDULED");
+
+        assertEquals(2, nodeA.seed(DAY));
+        assertEquals(0, nodeB.seed(DAY));
+
+        assertEquals(List.of(scheduled, confirmed), jdbcTemplate.queryForList(
+                "SELECT appointment_id FROM reminder_dispatch_ledger WHERE status = 'PENDING' ORDER BY appointment_id",
+                Long.class));
+    }
+
+    // ── Claims ────────────────────────────────────────────────────────────────
+
+    @Test
+    void claim_secondClaim_skipsRowsLeasedByTheFirst() {
+        ledgerRows(1, 2, 3);
+
+        assertEquals(List.of(new Claim(1, false), new Claim(2, false)), nodeA.claim(DAY, 2));
+        assertEquals(List.of(new Claim(3, false)), nodeB.claim(DAY, 10));
+        assertTrue(nodeA.claim(DAY, 10).isEmpty());
+        assertEquals("node-a", claimedBy(1));
+        assertEquals("node-b", claimedBy(3));
+    }
+
+    @Test
+    void claim_rowLockedByAnInFlightClaim_isSkippedWithoutWaiting() throws Exception {
+        ledgerRows(1, 2);
+
+        List<Claim> claimedWhileLocked = new TransactionTemplate(transactionManager).execute(status -> {
+            // Another node's claim statement holds row 1 until it commits
+            jdbcTemplate.queryForList("SELECT appointment_id FROM reminder_dispatch_ledger "
+                    + "WHERE appointment_id = 1 FOR UPDATE");
+            try {
+                return CompletableFuture.supplyAsync(() -> nodeB.claim(DAY, 10)).get(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertEquals(List.of(new Claim(2, false)), claimedWhileLocked);
+        assertEquals(List.of(new Claim(1, false)), nodeA.claim(DAY, 10));
+    }
+
+    @Test
+    void claim_afterLeaseExpiry_anotherNodeTakesOverAndKeepsNotified() {
+        ledgerRows(1);
+        nodeA.claim(DAY, 10);
+        nodeA.markNotified(DAY, List.of(1L));
+        assertTrue(nodeB.claim(DAY, 10).isEmpty(), "still leased");
+
+        expireLeases();
+        assertEquals(List.of(new Claim(1, true)), nodeB.claim(DAY, 10));
+        assertEquals(2, attempts(1));
+
+        // The first node's late outcome is ignored; the new owner's is recorded
+        nodeA.complete(DAY, Map.of(1L, Status.SMS_FAILED));
+        assertEquals("NOTIFIED", status(1));
+        nodeB.complete(DAY, Map.of(1L, Status.SENT));
+        assertEquals("SENT", status(1));
+    }
+
+    @Test
+    void seed_retiresRowsWhoseLeaseExpiredOnTheLastAttempt() {
+        ledgerRows(1);
+        jdbcTemplate.update("UPDATE reminder_dispatch_ledger SET attempts = ?", MAX_ATTEMPTS - 1);
+        nodeA.claim(DAY, 10);
+        expireLeases();
+
+        assertTrue(nodeB.claim(DAY, 10).isEmpty());
+        nodeB.seed(DAY);
+
+        assertEquals("EXHAUSTED", status(1));
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    private long appointment(LocalDate date, String status) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO patient_appointments (patient_id, appointment_date, appointment_time,
+                                                  appointment_type, status, created_by)
+                VALUES ('P2026001', ?, '09:00', 'CONSULTATION', ?, 'test-user')
+                RETURNING id
+                """, Long.class, Date.valueOf(date), status);
+    }
+
+    private void ledgerRows(long... appointmentIds) {
+        for (long id : appointmentIds) {
+            jdbcTemplate.update("INSERT INTO reminder_dispatch_ledger (appointment_id, reminder_date) VALUES (?, ?)",
+                    id, Date.valueOf(DAY));
+        }
+    }
+
+    private void expireLeases() {
+        jdbcTemplate.update("UPDATE reminder_dispatch_ledger SET claimed_at = NOW() - make_interval(mins => ?)",
+                LEASE + 1);
+    }
+
+    private String status(long appointmentId) {
+        return column("status", appointmentId, String.class);
+    }
+
+    private String claimedBy(long appointmentId) {
+        return column("claimed_by", appointmentId, String.class);
+    }
+
+    private int attempts(long appointmentId) {
+        return column("attempts", appointmentId, Integer.class);
+    }
+
+    private <T> T column(String column, long appointmentId, Class<T> type) {
+        return jdbcTemplate.queryForObject("SELECT " + column + " FROM reminder_dispatch_ledger WHERE appointment_id = ?",
+                type, appointmentId);
+    }
+}
@@ -0,0 +1,114 @@
+package com.ainexus.hospital.patient.service;
+
+import com.ainexus.hospital.patient.exception.SmsDeliveryException;
+import com.ainexus.hospital.patient.model.PatientAppointment;
+import com.ainexus.hospital.patient.repository.PatientAppointmentRepository;
+import com.ainexus.hospital.patient.repository.PatientRepository;
+import com.ainexus.hospital.patient.repository.projection.PatientPhoneRow;
+import com.ainexus.hospital.patient.service.ReminderDispatchLedger.Claim;
+import com.ainexus.hospital.patient.service.ReminderDispatchLedger.Status;
+import com.ainexus.hospital.patient.sms.SmsProvider;
+import com.ainexus.hospital.patient.sms.SmsRateLimiter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReminderDispatchServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 2);
+
+    @Mock private PatientAppointmentRepository appointmentRepository;
+    @Mock private PatientRepository            patientRepository;
+    @Mock private NotificationService          notificationService;
+    @Mock private ReminderDispatchLedger       ledger;
+    @Mock private SmsProvider                  smsProvider;
+    @Mock private PlatformTransactionManager   transactionManager;
+
+    private final ThreadPoolTaskExecutor smsExecutor = new ThreadPoolTaskExecutor();
+
+    @BeforeEach
+    void setUp() {
+        smsExecutor.initialize();
+        lenient().when(ledger.lease()).thenReturn(Duration.ofMinutes(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        smsExecutor.shutdown();
+    }
+
+    // ── Startup check ─────────────────────────────────────────────────────────
+
+    @Test
+    void constructor_chunkTakingLongerThanTheLeaseToSend_isRejected() {
+        // 500 sends at 1/s shared by 2 replicas: 1000 s against a 600 s lease
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> service(new SmsRateLimiter(1, 2), 500));
+
+        assertTrue(e.getMessage().contains("claim-lease-minutes"), e.getMessage());
+    }
+
+    @Test
+    void constructor_chunkSentWithinTheLease_isAccepted() {
+        assertDoesNotThrow(() -> service(new SmsRateLimiter(1, 1), 500));
+    }
+
+    // ── Outcomes ──────────────────────────────────────────────────────────────
+
+    @Test
+    void dispatchReminders_providerRejection_isRecordedAsSmsFailed() {
+        PatientAppointment sent   = appointment(1L, "P2026001");
+        PatientAppointment failed = appointment(2L, "P2026002");
+        when(ledger.claim(DAY, 500))
+                .thenReturn(List.of(new Claim(1L, true), new Claim(2L, true)))
+                .thenReturn(List.of());
+        when(appointmentRepository.findAllById(any())).thenReturn(List.of(sent, failed));
+        when(patientRepository.findPhoneNumbers(any())).thenReturn(List.of(
+                new PatientPhoneRow("P2026001", "+15550000001"),
+                new PatientPhoneRow("P2026002", "+15550000002")));
+        // lenient: the other patient's send must reach the mock's default, not a strict-stubs mismatch
+        lenient().doThrow(new SmsDeliveryException("Twilio rejected the message, error 21610"))
+                .when(smsProvider).send(eq("P2026002"), anyString(), anyString());
+
+        service(new SmsRateLimiter(1000, 1), 500).dispatchReminders(DAY);
+
+        verify(ledger).complete(DAY, Map.of(1L, Status.SENT, 2L, Status.SMS_FAILED));
+        verify(transactionManager, never()).getTransaction(any());  // in-app rows already exist
+        verifyNoInteractions(notificationService);
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    private ReminderDispatchService service(SmsRateLimiter limiter, int chunkSize) {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        return new ReminderDispatchService(appointmentRepository, patientRepository, notificationService,
+                ledger, smsProvider, limiter, smsExecutor, transactionManager, chunkSize);
+    }
+
+    private static PatientAppointment appointment(long id, String patientId) {
+        return PatientAppointment.builder()
+                .id(id)
+                .patientId(patientId)
+                .appointmentDate(DAY)
+                .appointmentTime(LocalTime.of(9, 30))
+                .doctorName("Dr. Smith")
+                .build();
+    }
+}
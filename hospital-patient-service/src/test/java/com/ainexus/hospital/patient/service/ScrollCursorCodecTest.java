@@ -0,0 +1,85 @@
+package com.ainexus.hospital.patient.service;
+
+import com.ainexus.hospital.patient.config.AesEncryptionConverter;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScrollCursorCodecTest {
+
+    private static final Function<String[], String[]> KEYS = keys -> keys;
+
+    private final ScrollCursorCodec codec =
+            new ScrollCursorCodec(new AesEncryptionConverter("test-encryption-key-for-unit-tests!"));
+
+    // ── Round trip ────────────────────────────────────────────────────────────
+
+    @Test
+    void encodeDecode_roundTripsKeysContainingSeparatorsAndNonAscii() {
+        String cursor = codec.encode("o'brien, jr", "zoë", "42");
+
+        assertArrayEquals(new String[] { "o'brien, jr", "zoë", "42" }, codec.decode(cursor, 3, KEYS));
+    }
+
+    @Test
+    void encode_nullKey_decodesAsEmptyString() {
+        assertArrayEquals(new String[] { "", "7" }, codec.decode(codec.encode(null, "7"), 2, KEYS));
+    }
+
+    @Test
+    void encode_isUrlSafeAndDoesNotExposeTheKeys() {
+        String cursor = codec.encode("smith", "jane", "1001");
+
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"), cursor);
+        assertFalse(cursor.contains("smith"));
+        // Fresh IV per cursor: the same position never yields the same string
+        assertNotEquals(cursor, codec.encode("smith", "jane", "1001"));
+    }
+
+    // ── Rejection ─────────────────────────────────────────────────────────────
+
+    @Test
+    void decode_tamperedCursor_isBadRequest() {
+        String cursor = codec.encode("smith", "jane", "1001");
+        int i = cursor.length() / 2;
+        String tampered = cursor.substring(0, i) + (cursor.charAt(i) == 'A' ? 'B' : 'A') + cursor.substring(i + 1);
+
+        assertBadRequest(() -> codec.decode(tampered, 3, KEYS));
+    }
+
+    @Test
+    void decode_cursorFromAnotherKey_isBadRequest() {
+        ScrollCursorCodec other = new ScrollCursorCodec(new AesEncryptionConverter("another-encryption-key-of-32-bytes!"));
+
+        assertBadRequest(() -> codec.decode(other.encode("smith", "jane", "1001"), 3, KEYS));
+    }
+
+    @Test
+    void decode_garbage_isBadRequest() {
+        assertBadRequest(() -> codec.decode("not-a-cursor", 3, KEYS));
+        assertBadRequest(() -> codec.decode("", 3, KEYS));
+    }
+
+    @Test
+    void decode_wrongKeyCount_isBadRequest() {
+        assertBadRequest(() -> codec.decode(codec.encode("2026-03-01T09:00:00Z", "5"), 3, KEYS));
+    }
+
+    @Test
+    void decode_unparseableKey_isBadRequest() {
+        String cursor = codec.encode("smith", "jane", "not-a-number");
+
+        assertBadRequest(() -> codec.decode(cursor, 3, keys -> Long.parseLong(keys[2])));
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    private static void assertBadRequest(Runnable decode) {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, decode::run);
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+    }
+}
@@ -0,0 +1,117 @@
+package com.ainexus.hospital.patient.sms;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Timing bounds are loose on the upper side so a slow build machine does not
+ * fail them; the lower bounds are what the limiter guarantees.
+ */
+class SmsRateLimiterTest {
+
+    @Test
+    void constructor_nonPositiveRate_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new SmsRateLimiter(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new SmsRateLimiter(-1, 1));
+    }
+
+    @Test
+    void constructor_noReplicas_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new SmsRateLimiter(10, 0));
+    }
+
+    @Test
+    void timeFor_usesThisNodesShareOfTheAccountRate() {
+        assertEquals(Duration.ofSeconds(50), new SmsRateLimiter(10, 1).timeFor(500));
+        assertEquals(Duration.ofSeconds(100), new SmsRateLimiter(10, 2).timeFor(500));
+    }
+
+    @Test
+    void acquire_withReplicas_pacesAtTheNodesShare() throws InterruptedException {
+        SmsRateLimiter limiter = new SmsRateLimiter(40, 2);
+        acquire(limiter, 20);
+
+        // 10 more permits at 40/2 = 20/s → about 500 ms
+        long elapsed = millis(() -> acquire(limiter, 10));
+        assertTrue(elapsed >= 450, "elapsed " + elapsed + " ms");
+        assertTrue(elapsed < 1500, "elapsed " + elapsed + " ms");
+    }
+
+    @Test
+    void acquire_burstUpToOneSecondOfPermits_doesNotWait() throws InterruptedException {
+        SmsRateLimiter limiter = new SmsRateLimiter(20, 1);
+
+        assertTrue(millis(() -> acquire(limiter, 20)) < 200);
+    }
+
+    @Test
+    void acquire_beyondTheBurst_isSpacedAtTheConfiguredRate() throws InterruptedException {
+        SmsRateLimiter limiter = new SmsRateLimiter(20, 1);
+        acquire(limiter, 20);
+
+        // 10 more permits at 20/s → about 500 ms
+        long elapsed = millis(() -> acquire(limiter, 10));
+        assertTrue(elapsed >= 450, "elapsed " + elapsed + " ms");
+        assertTrue(elapsed < 1500, "elapsed " + elapsed + " ms");
+    }
+
+    @Test
+    void acquire_afterIdling_burstIsCappedAtOneSecondOfPermits() throws InterruptedException {
+        SmsRateLimiter limiter = new SmsRateLimiter(10, 1);
+        acquire(limiter, 10);
+        Thread.sleep(1500);
+
+        // Idle time refilled at most 10 permits, so 5 of these 15 wait ~500 ms
+        long elapsed = millis(() -> acquire(limiter, 15));
+        assertTrue(elapsed >= 450, "elapsed " + elapsed + " ms");
+    }
+
+    @Test
+    void acquire_concurrentCallers_shareOneRate() throws Exception {
+        SmsRateLimiter limiter = new SmsRateLimiter(20, 1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> callers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                callers.add(pool.submit(() -> {
+                    acquire(limiter, 5);
+                    return null;
+                }));
+            }
+            for (Future<?> caller : callers) caller.get();
+
+            // 40 permits: 20 from the full bucket, 20 more at 20/s → about 1 s
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue(elapsed >= 950, "elapsed " + elapsed + " ms");
+            assertTrue(elapsed < 3000, "elapsed " + elapsed + " ms");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    private interface Action {
+        void run() throws InterruptedException;
+    }
+
+    private static long millis(Action action) throws InterruptedException {
+        long start = System.nanoTime();
+        action.run();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static void acquire(SmsRateLimiter limiter, int permits) throws InterruptedException {
+        for (int i = 0; i < permits; i++) limiter.acquire();
+    }
+}
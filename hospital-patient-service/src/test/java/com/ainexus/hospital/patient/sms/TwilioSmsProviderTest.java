@@ -0,0 +1,70 @@
+package com.ainexus.hospital.patient.sms;
+
+import com.ainexus.hospital.patient.exception.SmsDeliveryException;
+import com.ainexus.hospital.patient.model.SmsDeliveryLog;
+import com.ainexus.hospital.patient.model.SmsStatus;
+import com.ainexus.hospital.patient.repository.SmsDeliveryLogRepository;
+import com.twilio.exception.ApiException;
+import com.twilio.rest.api.v2010.account.Message;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TwilioSmsProviderTest {
+
+    private static final String PHONE = "+15550000001";
+
+    @Mock private SmsDeliveryLogRepository smsLogRepository;
+
+    private TwilioSmsProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        provider = new TwilioSmsProvider(smsLogRepository);
+        ReflectionTestUtils.setField(provider, "fromNumber", "+15550000000");
+    }
+
+    @Test
+    void send_rejectedByTwilio_recordsFailedAndThrowsWithoutPhi() {
+        try (MockedStatic<Message> message = mockStatic(Message.class)) {
+            message.when(() -> Message.creator(any(), any(), anyString()))
+                    .thenThrow(new ApiException("Too Many Requests for " + PHONE));
+
+            SmsDeliveryException e = assertThrows(SmsDeliveryException.class,
+                    () -> provider.send("P2026001", PHONE, "Reminder"));
+
+            assertFalse(e.getMessage().contains(PHONE), e.getMessage());
+        }
+        assertEquals(SmsStatus.FAILED, savedLog().getStatus());
+    }
+
+    @Test
+    void send_connectionFailure_recordsFailedAndThrows() {
+        try (MockedStatic<Message> message = mockStatic(Message.class)) {
+            message.when(() -> Message.creator(any(), any(), anyString()))
+                    .thenThrow(new IllegalStateException("connection reset"));
+
+            assertThrows(SmsDeliveryException.class, () -> provider.send("P2026001", PHONE, "Reminder"));
+        }
+        assertEquals(SmsStatus.FAILED, savedLog().getStatus());
+    }
+
+    // ── Helpers ───────────────────────────────────────────────────────────────
+
+    private SmsDeliveryLog savedLog() {
+        ArgumentCaptor<SmsDeliveryLog> saved = ArgumentCaptor.forClass(SmsDeliveryLog.class);
+        verify(smsLogRepository).save(saved.capture());
+        return saved.getValue();
+    }
+}
@@ -10,13 +10,21 @@ import type {
   PortalContactUpdateRequest,
   PatientNotification,
 } from '../types/patient.types'
-import type { PageResponse } from '../types/api.types'
+import type { CursorPageResponse, PageResponse } from '../types/api.types'
 
 export async function fetchPatients(params: PatientSearchParams): Promise<PageResponse<PatientSummary>> {
   const { data } = await api.get('/patients', { params })
   return data
 }
 
+/** Cursor (keyset) variant of fetchPatients for infinite scroll; no total count. */
+export async function scrollPatients(
+  params: Omit<PatientSearchParams, 'page'> & { cursor?: string },
+): Promise<CursorPageResponse<PatientSummary>> {
+  const { data } = await api.get('/patients/scroll', { params })
+  return data
+}
+
 export async function fetchPatient(patientId: string): Promise<Patient> {
   const { data } = await api.get(`/patients/${patientId}`)
   return data
@@ -47,9 +55,13 @@ export async function uploadPatientPhoto(patientId: string, file: File): Promise
   })
 }
 
-export async function fetchPatientPhotoBlob(patientId: string): Promise<string> {
-  // Fetch photo with JWT header via the shared axios instance, return a blob URL
-  const response = await api.get(`/patients/${patientId}/photo`, { responseType: 'blob' })
+export async function fetchPatientPhotoBlob(
+  patientId: string,
+  size: '64' | '256' | 'original' = 'original',
+): Promise<string> {
+  // Fetch photo with JWT header via the shared axios instance, return a blob URL.
+  // 64/256 are server-side scaled variants (longest edge in px) — use them for avatars.
+  const response = await api.get(`/patients/${patientId}/photo`, { params: { size }, responseType: 'blob' })
   return URL.createObjectURL(response.data)
 }
 
@@ -121,8 +133,21 @@ export async function recordVitals(patientId: string, req: PatientVitalsRequest)
 
 // ── Audit Trail ────────────────────────────────────────────────────────────
 
-export async function fetchAuditTrail(patientId: string): Promise<AuditEntry[]> {
-  const { data } = await api.get(`/patients/${patientId}/audit-trail`)
+export interface AuditTrailParams {
+  action?: string
+  userId?: string
+  from?: string   // ISO-8601 instant, inclusive
+  to?: string     // ISO-8601 instant, exclusive
+  cursor?: string
+  size?: number
+}
+
+/** One newest-first slice of the audit trail; pass nextCursor back as cursor. */
+export async function fetchAuditTrail(
+  patientId: string,
+  params: AuditTrailParams = {},
+): Promise<CursorPageResponse<AuditEntry>> {
+  const { data } = await api.get(`/patients/${patientId}/audit-trail`, { params })
   return data
 }
 
@@ -180,6 +205,14 @@ export async function fetchAllAppointments(params: GlobalAppointmentParams): Pro
   return data
 }
 
+/** Cursor (keyset) variant of fetchAllAppointments for infinite scroll; no total count. */
+export async function scrollAllAppointments(
+  params: Omit<GlobalAppointmentParams, 'page'> & { cursor?: string },
+): Promise<CursorPageResponse<PatientAppointment>> {
+  const { data } = await api.get('/appointments/scroll', { params })
+  return data
+}
+
 // ── Allergies ───────────────────────────────────────────────────────────────
 
 export async function fetchAllergies(patientId: string): Promise<PatientAllergy[]> {
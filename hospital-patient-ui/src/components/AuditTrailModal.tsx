@@ -1,4 +1,5 @@
-import { Modal, Table, Tag, Button } from 'antd'
+import { useState } from 'react'
+import { Modal, Table, Tag, Button, Select, Space } from 'antd'
 import type { ColumnsType } from 'antd/es/table'
 import { useAuditTrail } from '../hooks/usePatientAuditLog'
 import type { AuditEntry } from '../types/patient.types'
@@ -10,24 +11,33 @@ interface Props {
 }
 
 const ACTION_COLORS: Record<string, string> = {
-  CREATE:           'green',
-  READ:             'default',
-  UPDATE:           'blue',
-  DEACTIVATE:       'orange',
-  ACTIVATE:         'green',
-  PHOTO_UPLOAD:     'purple',
-  PHOTO_DELETE:     'red',
-  LINK_FAMILY:      'cyan',
-  UNLINK_FAMILY:    'volcano',
-  INSURANCE_ADD:    'geekblue',
-  INSURANCE_UPDATE: 'blue',
-  INSURANCE_REMOVE: 'red',
-  VITALS_RECORD:    'lime',
-  CSV_EXPORT:       'gold',
+  CREATE:               'green',
+  READ:                 'default',
+  UPDATE:               'blue',
+  DEACTIVATE:           'orange',
+  ACTIVATE:             'green',
+  PHOTO_UPLOAD:         'purple',
+  PHOTO_DELETE:         'red',
+  LINK_FAMILY:          'cyan',
+  UNLINK_FAMILY:        'volcano',
+  INSURANCE_ADD:        'geekblue',
+  INSURANCE_UPDATE:     'blue',
+  INSURANCE_REMOVE:     'red',
+  VITALS_RECORD:        'lime',
+  CSV_EXPORT:           'gold',
+  APPOINTMENT_SCHEDULE: 'cyan',
+  APPOINTMENT_UPDATE:   'blue',
+  APPOINTMENT_CANCEL:   'red',
+  ALLERGY_ADD:          'magenta',
+  ALLERGY_UPDATE:       'blue',
+  ALLERGY_REMOVE:       'red',
 }
 
 export function AuditTrailModal({ open, patientId, onClose }: Props) {
-  const { data: entries = [], isLoading } = useAuditTrail(patientId, open)
+  const [action, setAction] = useState<string | undefined>()
+  const { data, isLoading, hasNextPage, fetchNextPage, isFetchingNextPage } =
+    useAuditTrail(patientId, open, action)
+  const entries = data?.pages.flatMap((p) => p.content) ?? []
 
   const columns: ColumnsType<AuditEntry> = [
     {
@@ -62,15 +72,32 @@ export function AuditTrailModal({ open, patientId, onClose }: Props) {
       footer={<Button onClick={onClose}>Close</Button>}
       width={900}
     >
+      <Space style={{ marginBottom: 12 }}>
+        <Select
+          allowClear
+          placeholder="All actions"
+          style={{ width: 220 }}
+          value={action}
+          onChange={setAction}
+          options={Object.keys(ACTION_COLORS).map((a) => ({ value: a, label: a }))}
+        />
+      </Space>
       <Table
         dataSource={entries}
         columns={columns}
         rowKey="id"
         loading={isLoading}
-        pagination={{ pageSize: 20 }}
+        pagination={false}
         size="small"
         locale={{ emptyText: 'No audit entries found' }}
       />
+      {hasNextPage && (
+        <div style={{ textAlign: 'center', marginTop: 12 }}>
+          <Button onClick={() => fetchNextPage()} loading={isFetchingNextPage}>
+            Load older entries
+          </Button>
+        </div>
+      )}
     </Modal>
   )
 }
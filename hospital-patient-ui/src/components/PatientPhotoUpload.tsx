@@ -35,7 +35,7 @@ export function PatientPhotoUpload({ patientId, hasPhoto, canEdit, firstName, la
     }
 
     let objectUrl: string | null = null
-    fetchPatientPhotoBlob(patientId)
+    fetchPatientPhotoBlob(patientId, '256')
       .then(url => {
         objectUrl = url
         setBlobUrl(url)
@@ -1,10 +1,12 @@
-import { useQuery } from '@tanstack/react-query'
+import { useInfiniteQuery } from '@tanstack/react-query'
 import { fetchAuditTrail } from '../api/patient-api'
 
-export function useAuditTrail(patientId: string, enabled: boolean) {
-  return useQuery({
-    queryKey: ['patients', patientId, 'audit-trail'],
-    queryFn: () => fetchAuditTrail(patientId),
+export function useAuditTrail(patientId: string, enabled: boolean, action?: string) {
+  return useInfiniteQuery({
+    queryKey: ['patients', patientId, 'audit-trail', action ?? 'all'],
+    queryFn: ({ pageParam }) => fetchAuditTrail(patientId, { action, cursor: pageParam, size: 50 }),
+    initialPageParam: undefined as string | undefined,
+    getNextPageParam: (last) => last.nextCursor ?? undefined,
     enabled: enabled && !!patientId,
     staleTime: 0,
   })
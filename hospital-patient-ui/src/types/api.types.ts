@@ -6,6 +6,14 @@ export interface PageResponse<T> {
   size: number
 }
 
+/** Keyset-paginated slice — pass nextCursor back as `cursor` for the next slice. */
+export interface CursorPageResponse<T> {
+  content: T[]
+  size: number
+  hasNext: boolean
+  nextCursor: string | null
+}
+
 export interface FieldError {
   field: string
   message: string